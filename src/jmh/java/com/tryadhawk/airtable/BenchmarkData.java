@@ -0,0 +1,140 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.internal.http.AirtableHttpClient;
+import com.tryadhawk.airtable.v0.Attachment;
+import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordPage;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.Param;
+
+/**
+ * Builds representative Airtable payloads for the benchmarks
+ */
+public final class BenchmarkData {
+
+    /**
+     * The shape of the rows in a page
+     */
+    public enum Shape {
+        /* a few short columns */
+        SMALL,
+        /* short columns plus a few KB of long text */
+        WIDE,
+        /* short columns plus several attachments */
+        ATTACHMENTS
+    }
+
+    /**
+     * Build a page of records
+     * @param shape the shape of each row
+     * @param size the number of records in the page
+     * @param offset the offset of the next page or null if it is the last page
+     * @return the page
+     */
+    static RecordPage<BenchmarkRow> page(Shape shape, int size, String offset) {
+        List<Record<BenchmarkRow>> records = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i)
+            records.add(Record.of(String.format("rec%014d", i), row(shape, i), "2020-01-01T00:00:00.000Z"));
+        return new RecordPage<>(records, offset);
+    }
+
+    /**
+     * Build a page of records and serialize it to JSON
+     * @param mapper the mapper to serialize with
+     * @param shape the shape of each row
+     * @param size the number of records in the page
+     * @param offset the offset of the next page or null if it is the last page
+     * @return the JSON bytes of the page
+     */
+    static byte[] pageJson(ObjectMapper mapper, Shape shape, int size, String offset) {
+        try {
+            return mapper.writeValueAsBytes(page(shape, size, offset));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Build a client for a table whose pages are answered by a {@link StubHttpClient}. Page {@code i} is returned for
+     * offset {@code "page" + i}, and the first page for requests without an offset
+     * @param mapper the mapper to parse and serialize with
+     * @param pages the JSON bytes of each page
+     * @return the table client
+     */
+    static AsyncTable<BenchmarkRow> table(ObjectMapper mapper, byte[]... pages) {
+        AsyncHttpClient httpClient = StubHttpClient.of(request -> {
+            for (Param param : request.getQueryParams()) {
+                if ("offset".equals(param.getName()))
+                    return pages[Integer.parseInt(param.getValue().substring(4))];
+            }
+            return pages[0];
+        });
+        return new AsyncTable<>("https://api.airtable.com/v0/appBenchmark/Table", "key", BenchmarkRow.class,
+                new AirtableHttpClient(httpClient, mapper), mapper);
+    }
+
+    /**
+     * Build the pages of a table, linked by offsets understood by {@link #table(ObjectMapper, byte[]...)}
+     * @param mapper the mapper to serialize with
+     * @param shape the shape of each row
+     * @param count the number of pages
+     * @return the JSON bytes of each page
+     */
+    static byte[][] pagesJson(ObjectMapper mapper, Shape shape, int count) {
+        byte[][] pages = new byte[count][];
+        for (int i = 0; i < count; ++i)
+            pages[i] = pageJson(mapper, shape, 100, i + 1 < count ? "page" + (i + 1) : null);
+        return pages;
+    }
+
+    /**
+     * Build a single row
+     * @param shape the shape of the row
+     * @param i the row number
+     * @return the row
+     */
+    static BenchmarkRow row(Shape shape, int i) {
+        BenchmarkRow row = new BenchmarkRow("Name " + i, "user" + i + "@example.com", i, null, null);
+        if (shape == Shape.WIDE)
+            row.setNotes(String.join(" ", Collections.nCopies(400, "lorem ipsum")));
+        if (shape == Shape.ATTACHMENTS) {
+            List<Attachment> attachments = new ArrayList<>();
+            for (int j = 0; j < 5; ++j) {
+                Attachment attachment = new Attachment();
+                attachment.setId("att" + i + "_" + j);
+                attachment.setUrl("https://dl.airtable.com/.attachments/" + i + "/" + j + "/image.png");
+                attachment.setFilename("image" + j + ".png");
+                attachment.setSize(123456f);
+                attachment.setType("image/png");
+                attachments.add(attachment);
+            }
+            row.setAttachments(attachments);
+        }
+        return row;
+    }
+
+    private BenchmarkData() { }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures serializing request bodies with {@link AsyncTable#bodyToJson(ObjectWriter, Object)}, for a single record
+ * and for a batch of 10 records as sent by createAll and updateAll
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BodyToJsonBenchmark {
+
+    @Param({"SMALL", "WIDE", "ATTACHMENTS"})
+    private BenchmarkData.Shape shape;
+
+    private ObjectWriter recordWriter;
+    private ObjectWriter batchWriter;
+    private Record<BenchmarkRow> record;
+    private RecordBatch<BenchmarkRow> batch;
+
+    @Setup
+    public void setup() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        recordWriter = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructParametricType(Record.class, BenchmarkRow.class));
+        batchWriter = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructParametricType(RecordBatch.class, BenchmarkRow.class));
+        record = Record.of(BenchmarkData.row(shape, 1));
+        List<Record<BenchmarkRow>> records = new ArrayList<>();
+        for (int i = 0; i < 10; ++i)
+            records.add(Record.of(BenchmarkData.row(shape, i)));
+        batch = new RecordBatch<>(records);
+    }
+
+    @Benchmark
+    public byte[] record() {
+        return AsyncTable.bodyToJson(recordWriter, record);
+    }
+
+    @Benchmark
+    public byte[] batch() {
+        return AsyncTable.bodyToJson(batchWriter, batch);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import com.tryadhawk.airtable.internal.http.QueryRequestBuilder;
+import org.asynchttpclient.Request;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the request for a query, from a query with no params to one too long for a URL that is sent as a
+ * POST with a JSON body
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QueryRequestBuilderBenchmark {
+
+    /**
+     * The kind of query built
+     */
+    public enum Kind {
+        /* no params */
+        EMPTY,
+        /* a few fields, a sort, a view, and a short formula */
+        TYPICAL,
+        /* a formula too long for a URL */
+        LONG
+    }
+
+    @Param({"EMPTY", "TYPICAL", "LONG"})
+    private Kind kind;
+
+    private final QueryRequestBuilder builder = new QueryRequestBuilder();
+    private final String tableUrl = "https://api.airtable.com/v0/appBenchmark/Table";
+    private Query query;
+
+    @Setup
+    public void setup() {
+        switch (kind) {
+            case EMPTY:
+                query = Query.builder().build();
+                break;
+            case TYPICAL:
+                query = Query.builder().field("Name").field("Email").field("Count").view("Grid view")
+                        .sort(new Sort("Name")).sort(new Sort("Count", Sort.Direction.desc))
+                        .filterByFormula("AND({Count} > 10, FIND('example.com', {Email}))").pageSize(100)
+                        .offset("itrNextPage/recNextPage").build();
+                break;
+            default:
+                query = Query.builder().field("Name").field("Email")
+                        .filterByFormula("OR(" + String.join(",", Collections.nCopies(1000, "{Name} = 'Name 1'")) + ")")
+                        .build();
+                break;
+        }
+    }
+
+    @Benchmark
+    public Request buildRequestForQuery() {
+        return builder.buildRequestForQuery(query, tableUrl).build();
+    }
+}
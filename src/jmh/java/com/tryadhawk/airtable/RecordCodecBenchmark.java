@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares resolving the record types on every call against the readers and writers cached by {@link AsyncTable},
+ * with and without the bytecode generating Afterburner module registered on the mapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecordCodecBenchmark {
+
+    @Param({"false", "true"})
+    private boolean afterburner;
+
+    private ObjectMapper objectMapper;
+    private ObjectReader pageReader;
+    private ObjectWriter recordWriter;
+    private byte[] page;
+    private Record<BenchmarkRow> record;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        if (afterburner)
+            objectMapper.registerModule(new AfterburnerModule());
+        pageReader = objectMapper.readerFor(
+                objectMapper.getTypeFactory().constructParametricType(RecordPage.class, BenchmarkRow.class));
+        recordWriter = objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructParametricType(Record.class, BenchmarkRow.class));
+        page = BenchmarkData.pageJson(objectMapper, BenchmarkData.Shape.SMALL, 100, "itrNextPage/recNextPage");
+        record = Record.of(BenchmarkData.row(BenchmarkData.Shape.SMALL, 1));
+    }
+
+    /** Construct the page type and parse with the mapper on every call, the previous behavior */
+    @Benchmark
+    public RecordPage<BenchmarkRow> parsePagePerCallType() throws IOException {
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(RecordPage.class, BenchmarkRow.class);
+        return objectMapper.readValue(page, type);
+    }
+
+    /** Parse with a reader built once for the page type */
+    @Benchmark
+    public RecordPage<BenchmarkRow> parsePageCachedReader() throws IOException {
+        return pageReader.readValue(page);
+    }
+
+    /** Serialize a record with the generic mapper, the previous behavior */
+    @Benchmark
+    public byte[] writeRecordMapper() throws IOException {
+        return objectMapper.writeValueAsBytes(record);
+    }
+
+    /** Serialize a record with a writer built once for the record type */
+    @Benchmark
+    public byte[] writeRecordCachedWriter() throws IOException {
+        return recordWriter.writeValueAsBytes(record);
+    }
+}
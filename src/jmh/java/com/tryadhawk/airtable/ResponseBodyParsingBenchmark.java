@@ -0,0 +1,77 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.v0.RecordPage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares parsing a page of records from a String decoded from the response body with parsing directly from the
+ * response bytes. Run with the gc profiler to compare allocations per page
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBodyParsingBenchmark {
+
+    @Param({"SMALL", "WIDE", "ATTACHMENTS"})
+    private BenchmarkData.Shape shape;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JavaType pageType;
+    private byte[] body;
+
+    @Setup
+    public void setup() {
+        pageType = objectMapper.getTypeFactory().constructParametricType(RecordPage.class, BenchmarkRow.class);
+        body = BenchmarkData.pageJson(objectMapper, shape, 100, "itrNextPage/recNextPage");
+    }
+
+    /** Decode the body to a String and parse the String, the previous behavior */
+    @Benchmark
+    public RecordPage<BenchmarkRow> parseFromString() throws IOException {
+        String text = new String(body, StandardCharsets.UTF_8);
+        return objectMapper.readValue(text, pageType);
+    }
+
+    /** Parse directly from the body bytes */
+    @Benchmark
+    public RecordPage<BenchmarkRow> parseFromStream() throws IOException {
+        return objectMapper.readValue(new ByteArrayInputStream(body), pageType);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.concurrent.TimeUnit;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.reactive.Backoff;
+import com.tryadhawk.airtable.internal.reactive.RetryWithDelay;
+import io.reactivex.rxjava3.core.Single;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the overhead {@link RetryWithDelay} adds to a request that succeeds on the first attempt, the common case,
+ * including building a new instance for each request as {@code AirtableHttpClient} does
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RetryWithDelayBenchmark {
+
+    private final Single<String> response = Single.just("response");
+    private RetryWithDelay retry;
+
+    @Setup
+    public void setup() {
+        retry = build();
+    }
+
+    /** No retry, the baseline */
+    @Benchmark
+    public String noRetry() {
+        return response.blockingGet();
+    }
+
+    /** Retry with a shared instance */
+    @Benchmark
+    public String sharedRetry() {
+        return response.retryWhen(retry).blockingGet();
+    }
+
+    /** Retry with a new instance for each request */
+    @Benchmark
+    public String newRetry() {
+        return response.retryWhen(build()).blockingGet();
+    }
+
+    private static RetryWithDelay build() {
+        return RetryWithDelay.builder()
+                .backoff(Backoff.decorrelatedJitter(Configuration.RETRY_BASE_DELAY, Configuration.RETRY_MAX_DELAY,
+                        TimeUnit.MILLISECONDS))
+                .predicate(e -> e instanceof AirtableServerException && ((AirtableServerException) e).getStatusCode() == 429)
+                .build();
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.ListenableFuture;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.Response;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.asynchttpclient.netty.NettyResponse;
+import org.asynchttpclient.uri.Uri;
+
+/**
+ * In-process {@link AsyncHttpClient} for the benchmarks, answering every request immediately with a response built by
+ * a handler so nothing is measured but the client itself
+ */
+public final class StubHttpClient {
+
+    /**
+     * Create a client
+     * @param handler builds the response body for each request
+     * @return the client, only {@link AsyncHttpClient#executeRequest(Request)} and {@link AsyncHttpClient#close()} are
+     * supported
+     */
+    static AsyncHttpClient of(Function<Request, byte[]> handler) {
+        return (AsyncHttpClient) Proxy.newProxyInstance(StubHttpClient.class.getClassLoader(),
+                new Class<?>[] {AsyncHttpClient.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "executeRequest":
+                            if (args.length == 1 && args[0] instanceof Request) {
+                                Request request = (Request) args[0];
+                                return new CompletedFuture<>(response(request, handler.apply(request)));
+                            }
+                            break;
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return false;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "StubHttpClient";
+                        default:
+                            break;
+                    }
+                    throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    private static Response response(Request request, byte[] body) {
+        HttpHeaders headers = new DefaultHttpHeaders()
+                .add(HttpHeaderNames.CONTENT_TYPE, "application/json; charset=utf-8")
+                .add(HttpHeaderNames.CONTENT_LENGTH, body.length);
+        return new NettyResponse(new Status(request.getUri()), headers,
+                Collections.singletonList(new EagerResponseBodyPart(Unpooled.wrappedBuffer(body), true)));
+    }
+
+    /**
+     * A 200 OK status
+     */
+    private static class Status extends HttpResponseStatus {
+
+        private static final SocketAddress ADDRESS = InetSocketAddress.createUnresolved("localhost", 443);
+
+        Status(Uri uri) {
+            super(uri);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "OK";
+        }
+
+        @Override
+        public String getProtocolName() {
+            return "HTTP";
+        }
+
+        @Override
+        public int getProtocolMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getProtocolMinorVersion() {
+            return 1;
+        }
+
+        @Override
+        public String getProtocolText() {
+            return "HTTP/1.1";
+        }
+
+        @Override
+        public SocketAddress getRemoteAddress() {
+            return ADDRESS;
+        }
+
+        @Override
+        public SocketAddress getLocalAddress() {
+            return ADDRESS;
+        }
+    }
+
+    /**
+     * A future that already has its value
+     */
+    private static class CompletedFuture<V> implements ListenableFuture<V> {
+
+        private final V value;
+
+        CompletedFuture(V value) {
+            this.value = value;
+        }
+
+        @Override
+        public void done() { }
+
+        @Override
+        public void abort(Throwable t) { }
+
+        @Override
+        public void touch() { }
+
+        @Override
+        public ListenableFuture<V> addListener(Runnable listener, Executor exec) {
+            if (exec == null)
+                listener.run();
+            else
+                exec.execute(listener);
+            return this;
+        }
+
+        @Override
+        public CompletableFuture<V> toCompletableFuture() {
+            return CompletableFuture.completedFuture(value);
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+
+        @Override
+        public V get() {
+            return value;
+        }
+
+        @Override
+        public V get(long timeout, TimeUnit unit) {
+            return value;
+        }
+    }
+
+    private StubHttpClient() { }
+}
@@ -18,9 +18,25 @@
  */
 package com.tryadhawk.airtable;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.internal.cache.RecordCache;
 import com.tryadhawk.airtable.internal.http.AirtableHttpClient;
+import com.tryadhawk.airtable.internal.http.CircuitBreaker;
+import com.tryadhawk.airtable.internal.http.HedgePolicy;
+import com.tryadhawk.airtable.internal.http.HttpResponseExceptionHandler;
+import com.tryadhawk.airtable.internal.http.RateLimiter;
+import com.tryadhawk.airtable.internal.http.RetryBudget;
+import com.tryadhawk.airtable.internal.reactive.Backoff;
+import com.tryadhawk.airtable.v0.Record;
 import org.asynchttpclient.DefaultAsyncHttpClientConfig;
 import org.asynchttpclient.Dsl;
 import org.asynchttpclient.proxy.ProxyServer;
@@ -30,15 +46,37 @@ public class Airtable {
     private final Configuration config;
     private final AirtableHttpClient airtableHttpClient;
     private final ObjectMapper objectMapper;
+    @Nullable
+    private final CacheConfiguration cacheConfig;
+    @Nullable
+    private final CircuitBreakerConfiguration circuitBreakerConfig;
+    @Nullable
+    private final AirtableEventListener eventListener;
+    @Nullable
+    private final StatsRecorder statsRecorder;
+    private final ConcurrentMap<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
 
     public static AirtableBuilder builder() {
         return new AirtableBuilder();
     }
 
-    private Airtable(Configuration config, AirtableHttpClient airtableHttpClient, ObjectMapper objectMapper) {
+    private Airtable(Configuration config, AirtableHttpClient airtableHttpClient, ObjectMapper objectMapper,
+                     @Nullable CacheConfiguration cacheConfig,
+                     @Nullable CircuitBreakerConfiguration circuitBreakerConfig,
+                     @Nullable AirtableEventListener eventListener) {
         this.config = Objects.requireNonNull(config, "config cannot be null");
         this.airtableHttpClient = Objects.requireNonNull(airtableHttpClient, "airtableHttpClient cannot be null");
         this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper cannot be null");
+        this.cacheConfig = cacheConfig;
+        this.circuitBreakerConfig = circuitBreakerConfig;
+        this.statsRecorder = config.isCollectStats() ? new StatsRecorder() : null;
+        if (statsRecorder == null)
+            this.eventListener = eventListener;
+        else if (eventListener == null)
+            this.eventListener = statsRecorder;
+        else
+            this.eventListener = new CompositeEventListener(Arrays.asList(statsRecorder, eventListener));
     }
 
     /**
@@ -51,7 +89,15 @@ public class Airtable {
      */
     public <T> AsyncTable<T> buildAsyncTable(String baseId, String tableName, Class<T> clazz) {
         String tableUrl = config.getEndpointUrl() + "/" + baseId + "/" + tableName;
-        return new AsyncTable<>(tableUrl, config.getApiKey(), clazz, airtableHttpClient, objectMapper);
+        // expired rows are kept until evicted so finds can return them while the circuit breaker is open
+        boolean retainExpired = circuitBreakerConfig != null && circuitBreakerConfig.isFallbackToCache();
+        RecordCache<Record<T>> cache = cacheConfig == null ? RecordCache.disabled() :
+                new RecordCache<>(cacheConfig, retainExpired);
+        return new AsyncTable<>(tableUrl, config.getApiKey(), clazz, airtableHttpClient, objectMapper,
+                getRateLimiter(baseId), cache, TableOptions.from(config).toBuilder()
+                        .eventListener(eventListener)
+                        .circuitBreaker(getCircuitBreaker(baseId))
+                        .build());
     }
 
     /**
@@ -66,11 +112,68 @@ public class Airtable {
         return new SyncTable<>(buildAsyncTable(baseId, tableName, clazz));
     }
 
+    /**
+     * Build a new replica of an Airtable table, kept up to date in the background once started
+     * @param baseId the id of the base containing the table
+     * @param tableName the name of the table
+     * @param clazz the class the table row data should be mapped to
+     * @param replicaConfig the replica settings
+     * @param <T> the type for {@code clazz}
+     * @return the table replica
+     */
+    public <T> TableReplica<T> buildTableReplica(String baseId, String tableName, Class<T> clazz,
+                                                 ReplicaConfiguration replicaConfig) {
+        return new TableReplica<>(buildAsyncTable(baseId, tableName, clazz), replicaConfig);
+    }
+
+    /**
+     * Get request statistics for each table and operation since the statistics were last reset
+     * @return the statistics, empty if {@link Configuration#isCollectStats()} is not set
+     */
+    public List<TableStats> getStats() {
+        return statsRecorder == null ? Collections.emptyList() : statsRecorder.snapshot();
+    }
+
+    /**
+     * Reset request statistics, starting a new window
+     * @return the statistics for each table and operation in the window that ended, empty if
+     * {@link Configuration#isCollectStats()} is not set
+     */
+    public List<TableStats> resetStats() {
+        return statsRecorder == null ? Collections.emptyList() : statsRecorder.reset();
+    }
+
+    /**
+     * Get the rate limiter for a base, shared by all tables in the base
+     * @param baseId the id of the base
+     * @return the rate limiter
+     */
+    private RateLimiter getRateLimiter(String baseId) {
+        Integer requestsPerSecond = config.getRequestsPerSecond();
+        if (requestsPerSecond == null)
+            return RateLimiter.unlimited();
+        return rateLimiters.computeIfAbsent(baseId, id -> new RateLimiter(requestsPerSecond, config.getRequestBurst()));
+    }
+
+    /**
+     * Get the circuit breaker for a base, shared by all tables in the base
+     * @param baseId the id of the base
+     * @return the circuit breaker
+     */
+    private CircuitBreaker getCircuitBreaker(String baseId) {
+        if (circuitBreakerConfig == null)
+            return CircuitBreaker.disabled();
+        return circuitBreakers.computeIfAbsent(baseId, id -> new CircuitBreaker(id, circuitBreakerConfig));
+    }
+
     public static class AirtableBuilder {
 
         private Configuration config;
         private AirtableHttpClient airtableHttpClient;
         private ObjectMapper objectMapper;
+        private CacheConfiguration cacheConfig;
+        private CircuitBreakerConfiguration circuitBreakerConfig;
+        private AirtableEventListener eventListener;
 
         /**
          * Set the configuration, must be set before calling {@link #build()}
@@ -102,6 +205,40 @@ public class Airtable {
             return this;
         }
 
+        /**
+         * Enable caching of rows found by row ID, each table built will have its own cache. Rows are not cached if not
+         * set
+         * @param cacheConfig the cache settings
+         * @return this builder
+         */
+        public AirtableBuilder cache(CacheConfiguration cacheConfig) {
+            this.cacheConfig = cacheConfig;
+            return this;
+        }
+
+        /**
+         * Enable a circuit breaker for each base, failing requests to a base immediately with an
+         * {@link com.tryadhawk.airtable.exception.AirtableCircuitOpenException} after too many have failed or been
+         * slow. Requests are always sent if not set
+         * @param circuitBreakerConfig the circuit breaker settings
+         * @return this builder
+         */
+        public AirtableBuilder circuitBreaker(CircuitBreakerConfiguration circuitBreakerConfig) {
+            this.circuitBreakerConfig = circuitBreakerConfig;
+            return this;
+        }
+
+        /**
+         * Register a listener for events for every request sent by tables built from the instance. No events are sent
+         * if not set
+         * @param eventListener the listener
+         * @return this builder
+         */
+        public AirtableBuilder eventListener(AirtableEventListener eventListener) {
+            this.eventListener = eventListener;
+            return this;
+        }
+
         public Airtable build() {
             Objects.requireNonNull(config, "config cannot be null");
             ObjectMapper mapper = objectMapper;
@@ -110,7 +247,7 @@ public class Airtable {
                 mapper = new ObjectMapper();
             if (client == null)
                 client = buildHttpClient(config, mapper);
-            return new Airtable(config, client, mapper);
+            return new Airtable(config, client, mapper, cacheConfig, circuitBreakerConfig, eventListener);
         }
 
         private AirtableHttpClient buildHttpClient(Configuration config, ObjectMapper objectMapper) {
@@ -122,7 +259,14 @@ public class Airtable {
             if (config.getProxy() != null)
                 builder.setProxyServer(new ProxyServer.Builder(config.getProxy().getHost(), config.getProxy().getPort()).build());
 
-            return new AirtableHttpClient(Dsl.asyncHttpClient(builder), objectMapper);
+            Backoff backoff = Backoff.decorrelatedJitter(config.getRetryBaseDelay(), config.getRetryMaxDelay(),
+                    TimeUnit.MILLISECONDS);
+            RetryBudget retryBudget = new RetryBudget(config.getRetryBudget(), Configuration.RETRY_BUDGET_MIN_RETRIES);
+            HedgePolicy hedgePolicy = config.getHedgePercentile() == null ? HedgePolicy.disabled() :
+                    new HedgePolicy(config.getHedgePercentile(), config.getHedgeMinDelay(), TimeUnit.MILLISECONDS);
+            return new AirtableHttpClient(Dsl.asyncHttpClient(builder), objectMapper,
+                    new HttpResponseExceptionHandler(objectMapper), backoff, retryBudget,
+                    config.isRetryNonIdempotent(), hedgePolicy, Duration.ofMillis(config.getRateLimitDelay()));
         }
     }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+/**
+ * Receives events for each request sent to Airtable, for collecting metrics such as latency, retries, rate limiting,
+ * and bytes transferred. Register a listener with {@link Airtable.AirtableBuilder#eventListener(AirtableEventListener)}.
+ * Every method does nothing by default, so implementations only override the events they need.
+ * <p>
+ * Callbacks are made on the threads handling the request and should return quickly. Exceptions thrown by a callback
+ * are logged and otherwise ignored. Durations are in nanoseconds
+ */
+public interface AirtableEventListener {
+
+    /**
+     * Called before each attempt to send a request, including retries
+     * @param context the request
+     */
+    default void onRequestStart(RequestContext context) {
+    }
+
+    /**
+     * Called when an attempt ends, whatever its status code. Called exactly once for each call to
+     * {@link #onRequestStart(RequestContext)}
+     * @param context the request
+     * @param statusCode the HTTP status code, 0 if the attempt failed or was cancelled without a response
+     * @param durationNanos the time from sending the attempt to receiving the response
+     * @param responseBytes the size of the response body in bytes, -1 if the response has no Content-Length header
+     */
+    default void onResponse(RequestContext context, int statusCode, long durationNanos, long responseBytes) {
+    }
+
+    /**
+     * Called when a failed attempt will be retried
+     * @param context the request
+     * @param retry the number of the retry, starting at 1
+     * @param delayNanos the time until the retry is sent
+     * @param error the error that failed the attempt
+     */
+    default void onRetryScheduled(RequestContext context, int retry, long delayNanos, Throwable error) {
+    }
+
+    /**
+     * Called when an attempt is delayed by the client side rate limit for its base
+     * @param context the request
+     * @param delayNanos the time until the attempt is sent
+     */
+    default void onRateLimited(RequestContext context, long delayNanos) {
+    }
+
+    /**
+     * Called when a response body has been mapped
+     * @param context the request
+     * @param records the number of records in the response
+     * @param durationNanos the time taken to map the response body
+     */
+    default void onParseCompleted(RequestContext context, int records, long durationNanos) {
+    }
+
+    /**
+     * Called when a request fails and will not be retried, or its response body cannot be mapped
+     * @param context the request
+     * @param error the error
+     * @param durationNanos the time from the first attempt to the failure
+     */
+    default void onError(RequestContext context, Throwable error, long durationNanos) {
+    }
+}
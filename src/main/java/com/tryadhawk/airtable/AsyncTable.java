@@ -18,20 +18,45 @@
  */
 package com.tryadhawk.airtable;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
 import com.tryadhawk.airtable.exception.AirtableException;
 import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.cache.RecordCache;
 import com.tryadhawk.airtable.internal.http.AirtableHttpClient;
+import com.tryadhawk.airtable.internal.http.CircuitBreaker;
 import com.tryadhawk.airtable.internal.http.MimeType;
 import com.tryadhawk.airtable.internal.http.QueryRequestBuilder;
+import com.tryadhawk.airtable.internal.http.RateLimiter;
+import com.tryadhawk.airtable.internal.http.RequestEvents;
+import com.tryadhawk.airtable.internal.json.FieldProjection;
+import com.tryadhawk.airtable.internal.json.RecordStreamParser;
+import com.tryadhawk.airtable.internal.reactive.BatchLoader;
+import com.tryadhawk.airtable.internal.reactive.SingleFlight;
 import com.tryadhawk.airtable.v0.Delete;
+import com.tryadhawk.airtable.v0.DeleteBatch;
+import com.tryadhawk.airtable.v0.Error;
 import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordBatch;
 import com.tryadhawk.airtable.v0.RecordPage;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.Schedulers;
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
 import org.asynchttpclient.Response;
@@ -47,12 +72,43 @@ public class AsyncTable<T> {
 
     private static final Logger logger = LoggerFactory.getLogger(AsyncTable.class);
 
+    /* Max number of records Airtable accepts in a single create, update, or delete request */
+    private static final int MAX_BATCH_SIZE = 10;
+    /* Max number of batch requests in flight at once for a single createAll, updateAll, or deleteAll call */
+    private static final int MAX_BATCH_CONCURRENCY = 4;
+    /* Number of records in a page when a query does not set a page size */
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    /* Number of pages fetched ahead of the subscriber when a query does not set a prefetch */
+    private static final int DEFAULT_PREFETCH = 2;
+    /* Max length of a formula used to find a batch of rows, keeps the request URL well under Airtable's 16k limit */
+    private static final int MAX_FIND_FORMULA_LENGTH = 4000;
+
     private final String url;
+    private final String baseId;
+    private final String tableName;
     private final String apiKey;
     private final Class<T> type;
     private final AirtableHttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final RateLimiter rateLimiter;
+    private final CircuitBreaker circuitBreaker;
+    private final RecordCache<Record<T>> cache;
+    private final SingleFlight<String, Record<T>> findFlights;
+    private final SingleFlight<Query, Record<T>> selectFlights;
+    private final BatchLoader<String, Record<T>> findBatches;
+    private final boolean projectFields;
+    // fields bound by type, empty if type can bind any field
+    private final List<String> projectedFields;
+    private final AirtableEventListener eventListener;
+    private final ObjectReader recordPageReader;
+    private final ObjectReader recordReader;
+    private final ObjectReader recordBatchReader;
+    private final ObjectReader deleteReader;
+    private final ObjectReader deleteBatchReader;
+    private final ObjectWriter recordWriter;
+    private final ObjectWriter recordBatchWriter;
     private final QueryRequestBuilder queryRequestBuilder = new QueryRequestBuilder();
+    private volatile ReadFallback<T> readFallback;
 
     /**
      * Create a new instance
@@ -63,11 +119,68 @@ public class AsyncTable<T> {
      * @param objectMapper the mapper to use for mapping row data to {@code type}
      */
     AsyncTable(String url, String apiKey, Class<T> type, AirtableHttpClient httpClient, ObjectMapper objectMapper) {
+        this(url, apiKey, type, httpClient, objectMapper, RateLimiter.unlimited());
+    }
+
+    /**
+     * Create a new instance
+     * @param url the endpoint URL of this table
+     * @param apiKey the API key to use for authentication
+     * @param type the type to map row data to
+     * @param httpClient the client to use to make requests
+     * @param objectMapper the mapper to use for mapping row data to {@code type}
+     * @param rateLimiter the rate limiter shared by all tables in this table's base
+     */
+    AsyncTable(String url, String apiKey, Class<T> type, AirtableHttpClient httpClient, ObjectMapper objectMapper,
+               RateLimiter rateLimiter) {
+        this(url, apiKey, type, httpClient, objectMapper, rateLimiter, RecordCache.disabled(),
+                TableOptions.builder().build());
+    }
+
+    /**
+     * Create a new instance
+     * @param url the endpoint URL of this table
+     * @param apiKey the API key to use for authentication
+     * @param type the type to map row data to
+     * @param httpClient the client to use to make requests
+     * @param objectMapper the mapper to use for mapping row data to {@code type}
+     * @param rateLimiter the rate limiter shared by all tables in this table's base
+     * @param cache the cache used for finding rows by row ID
+     * @param options the optional behavior for this table
+     */
+    AsyncTable(String url, String apiKey, Class<T> type, AirtableHttpClient httpClient, ObjectMapper objectMapper,
+               RateLimiter rateLimiter, RecordCache<Record<T>> cache, TableOptions options) {
         this.apiKey = Objects.requireNonNull(apiKey, "apiKey cannot be null");
         this.type = Objects.requireNonNull(type, "type cannot be null");
         this.url = Objects.requireNonNull(url, "url cannot be null");
+        String[] path = url.split("/");
+        this.baseId = path.length > 1 ? path[path.length - 2] : "";
+        this.tableName = path[path.length - 1];
         this.httpClient = Objects.requireNonNull(httpClient);
         this.objectMapper = Objects.requireNonNull(objectMapper);
+        this.rateLimiter = Objects.requireNonNull(rateLimiter, "rateLimiter cannot be null");
+        this.circuitBreaker = Objects.requireNonNull(options.getCircuitBreaker(), "circuitBreaker cannot be null");
+        this.cache = Objects.requireNonNull(cache, "cache cannot be null");
+        this.findFlights = options.isCoalesceReads() ? new SingleFlight<>() : SingleFlight.disabled();
+        this.selectFlights = options.isCoalesceReads() ? new SingleFlight<>() : SingleFlight.disabled();
+        this.findBatches = options.getFindBatchWindow() == null ? null : new BatchLoader<>(this::findBatch,
+                Record::getId, this::buildNotFoundException, options.getFindBatchWindow(), TimeUnit.MILLISECONDS,
+                options.getFindBatchSize());
+        this.projectFields = options.isProjectFields();
+        this.projectedFields = FieldProjection.findFields(type, objectMapper);
+        this.eventListener = options.getEventListener();
+        if (projectFields && projectedFields.isEmpty())
+            logger.debug("Cannot project fields for {}, queries will request all fields", type.getName());
+
+        // resolve the types and (de)serializers for this table once instead of on every request
+        TypeFactory typeFactory = objectMapper.getTypeFactory();
+        this.recordPageReader = objectMapper.readerFor(typeFactory.constructParametricType(RecordPage.class, type));
+        this.recordReader = objectMapper.readerFor(typeFactory.constructParametricType(Record.class, type));
+        this.recordBatchReader = objectMapper.readerFor(typeFactory.constructParametricType(RecordBatch.class, type));
+        this.deleteReader = objectMapper.readerFor(Delete.class);
+        this.deleteBatchReader = objectMapper.readerFor(DeleteBatch.class);
+        this.recordWriter = objectMapper.writerFor(typeFactory.constructParametricType(Record.class, type));
+        this.recordBatchWriter = objectMapper.writerFor(typeFactory.constructParametricType(RecordBatch.class, type));
     }
 
     /**
@@ -79,15 +192,90 @@ public class AsyncTable<T> {
     }
 
     /**
-     * Retrieve rows from the table matching a {@link Query}
+     * Retrieve rows from the table matching a {@link Query}. The next page is requested as soon as the current page
+     * has been received, so up to {@link Query#getPrefetch()} pages are fetched while the subscriber is still consuming
+     * earlier pages. If {@link Query#isStreamRecords()} is set, each record is emitted as soon as it has been parsed and
+     * the next page is requested once all records in the current page have been emitted. If reads are coalesced,
+     * concurrent selects for an equal query share the same requests and receive all rows emitted before they subscribed.
+     * If the circuit breaker for the table's base is open before any rows have been emitted, the rows are selected
+     * from the {@link ReadFallback} if one is set
      * @param query the query
      * @return a {@link Publisher} containing matching rows in the table or an {@link AirtableException} if an error
      * occurs
      */
     public Publisher<Record<T>> select(Query query) {
-        return executeQuery(query)
-                .flatMapPublisher(records -> handleResponsePagination(records, query))
-                .flatMap(records -> Flowable.fromIterable(records.getRecords()));
+        return selectFlights.execute(query, () -> Flowable.defer(() -> {
+            AtomicBoolean emitted = new AtomicBoolean();
+            return executeSelect(query)
+                    .doOnNext(record -> emitted.set(true))
+                    .onErrorResumeNext(e -> emitted.get() ? Flowable.error(e) :
+                            selectFallback(query, e).flattenAsFlowable(records -> records));
+        }));
+    }
+
+    /**
+     * Retrieve rows from the table matching a {@link Query} to keep a local copy of the table up to date. Unlike
+     * {@link #select(Query)}, the rows are never selected from the {@link ReadFallback}, which may be the copy being
+     * updated, so scans fail while the circuit breaker is open rather than reading back the copy's own rows
+     * @param query the query
+     * @return a {@link Flowable} containing matching rows in the table or an {@link AirtableException} if an error
+     * occurs
+     */
+    Flowable<Record<T>> scan(Query query) {
+        return Flowable.defer(() -> executeSelect(query));
+    }
+
+    /**
+     * Retrieve rows from the table matching a {@link Query}, caching complete rows
+     * @param query the query
+     * @return all matching rows in the table
+     */
+    private Flowable<Record<T>> executeSelect(Query query) {
+        Flowable<Record<T>> records;
+        if (query.isStreamRecords()) {
+            records = executeStreamingQuery(query);
+        } else {
+            records = executePaginatedQuery(query)
+                    // hand pages off to another thread so fetching the next page does not wait for this one to be consumed
+                    .observeOn(Schedulers.computation(), false, getPrefetch(query))
+                    .concatMapIterable(RecordPage::getRecords, 1);
+        }
+        // records containing only some of their fields would be served as complete records by find
+        if (query.getFields().isEmpty())
+            records = records.doOnNext(this::cacheRecord);
+        return records;
+    }
+
+    /**
+     * Watch for changes to the rows matching a {@link Query}. Rows changed since the previous poll are found by their
+     * last modified time and compared to a fingerprint of each row kept from the previous poll, so only changed rows
+     * are fetched and kept in memory. Polls are made every {@code interval}, and deleted rows are found by
+     * periodically scanning the row IDs matching the query, with the default {@link ChangeStreamConfiguration}
+     * @param query the query
+     * @param interval the time between polls
+     * @return a {@link Publisher} containing the changes found by each poll, starting with the changes after the first
+     * poll, or an {@link AirtableException} if the first poll fails
+     */
+    public Publisher<RecordChange<T>> changes(Query query, Duration interval) {
+        return changes(query, interval, ChangeStreamConfiguration.builder().build());
+    }
+
+    /**
+     * Watch for changes to the rows matching a {@link Query}. Rows changed since the previous poll are found by their
+     * last modified time and compared to a fingerprint of each row kept from the previous poll, so only changed rows
+     * are fetched and kept in memory. Deleted rows are found by periodically scanning the row IDs matching the query.
+     * Polls after the first that fail are logged and retried on the next interval
+     * @param query the query
+     * @param interval the time between polls
+     * @param config the change stream settings
+     * @return a {@link Publisher} containing the changes found by each poll, starting with the changes after the first
+     * poll, or an {@link AirtableException} if the first poll fails
+     */
+    public Publisher<RecordChange<T>> changes(Query query, Duration interval, ChangeStreamConfiguration config) {
+        return Flowable.defer(() -> new ChangeTracker<>(
+                new TableScanner<>(this, query, config.getLastModifiedField(), config.getDeleteScanField()),
+                recordWriter, config, Clock.systemUTC())
+                .changes(interval, Schedulers.computation()));
     }
 
     /**
@@ -99,29 +287,171 @@ public class AsyncTable<T> {
     }
 
     /**
-     * Retrieve a page of rows from the table matching a {@link Query}
+     * Retrieve a page of rows from the table matching a {@link Query}. If the circuit breaker for the table's base is
+     * open and the query is for the first page, the page is selected from the {@link ReadFallback} if one is set. A
+     * page from the fallback has no offset
      * @param query the query
      * @return a {@link Publisher} containing a single page of matching results or an {@link AirtableException} if an
      * error occurs
      */
     public Publisher<RecordPage<T>> selectPage(Query query) {
+        int pageSize = query.getPageSize() == null ? DEFAULT_PAGE_SIZE : query.getPageSize();
         return executeQuery(query)
+                .onErrorResumeNext(e -> query.getOffset() != null ? Single.error(e) : selectFallback(query, e)
+                        .map(records -> new RecordPage<>(records.subList(0, Math.min(records.size(), pageSize)), null)))
                 .toFlowable();
     }
 
     /**
-     * Find a row in the table by its row ID
+     * Find a row in the table by its row ID. If a cache is configured, the row is returned from the cache when
+     * present and only fetched from Airtable otherwise. If reads are coalesced, concurrent finds for the same row ID
+     * share the same request. If finds are batched, finds made within the batch window are loaded together with a
+     * single select. If the circuit breaker for the table's base is open, the row is returned from the cache even if
+     * it has expired, when {@link CircuitBreakerConfiguration#isFallbackToCache()} is set, or from the
+     * {@link ReadFallback} if one is set
      * @param id the row ID
      * @return a {@link Publisher} containing the matching row or an {@link AirtableException} if an error occurs
      */
     public Publisher<Record<T>> find(String id) {
-        Request request = buildBaseRequest("GET", getTableUrl() + "/" + id).build();
-        return Single.just(request)
-                .flatMap(httpClient::execute)
-                // TODO handle 404?
-                .map(response -> parseResponseBodyAsRecord(response))
-                .doOnError(e -> logger.warn("Failed to find id {}", id))
-                .toFlowable();
+        return Flowable.defer(() -> {
+            RecordCache.Entry<Record<T>> cached = cache.get(id);
+            if (cached == null)
+                return findFlights.execute(id, () -> fetch(id)
+                        .onErrorResumeNext(e -> findFallback(id, e))
+                        .toFlowable());
+            if (cached.isMissing())
+                return Flowable.<Record<T>>error(cached.getError());
+            return Flowable.just(cached.getValue());
+        });
+    }
+
+    /**
+     * Fetch a row from Airtable by its row ID, bypassing and then updating the cache
+     * @param id the row ID
+     * @return the matching row
+     */
+    private Single<Record<T>> fetch(String id) {
+        Single<Record<T>> record;
+        if (findBatches != null) {
+            record = findBatches.load(id);
+        } else {
+            Request request = buildBaseRequest("GET", getTableUrl() + "/" + id).build();
+            record = execute(RequestContext.Operation.FIND, request, recordReader);
+        }
+        return record
+                .doOnSuccess(this::cacheRecord)
+                .doOnError(e -> {
+                    if (e instanceof AirtableServerException && ((AirtableServerException) e).getStatusCode() == 404)
+                        cache.putMissing(id, e);
+                    logger.warn("Failed to find id {}", id);
+                });
+    }
+
+    /**
+     * Find a row locally after a find failed because the circuit breaker is open, from the cache and then the
+     * {@link ReadFallback}
+     * @param id the row ID
+     * @param error the error the find failed with
+     * @return the row or {@code error} if it cannot be found locally
+     */
+    private Single<Record<T>> findFallback(String id, Throwable error) {
+        if (!(error instanceof AirtableCircuitOpenException))
+            return Single.error(error);
+        if (circuitBreaker.isFallbackToCache()) {
+            RecordCache.Entry<Record<T>> stale = cache.getStale(id);
+            if (stale != null) {
+                logger.debug("Circuit breaker is open, returning cached row {}", id);
+                return stale.isMissing() ? Single.error(stale.getError()) : Single.just(stale.getValue());
+            }
+        }
+        ReadFallback<T> fallback = readFallback;
+        Record<T> record = fallback == null || !fallback.isReady() ? null : fallback.get(id);
+        if (record == null)
+            return Single.error(error);
+        logger.debug("Circuit breaker is open, returning row {} from fallback", id);
+        return Single.just(record);
+    }
+
+    /**
+     * Select rows locally from the {@link ReadFallback} after a select failed because the circuit breaker is open
+     * @param query the query
+     * @param error the error the select failed with
+     * @return the matching rows or {@code error} if they cannot be selected locally
+     */
+    private Single<List<Record<T>>> selectFallback(Query query, Throwable error) {
+        ReadFallback<T> fallback = readFallback;
+        if (!(error instanceof AirtableCircuitOpenException) || fallback == null || !fallback.isReady())
+            return Single.error(error);
+        List<Record<T>> records;
+        try {
+            records = fallback.select(query);
+        } catch (RuntimeException e) {
+            error.addSuppressed(e);
+            return Single.error(error);
+        }
+        logger.debug("Circuit breaker is open, selected {} rows for query {} from fallback", records.size(), query);
+        return Single.just(records);
+    }
+
+    /**
+     * Find a batch of rows by their row IDs with as few selects as the max formula length allows
+     * @param ids the distinct row IDs
+     * @return the rows that were found, in no particular order
+     */
+    private Flowable<Record<T>> findBatch(List<String> ids) {
+        return Flowable.fromIterable(buildFindFormulas(ids))
+                .flatMap(formula -> executeSelect(Query.builder().filterByFormula(formula).build()),
+                        MAX_BATCH_CONCURRENCY)
+                .doOnError(e -> logger.warn("Failed to find ids {}", ids));
+    }
+
+    /**
+     * Build formulas matching rows by row ID, splitting the IDs between formulas so that no formula is longer than
+     * {@link #MAX_FIND_FORMULA_LENGTH}
+     * @param ids the row IDs
+     * @return the formulas
+     */
+    static List<String> buildFindFormulas(List<String> ids) {
+        List<String> formulas = new ArrayList<>();
+        StringBuilder formula = new StringBuilder();
+        for (String id : ids) {
+            String term = "RECORD_ID()='" + id.replace("\\", "\\\\").replace("'", "\\'") + "'";
+            if (formula.length() > 0 && formula.length() + term.length() + 2 > MAX_FIND_FORMULA_LENGTH) {
+                formulas.add(formula.append(')').toString());
+                formula.setLength(0);
+            }
+            formula.append(formula.length() == 0 ? "OR(" : ",").append(term);
+        }
+        if (formula.length() > 0)
+            formulas.add(formula.append(')').toString());
+        return formulas;
+    }
+
+    /**
+     * Build the exception for a row that was not returned when finding a batch of rows, matching the error Airtable
+     * returns when finding a single row that does not exist
+     * @param id the row ID
+     * @return the exception
+     */
+    private Throwable buildNotFoundException(String id) {
+        return new AirtableServerException(404, "Not Found", new Error("NOT_FOUND", "Could not find record " + id));
+    }
+
+    /**
+     * Set the local source of rows for finds and selects to read from while the circuit breaker for the table's base
+     * is open
+     * @param readFallback the fallback, or null to fail reads while the circuit breaker is open
+     */
+    public void setReadFallback(ReadFallback<T> readFallback) {
+        this.readFallback = readFallback;
+    }
+
+    /**
+     * Get statistics for the cache used when finding rows by row ID
+     * @return the cache statistics, all zero if no cache is configured
+     */
+    public CacheStats getCacheStats() {
+        return cache.stats();
     }
 
     /**
@@ -131,18 +461,43 @@ public class AsyncTable<T> {
      */
     public Publisher<Record<T>> create(T item) {
         return Single.just(Record.of(item))
-                .map(this::bodyToJson)
+                .map(record -> bodyToJson(recordWriter, record))
                 .map(body -> buildBaseRequest("POST", getTableUrl())
                         .addHeader("Content-Type", MimeType.APPLICATION_JSON)
                         .setBody(body)
                         .build())
-                .flatMap(httpClient::execute)
-                .map(response -> parseResponseBodyAsRecord(response))
+                .flatMap(request -> this.<Record<T>>execute(RequestContext.Operation.CREATE, request, recordReader))
+                .doOnSuccess(this::cacheRecord)
                 .doOnError(e -> logger.warn("Failed to create item {}", item))
                 .toFlowable();
     }
 
-    // TODO support batch create/update/delete methods
+    /**
+     * Create new rows in the table. Rows are sent to Airtable in batches of 10
+     * @param items the data for the rows
+     * @return a {@link Publisher} containing the created rows in the same order as {@code items} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Record<T>> createAll(Collection<T> items) {
+        return createAll(Flowable.fromIterable(items));
+    }
+
+    /**
+     * Create new rows in the table. Rows are sent to Airtable in batches of 10
+     * @param items the data for the rows
+     * @return a {@link Publisher} containing the created rows in the same order as {@code items} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Record<T>> createAll(Publisher<T> items) {
+        return Flowable.fromPublisher(items)
+                .map(item -> Record.of(item))
+                .buffer(MAX_BATCH_SIZE)
+                .concatMapEager(batch -> executeBatch("POST", batch)
+                        .doOnError(e -> logger.warn("Failed to create items {}", batch))
+                        .toFlowable(), MAX_BATCH_CONCURRENCY, 1)
+                .concatMapIterable(RecordBatch::getRecords);
+    }
+
     // TODO support PUT update method
 
     /**
@@ -154,17 +509,45 @@ public class AsyncTable<T> {
      */
     public Publisher<Record<T>> update(String id, T item) {
         return Single.just(Record.of(item))
-                .map(this::bodyToJson)
+                .map(record -> bodyToJson(recordWriter, record))
                 .map(body -> buildBaseRequest("PATCH", getTableUrl() + "/" + id)
                         .addHeader("Content-Type", MimeType.APPLICATION_JSON)
                         .setBody(body)
                         .build())
-                .flatMap(httpClient::execute)
-                .map(response -> parseResponseBodyAsRecord(response))
+                .flatMap(request -> this.<Record<T>>execute(RequestContext.Operation.UPDATE, request, recordReader))
+                .doOnSuccess(this::cacheRecord)
                 .doOnError(e -> logger.warn("Failed to update id {}", id))
                 .toFlowable();
     }
 
+    /**
+     * Update existing rows in the table. Only non-null fields in each record will be updated, all other fields will
+     * be left as they were. Rows are sent to Airtable in batches of 10
+     * @param records the records to update, each containing the row ID and the data to update
+     * @return a {@link Publisher} containing the updated rows in the same order as {@code records} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Record<T>> updateAll(Collection<Record<T>> records) {
+        return updateAll(Flowable.fromIterable(records));
+    }
+
+    /**
+     * Update existing rows in the table. Only non-null fields in each record will be updated, all other fields will
+     * be left as they were. Rows are sent to Airtable in batches of 10
+     * @param records the records to update, each containing the row ID and the data to update
+     * @return a {@link Publisher} containing the updated rows in the same order as {@code records} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Record<T>> updateAll(Publisher<Record<T>> records) {
+        return Flowable.fromPublisher(records)
+                .map(record -> Record.of(record.getId(), record.getFields(), null))
+                .buffer(MAX_BATCH_SIZE)
+                .concatMapEager(batch -> executeBatch("PATCH", batch)
+                        .doOnError(e -> logger.warn("Failed to update records {}", batch))
+                        .toFlowable(), MAX_BATCH_CONCURRENCY, 1)
+                .concatMapIterable(RecordBatch::getRecords);
+    }
+
     /**
      * Delete a row by its row ID
      * @param id the row ID
@@ -173,13 +556,70 @@ public class AsyncTable<T> {
      */
     public Publisher<Boolean> delete(String id) {
         Request request = buildBaseRequest("DELETE", getTableUrl() + "/" + id).build();
-        return httpClient.execute(request)
-                .map(response -> (Delete) parseResponseBody(response, objectMapper.constructType(Delete.class)))
+        return this.<Delete>execute(RequestContext.Operation.DELETE, request, deleteReader)
+                .doOnSuccess(delete -> cache.invalidate(id))
                 .map(delete -> delete.isDeleted())
                 .doOnError(e -> logger.warn("Failed to delete id {}", id))
                 .toFlowable();
     }
 
+    /**
+     * Delete rows by their row IDs. Rows are sent to Airtable in batches of 10
+     * @param ids the row IDs
+     * @return a {@link Publisher} containing whether each row was deleted in the same order as {@code ids} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Boolean> deleteAll(Collection<String> ids) {
+        return deleteAll(Flowable.fromIterable(ids));
+    }
+
+    /**
+     * Delete rows by their row IDs. Rows are sent to Airtable in batches of 10
+     * @param ids the row IDs
+     * @return a {@link Publisher} containing whether each row was deleted in the same order as {@code ids} or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Boolean> deleteAll(Publisher<String> ids) {
+        return Flowable.fromPublisher(ids)
+                .buffer(MAX_BATCH_SIZE)
+                .concatMapEager(batch -> executeDeleteBatch(batch)
+                        .doOnError(e -> logger.warn("Failed to delete ids {}", batch))
+                        .toFlowable(), MAX_BATCH_CONCURRENCY, 1)
+                .concatMapIterable(DeleteBatch::getRecords)
+                .map(Delete::isDeleted);
+    }
+
+    /**
+     * Send a batch of records to be created or updated in a single request
+     * @param method the HTTP method, POST to create or PATCH to update
+     * @param records the records, at most 10
+     * @return the created or updated records
+     */
+    private Single<RecordBatch<T>> executeBatch(String method, List<Record<T>> records) {
+        return Single.just(new RecordBatch<>(records))
+                .map(batch -> bodyToJson(recordBatchWriter, batch))
+                .map(body -> buildBaseRequest(method, getTableUrl())
+                        .addHeader("Content-Type", MimeType.APPLICATION_JSON)
+                        .setBody(body)
+                        .build())
+                .flatMap(request -> this.<RecordBatch<T>>execute(method.equals("POST") ?
+                        RequestContext.Operation.CREATE : RequestContext.Operation.UPDATE, request, recordBatchReader))
+                .doOnSuccess(batch -> batch.getRecords().forEach(this::cacheRecord));
+    }
+
+    /**
+     * Delete a batch of rows in a single request
+     * @param ids the row IDs, at most 10
+     * @return the delete results
+     */
+    private Single<DeleteBatch> executeDeleteBatch(List<String> ids) {
+        RequestBuilder request = buildBaseRequest("DELETE", getTableUrl());
+        for (String id : ids)
+            request.addQueryParam("records[]", id);
+        return this.<DeleteBatch>execute(RequestContext.Operation.DELETE, request.build(), deleteBatchReader)
+                .doOnSuccess(batch -> ids.forEach(cache::invalidate));
+    }
+
     /**
      * Execute a query and automatically fetch the next result set if there is a next set
      * @param query the query to execute
@@ -187,82 +627,242 @@ public class AsyncTable<T> {
      */
     private Single<RecordPage<T>> executeQuery(Query query) {
         return Single.just(query)
-                .map(q -> queryRequestBuilder.buildRequestForQuery(q, getTableUrl())
-                        .setHeader("Accept", MimeType.APPLICATION_JSON)
-                        .setHeader("Authorization", getAuthenticationHeader())
-                        .build())
-                .flatMap(httpClient::execute)
-                .map(response -> parseResponseBodyAsRecordPage(response))
+                .map(this::buildQueryRequest)
+                .flatMap(request -> this.<RecordPage<T>>execute(RequestContext.Operation.SELECT, request,
+                        recordPageReader))
                 .doOnError(e -> logger.warn("Failed to execute query {}", query));
     }
 
     /**
-     * Automatically fetch the next set of records after this set if there is a next set
-     * @param response the current response
-     * @param query the query used to fetch the current response
-     * @return a Flowable of this set of records appended with the next set
+     * Execute a query and fetch each following page until there are no more pages, emitting each record as soon as it
+     * has been parsed from the response rather than after the whole page has been parsed
+     * @param query the query to execute
+     * @return all result rows for the query
+     */
+    private Flowable<Record<T>> executeStreamingQuery(Query query) {
+        return Flowable.defer(() -> {
+            PageCursor cursor = new PageCursor(query.getOffset());
+            return Flowable.defer(() -> {
+                Request request = buildQueryRequest(query.toBuilder().offset(cursor.getOffset()).build());
+                RequestEvents events = buildEvents(RequestContext.Operation.SELECT, request);
+                return execute(request, events)
+                        .flatMapPublisher(response -> streamResponseBody(response, cursor, events));
+            })
+                    .doOnError(e -> logger.warn("Failed to execute query {}", query))
+                    .repeatUntil(cursor::isDone);
+        });
+    }
+
+    /**
+     * Set a query's fields to the fields bound by this table's type, if fields are projected for the query and it
+     * does not set any fields. Records fetched this way hold every field {@code T} maps, so they are still complete
+     * @param query the query
+     * @return the query to send
+     */
+    private Query project(Query query) {
+        boolean project = query.getProjectFields() == null ? projectFields : query.getProjectFields();
+        if (!project || !query.getFields().isEmpty() || projectedFields.isEmpty())
+            return query;
+        return query.toBuilder().fields(projectedFields).build();
+    }
+
+    /**
+     * Build the request for a query
+     * @param query the query
+     * @return the request
+     */
+    private Request buildQueryRequest(Query query) {
+        return queryRequestBuilder.buildRequestForQuery(project(query), getTableUrl())
+                .setHeader("Accept", MimeType.APPLICATION_JSON)
+                .setHeader("Authorization", getAuthenticationHeader())
+                .build();
+    }
+
+    /**
+     * Execute a query and fetch each following page, one page at a time, until there are no more pages. Each page
+     * is requested by re-subscribing with the offset from the previous page rather than nesting a new stream per
+     * page, so memory and stack use stay constant regardless of the number of pages
+     * @param query the query to execute
+     * @return all result pages for the query
+     */
+    private Flowable<RecordPage<T>> executePaginatedQuery(Query query) {
+        return Flowable.defer(() -> {
+            PageCursor cursor = new PageCursor(query.getOffset());
+            return Single.defer(() -> executeQuery(query.toBuilder().offset(cursor.getOffset()).build()))
+                    .doOnSuccess(page -> cursor.advance(page.getOffset()))
+                    .repeatUntil(cursor::isDone);
+        });
+    }
+
+    /**
+     * Add or replace a row in the cache
+     * @param record the row
+     */
+    private void cacheRecord(Record<T> record) {
+        cache.put(record.getId(), record);
+    }
+
+    /**
+     * Get the number of pages to fetch ahead of the subscriber for a query
+     * @param query the query
+     * @return the number of pages
      */
-    private Flowable<RecordPage<T>> handleResponsePagination(RecordPage<T> response, Query query) {
-        Flowable<RecordPage<T>> f = Flowable.just(response);
-        String offset = response.getOffset();
-        if (offset != null) {
-            logger.debug("Concatenating with next result set at offset {}", offset);
-            Query nextQuery = query.toBuilder().offset(offset).build();
-            f = f.concatWith(executeQuery(nextQuery).flatMapPublisher(p -> handleResponsePagination(p, nextQuery)));
+    private int getPrefetch(Query query) {
+        Integer prefetch = query.getPrefetch();
+        if (prefetch == null)
+            return DEFAULT_PREFETCH;
+        if (prefetch < 1) {
+            logger.warn("Using min prefetch of 1 instead of {}", prefetch);
+            return 1;
         }
-        return f;
+        return prefetch;
     }
 
     /**
      * Map an object to JSON
+     * @param writer the writer for the object's type
      * @param body the object to map
      * @return the mapped JSON
      * @throws AirtableMappingException if unable to map to JSON
      */
-    private byte[] bodyToJson(Object body) {
+    static byte[] bodyToJson(ObjectWriter writer, Object body) {
         try {
-            return objectMapper.writeValueAsBytes(body);
+            return writer.writeValueAsBytes(body);
         } catch (JsonProcessingException e) {
             throw new AirtableMappingException("Failed to map data to JSON", e);
         }
     }
 
     /**
-     * Parse the body of a response as JSON into a {@link RecordPage}
-     * @param response the response
-     * @return the parsed RecordPage
-     * @throws AirtableMappingException if unable to parse the JSON
+     * Parse the records in the body of a response one at a time, moving the cursor to the next page once all records
+     * have been parsed
+     * @param response the response containing a page of records
+     * @param cursor the cursor for the query
+     * @param events the events for the request
+     * @return the parsed records
      */
-    private RecordPage<T> parseResponseBodyAsRecordPage(Response response) {
-        JavaType javaType = objectMapper.getTypeFactory().constructParametricType(RecordPage.class, type);
-        return parseResponseBody(response, javaType);
+    private Flowable<Record<T>> streamResponseBody(Response response, PageCursor cursor, RequestEvents events) {
+        return Flowable.defer(() -> {
+            long start = events.startTimer();
+            int[] count = {0};
+            return Flowable.<Record<T>, RecordStreamParser<T>>generate(
+                    () -> new RecordStreamParser<T>(response.getResponseBodyAsStream(), recordReader),
+                    (parser, emitter) -> {
+                        Record<T> record = parser.next();
+                        if (record != null) {
+                            ++count[0];
+                            emitter.onNext(record);
+                        } else {
+                            cursor.advance(parser.getOffset());
+                            events.parsed(count[0], start);
+                            emitter.onComplete();
+                        }
+                    },
+                    RecordStreamParser::close)
+                    .doOnError(e -> events.failed(e, start));
+        });
     }
 
     /**
-     * Parse the body of a response as JSON into a {@link Record}
+     * Parse the body of a response as JSON into an instance of a specified type
+     * @param <X> the type the response is parsed into
      * @param response the response
-     * @return the parsed Record
+     * @param reader the reader for the type to parse the response into
+     * @param events the events for the request
+     * @return the parsed object
      * @throws AirtableMappingException if unable to parse the JSON
      */
-    private Record<T> parseResponseBodyAsRecord(Response response) {
-        JavaType javaType = objectMapper.getTypeFactory().constructParametricType(Record.class, type);
-        return parseResponseBody(response, javaType);
+    private <X> X parseResponseBody(Response response, ObjectReader reader, RequestEvents events) {
+        long start = events.startTimer();
+        // parse straight from the response bytes instead of decoding the whole body to a String first
+        try (InputStream body = response.getResponseBodyAsStream()) {
+            X value = reader.readValue(body);
+            if (events.isEnabled())
+                events.parsed(countRecords(value), start);
+            return value;
+        } catch (IOException e) {
+            AirtableMappingException error = new AirtableMappingException("Failed to map data to JSON", e);
+            events.failed(error, start);
+            throw error;
+        }
     }
 
     /**
-     * Parse the body of a response as JSON into an instance of a specified type
+     * @param value a parsed response body
+     * @return the number of records in the response body
+     */
+    private static int countRecords(Object value) {
+        if (value instanceof RecordPage)
+            return ((RecordPage<?>) value).getRecords().size();
+        if (value instanceof RecordBatch)
+            return ((RecordBatch<?>) value).getRecords().size();
+        if (value instanceof DeleteBatch)
+            return ((DeleteBatch) value).getRecords().size();
+        return 1;
+    }
+
+    /** @return the type row data is mapped to */
+    Class<T> getType() {
+        return type;
+    }
+
+    /** @return the mapper used to map row data */
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /** @return the reader for this table's records */
+    ObjectReader getRecordReader() {
+        return recordReader;
+    }
+
+    /** @return the writer for this table's records */
+    ObjectWriter getRecordWriter() {
+        return recordWriter;
+    }
+
+    /**
+     * Execute a request once a permit is available from this table's rate limiter and parse the response body
      * @param <X> the type the response is parsed into
-     * @param response the response
-     * @param javaType the type to parse the response into
-     * @return the parsed object
-     * @throws AirtableMappingException if unable to parse the JSON
+     * @param operation the table operation the request is part of
+     * @param request the request
+     * @param reader the reader for the type to parse the response into
+     * @return a Single containing the parsed response
      */
-    private <X> X parseResponseBody(Response response, JavaType javaType) {
-        try {
-            return objectMapper.readValue(response.getResponseBody(), javaType);
-        } catch (JsonProcessingException e) {
-            throw new AirtableMappingException("Failed to map data to JSON", e);
-        }
+    private <X> Single<X> execute(RequestContext.Operation operation, Request request, ObjectReader reader) {
+        RequestEvents events = buildEvents(operation, request);
+        return execute(request, events).map(response -> parseResponseBody(response, reader, events));
+    }
+
+    /**
+     * Execute a request once a permit is available from this table's rate limiter, if this table's circuit breaker
+     * is closed
+     * @param request the request
+     * @param events the events for the request
+     * @return a Single containing the response
+     */
+    private Single<Response> execute(Request request, RequestEvents events) {
+        return httpClient.execute(request, rateLimiter, circuitBreaker, events);
+    }
+
+    /**
+     * Build the events for a request, disabled if no listener is registered
+     * @param operation the table operation the request is part of
+     * @param request the request
+     * @return the events
+     */
+    private RequestEvents buildEvents(RequestContext.Operation operation, Request request) {
+        if (eventListener == null)
+            return RequestEvents.disabled();
+        byte[] body = request.getByteData();
+        return new RequestEvents(eventListener, RequestContext.builder()
+                .baseId(baseId)
+                .table(tableName)
+                .operation(operation)
+                .method(request.getMethod())
+                .url(request.getUrl())
+                .requestBytes(body == null ? 0 : body.length)
+                .build());
     }
 
     /** @return the endpoint URL for this table */
@@ -287,4 +887,38 @@ public class AsyncTable<T> {
                 .setHeader("Accept", MimeType.APPLICATION_JSON)
                 .setHeader("Authorization", getAuthenticationHeader());
     }
+
+    /**
+     * Tracks the offset of the next page to fetch for a single subscription to a paginated query
+     */
+    private static class PageCursor {
+
+        private volatile String offset;
+        private volatile boolean done;
+
+        PageCursor(String offset) {
+            this.offset = offset;
+        }
+
+        /** @return the offset of the next page to fetch */
+        String getOffset() {
+            return offset;
+        }
+
+        /** @return if there are no more pages to fetch */
+        boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Move the cursor to the next page
+         * @param nextOffset the offset returned with the current page or null if it was the last page
+         */
+        void advance(String nextOffset) {
+            if (nextOffset != null)
+                logger.debug("Fetching next result set at offset {}", nextOffset);
+            offset = nextOffset;
+            done = nextOffset == null;
+        }
+    }
 }
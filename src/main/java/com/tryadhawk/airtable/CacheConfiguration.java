@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration settings for the record cache used by {@link AsyncTable#find(String)}. Records are cached per table,
+ * refreshed from the results of finds, selects, creates, and updates, and removed when deleted. When the cache is
+ * full, the least recently used record is evicted. Cached records are shared between callers and should not be
+ * modified
+ */
+@Value
+@Builder(toBuilder = true)
+public class CacheConfiguration {
+
+    /* Max number of records cached per table */
+    @Builder.Default
+    private final int maximumSize = 10_000;
+    /* How long a record is cached after it was last fetched or written */
+    @Builder.Default
+    @Nonnull
+    private final Duration expireAfterWrite = Duration.ofMinutes(5);
+    /* How long a record that was not found is remembered as missing, if null missing records are not cached */
+    @Builder.Default
+    @Nullable
+    private final Duration expireMissingAfterWrite = Duration.ofSeconds(30);
+}
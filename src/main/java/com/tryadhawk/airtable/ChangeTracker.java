@@ -0,0 +1,190 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.v0.Record;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the changes to the records matching a query by polling. Only a 16 byte fingerprint of each record is kept
+ * between polls. The first poll records the fingerprint of every record without reporting any changes, after that each
+ * poll fetches only the records modified since the previous poll and reports those whose fingerprint changed. Deleted
+ * records are found by periodically scanning the record IDs matching the query
+ * @param <T> the type table row data will be mapped to
+ */
+class ChangeTracker<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeTracker.class);
+
+    private final TableScanner<T> scanner;
+    private final ObjectWriter recordWriter;
+    private final ChangeStreamConfiguration config;
+    private final Clock clock;
+    private final MessageDigest digest;
+    // only accessed by one poll at a time
+    private final Map<String, Fingerprint> fingerprints = new HashMap<>();
+    private Instant watermark;
+    private Instant lastDeleteScan;
+
+    /**
+     * Create a new instance
+     * @param scanner the scanner for the records to track
+     * @param recordWriter the writer for the table's records, used to fingerprint records
+     * @param config the change stream settings
+     * @param clock the clock used for the time of each poll
+     */
+    ChangeTracker(TableScanner<T> scanner, ObjectWriter recordWriter, ChangeStreamConfiguration config, Clock clock) {
+        this.scanner = Objects.requireNonNull(scanner, "scanner cannot be null");
+        this.recordWriter = Objects.requireNonNull(recordWriter, "recordWriter cannot be null");
+        this.config = Objects.requireNonNull(config, "config cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        try {
+            this.digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Poll for changes on an interval. The first poll happens immediately and fails the stream if it fails, later
+     * polls that fail are logged and retried on the next interval
+     * @param interval the time between polls
+     * @param scheduler the scheduler polls are run on
+     * @return the changes found by each poll
+     */
+    Flowable<RecordChange<T>> changes(Duration interval, Scheduler scheduler) {
+        long millis = interval.toMillis();
+        return poll().concatWith(Flowable.interval(millis, millis, TimeUnit.MILLISECONDS, scheduler)
+                .onBackpressureDrop()
+                .concatMap(tick -> poll().onErrorResumeNext(e -> {
+                    logger.warn("Failed to poll for changes", e);
+                    return Flowable.empty();
+                }), 1));
+    }
+
+    /**
+     * Poll for changes since the previous poll
+     * @return the changes, empty on the first poll
+     */
+    Flowable<RecordChange<T>> poll() {
+        return Flowable.defer(() -> {
+            Instant pollStart = clock.instant();
+            if (watermark == null) {
+                return scanner.scanAll()
+                        .doOnNext(record -> fingerprints.put(record.getId(), fingerprint(record)))
+                        .ignoreElements()
+                        .doOnComplete(() -> {
+                            watermark = pollStart;
+                            lastDeleteScan = pollStart;
+                            logger.debug("Tracking changes to {} records", fingerprints.size());
+                        })
+                        .<RecordChange<T>>toFlowable();
+            }
+            Flowable<RecordChange<T>> changes = scanner.scanModifiedSince(watermark.minus(config.getOverlap()))
+                    .concatMapMaybe(this::diff)
+                    .doOnComplete(() -> watermark = pollStart);
+            if (config.getDeleteScanInterval() != null &&
+                    !pollStart.isBefore(lastDeleteScan.plus(config.getDeleteScanInterval())))
+                changes = changes.concatWith(scanDeletes(pollStart));
+            return changes;
+        });
+    }
+
+    /**
+     * Scan the record IDs matching the query and report the tracked records that are no longer returned as deleted
+     * @param scanStart the time the scan started
+     * @return the deleted records, and changed records if the scan fetches records in full
+     */
+    private Flowable<RecordChange<T>> scanDeletes(Instant scanStart) {
+        return Flowable.defer(() -> {
+            Set<String> missing = new HashSet<>(fingerprints.keySet());
+            Flowable<Record<T>> records = scanner.scanIds().doOnNext(record -> missing.remove(record.getId()));
+            Flowable<RecordChange<T>> changes = scanner.isIdScanComplete() ?
+                    records.concatMapMaybe(this::diff) :
+                    records.ignoreElements().toFlowable();
+            return changes.concatWith(Flowable.defer(() -> {
+                lastDeleteScan = scanStart;
+                fingerprints.keySet().removeAll(missing);
+                return Flowable.fromIterable(missing)
+                        .map(id -> new RecordChange<T>(RecordChange.Type.DELETED, id, null));
+            }));
+        });
+    }
+
+    /**
+     * Compare a record to its fingerprint from the previous poll and store its new fingerprint
+     * @param record the record
+     * @return the change or empty if the record has not changed
+     */
+    private Maybe<RecordChange<T>> diff(Record<T> record) {
+        Fingerprint previous = fingerprints.put(record.getId(), fingerprint(record));
+        Fingerprint current = fingerprints.get(record.getId());
+        if (previous == null)
+            return Maybe.just(new RecordChange<>(RecordChange.Type.INSERTED, record.getId(), record));
+        if (!previous.equals(current))
+            return Maybe.just(new RecordChange<>(RecordChange.Type.UPDATED, record.getId(), record));
+        return Maybe.empty();
+    }
+
+    /**
+     * Compute the fingerprint of a record from its JSON
+     * @param record the record
+     * @return the fingerprint
+     * @throws AirtableMappingException if unable to map the record to JSON
+     */
+    private Fingerprint fingerprint(Record<T> record) {
+        try {
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(recordWriter.writeValueAsBytes(record)));
+            return new Fingerprint(hash.getLong(), hash.getLong());
+        } catch (JsonProcessingException e) {
+            throw new AirtableMappingException("Failed to map data to JSON", e);
+        }
+    }
+
+    /**
+     * MD5 hash of a record's JSON
+     */
+    @Value
+    private static class Fingerprint {
+
+        private final long high;
+        private final long low;
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Settings for the circuit breaker kept for each base. The circuit opens when too many requests in the window fail
+ * or are slow. While open, requests fail immediately with an
+ * {@link com.tryadhawk.airtable.exception.AirtableCircuitOpenException}. After {@code openDuration} a few trial
+ * requests are allowed, closing the circuit if they all succeed and opening it again if any fail
+ */
+@Value
+@Builder(toBuilder = true)
+public class CircuitBreakerConfiguration {
+
+    /* Fraction of requests in the window that must fail, with a network error or 5xx status, to open the circuit */
+    @Builder.Default
+    private final double failureRateThreshold = 0.5;
+    /* Requests that take longer than this are slow */
+    @Builder.Default
+    @Nonnull
+    private final Duration slowRequestDuration = Duration.ofSeconds(10);
+    /* Fraction of requests in the window that must be slow to open the circuit */
+    @Builder.Default
+    private final double slowRequestRateThreshold = 0.5;
+    /* Min number of requests in the window before the circuit can open */
+    @Builder.Default
+    private final int minimumRequests = 20;
+    /* How far back requests are counted */
+    @Builder.Default
+    @Nonnull
+    private final Duration window = Duration.ofMinutes(1);
+    /* How long the circuit stays open before allowing trial requests */
+    @Builder.Default
+    @Nonnull
+    private final Duration openDuration = Duration.ofSeconds(30);
+    /* Number of trial requests that must succeed to close the circuit */
+    @Builder.Default
+    private final int halfOpenRequests = 3;
+    /* Let finds return records cached by the table, even if expired, while the circuit is open */
+    @Builder.Default
+    private final boolean fallbackToCache = true;
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link AirtableEventListener} that sends each event to several listeners in order
+ */
+class CompositeEventListener implements AirtableEventListener {
+
+    private final List<AirtableEventListener> listeners;
+
+    CompositeEventListener(List<AirtableEventListener> listeners) {
+        this.listeners = new ArrayList<>(listeners);
+    }
+
+    @Override
+    public void onRequestStart(RequestContext context) {
+        for (AirtableEventListener listener : listeners)
+            listener.onRequestStart(context);
+    }
+
+    @Override
+    public void onResponse(RequestContext context, int statusCode, long durationNanos, long responseBytes) {
+        for (AirtableEventListener listener : listeners)
+            listener.onResponse(context, statusCode, durationNanos, responseBytes);
+    }
+
+    @Override
+    public void onRetryScheduled(RequestContext context, int retry, long delayNanos, Throwable error) {
+        for (AirtableEventListener listener : listeners)
+            listener.onRetryScheduled(context, retry, delayNanos, error);
+    }
+
+    @Override
+    public void onRateLimited(RequestContext context, long delayNanos) {
+        for (AirtableEventListener listener : listeners)
+            listener.onRateLimited(context, delayNanos);
+    }
+
+    @Override
+    public void onParseCompleted(RequestContext context, int records, long durationNanos) {
+        for (AirtableEventListener listener : listeners)
+            listener.onParseCompleted(context, records, durationNanos);
+    }
+
+    @Override
+    public void onError(RequestContext context, Throwable error, long durationNanos) {
+        for (AirtableEventListener listener : listeners)
+            listener.onError(context, error, durationNanos);
+    }
+}
@@ -34,6 +34,15 @@ import lombok.Value;
 public class Configuration {
 
     public static final String ENDPOINT_URL = "https://api.airtable.com/v0";
+    public static final int REQUESTS_PER_SECOND = 5;
+    public static final int REQUEST_BURST = 1;
+    public static final int FIND_BATCH_SIZE = 100;
+    public static final int RATE_LIMIT_DELAY = 30_000;
+    public static final int RETRY_BASE_DELAY = 1000;
+    public static final int RETRY_MAX_DELAY = 30_000;
+    public static final double RETRY_BUDGET = 0.1;
+    public static final int RETRY_BUDGET_MIN_RETRIES = 10;
+    public static final int HEDGE_MIN_DELAY = 50;
 
     @Builder.Default
     @Nonnull
@@ -44,6 +53,50 @@ public class Configuration {
     private final ProxyConfiguration proxy;
     @Nullable
     private final Integer timeout;
+    /* Max number of requests per second sent to each base, if null requests will not be rate limited */
+    @Builder.Default
+    @Nullable
+    private final Integer requestsPerSecond = REQUESTS_PER_SECOND;
+    /* Max number of requests sent to a base at once after it has been idle. Above 1, a burst followed by requests at
+       the full rate can exceed requestsPerSecond within a single second, which Airtable answers with a 429 */
+    @Builder.Default
+    private final int requestBurst = REQUEST_BURST;
+    /* Milliseconds to wait before retrying a rate limited request without a Retry-After header. Airtable rejects all
+       requests to a base for 30 seconds after its rate limit is exceeded, so retrying sooner only spends retries */
+    @Builder.Default
+    private final int rateLimitDelay = RATE_LIMIT_DELAY;
+    /* Min milliseconds to wait before retrying a network error or 5xx response. Later retries back off exponentially
+       with random jitter so clients that failed at the same time do not retry together */
+    @Builder.Default
+    private final int retryBaseDelay = RETRY_BASE_DELAY;
+    /* Max milliseconds to wait before retrying a network error or 5xx response */
+    @Builder.Default
+    private final int retryMaxDelay = RETRY_MAX_DELAY;
+    /* Max retries of network errors and 5xx responses for each request sent, from 0 to 1. A further
+       RETRY_BUDGET_MIN_RETRIES retries are always allowed so occasional failures are retried */
+    @Builder.Default
+    private final double retryBudget = RETRY_BUDGET;
+    /* Also retry creates and updates after network errors and 5xx responses, which can create or update rows twice */
+    private final boolean retryNonIdempotent;
+    /* Percentile of recent GET latencies, from 0 to 100, after which a second copy of an unanswered GET is sent if the
+       rate limit allows. The first response is used and the other request is cancelled. If null GETs are not hedged */
+    @Nullable
+    private final Double hedgePercentile;
+    /* Min milliseconds to wait before sending a second copy of a GET */
+    @Builder.Default
+    private final int hedgeMinDelay = HEDGE_MIN_DELAY;
+    /* Share a single request between concurrent finds for the same row ID or selects for the same query */
+    private final boolean coalesceReads;
+    /* Milliseconds to collect finds before loading them with a single select, if null finds are not batched */
+    @Nullable
+    private final Integer findBatchWindow;
+    /* Max number of finds loaded by a single select */
+    @Builder.Default
+    private final int findBatchSize = FIND_BATCH_SIZE;
+    /* Request only the fields mapped by each table's type in queries that do not set fields */
+    private final boolean projectFields;
+    /* Collect latency and error statistics for each table, available from Airtable.getStats() */
+    private final boolean collectStats;
 
     @Value
     @Builder(toBuilder = true)
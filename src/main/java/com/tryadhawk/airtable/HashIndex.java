@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link RecordIndex} for looking up records by an exact key, such as an email address or SKU
+ * @param <K> the key type, must implement {@code equals} and {@code hashCode}
+ * @param <T> the type table row data is mapped to
+ */
+public class HashIndex<K, T> extends RecordIndex<K, T> {
+
+    private HashIndex(Function<? super T, ? extends K> keyExtractor) {
+        super(keyExtractor, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Create a new index
+     * @param keyExtractor extracts the key from a record's row data, returns null for records that should not be
+     * indexed
+     * @param <K> the key type
+     * @param <T> the type table row data is mapped to
+     * @return the index
+     */
+    public static <K, T> HashIndex<K, T> of(Function<? super T, ? extends K> keyExtractor) {
+        return new HashIndex<>(keyExtractor);
+    }
+}
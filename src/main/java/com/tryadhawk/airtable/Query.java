@@ -49,4 +49,12 @@ public class Query {
     /* Offset to start at for pagination */
     @Nullable
     private final String offset;
+    /* Number of pages to fetch ahead of the subscriber when retrieving all pages, default is 2, min is 1 */
+    @Nullable
+    private final Integer prefetch;
+    /* Emit each record as soon as it is parsed instead of after the whole page is parsed, prefetch is not used */
+    private final boolean streamRecords;
+    /* Request only the fields mapped by the table's type when no fields are set, if null the table's setting is used */
+    @Nullable
+    private final Boolean projectFields;
 }
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * Local source of records for an {@link AsyncTable} to read from while the circuit breaker for its base is open, set
+ * with {@link AsyncTable#setReadFallback(ReadFallback)}. A {@link TableReplica} of the table can be used as its
+ * fallback, since its own syncs always read from Airtable. Methods are called on the thread that received the error and
+ * should not block
+ * @param <T> the type table row data is mapped to
+ */
+public interface ReadFallback<T> {
+
+    /**
+     * @return if records can be read, the circuit open error is returned to the caller if not
+     */
+    default boolean isReady() {
+        return true;
+    }
+
+    /**
+     * Get a record by its record ID
+     * @param id the record ID
+     * @return the record or null if there is no record with the ID
+     */
+    @Nullable
+    Record<T> get(String id);
+
+    /**
+     * Select the records matching a query
+     * @param query the query
+     * @return the matching records
+     */
+    List<Record<T>> select(Query query);
+}
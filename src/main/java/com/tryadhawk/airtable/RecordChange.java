@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.v0.Record;
+import lombok.Value;
+
+/**
+ * A change to a record found by {@link AsyncTable#changes(Query, java.time.Duration)}
+ * @param <T> the type table row data will be mapped to
+ */
+@Value
+public class RecordChange<T> {
+
+    /* The kind of change */
+    private final Type type;
+    /* The record ID */
+    private final String id;
+    /* The record as it is after the change, null if the record was deleted */
+    @Nullable
+    private final Record<T> record;
+
+    public enum Type {
+        INSERTED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * Secondary index over the records in a {@link TableReplica}, keyed on a value extracted from each record's row data.
+ * Indexes are kept up to date by the replica as records are added, changed, and removed. Reads never block and see
+ * each record either before or after a change. Records whose key is null are not indexed
+ * @param <K> the key type
+ * @param <T> the type table row data is mapped to
+ * @see HashIndex
+ * @see SortedIndex
+ */
+public abstract class RecordIndex<K, T> {
+
+    private final Function<? super T, ? extends K> keyExtractor;
+    // records for each key, ordered by record ID
+    private final ConcurrentMap<K, ConcurrentSkipListMap<String, Record<T>>> entries;
+    // key each record is currently indexed under
+    private final Map<String, K> keys = new ConcurrentHashMap<>();
+
+    RecordIndex(Function<? super T, ? extends K> keyExtractor,
+                ConcurrentMap<K, ConcurrentSkipListMap<String, Record<T>>> entries) {
+        this.keyExtractor = Objects.requireNonNull(keyExtractor, "keyExtractor cannot be null");
+        this.entries = entries;
+    }
+
+    /**
+     * Get the records with a key
+     * @param key the key
+     * @return the matching records ordered by record ID, empty if there are none
+     */
+    public List<Record<T>> get(K key) {
+        Map<String, Record<T>> matches = key == null ? null : entries.get(key);
+        return matches == null ? new ArrayList<>() : new ArrayList<>(matches.values());
+    }
+
+    /**
+     * Get a record by a key expected to be unique
+     * @param key the key
+     * @return the matching record with the lowest record ID or null if there are none
+     */
+    @Nullable
+    public Record<T> getFirst(K key) {
+        ConcurrentSkipListMap<String, Record<T>> matches = key == null ? null : entries.get(key);
+        Map.Entry<String, Record<T>> first = matches == null ? null : matches.firstEntry();
+        return first == null ? null : first.getValue();
+    }
+
+    /**
+     * @param key the key
+     * @return if any record has the key
+     */
+    public boolean containsKey(K key) {
+        return key != null && entries.containsKey(key);
+    }
+
+    /**
+     * @return the number of distinct keys
+     */
+    public int keyCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of records indexed
+     */
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Copy the records in a set of index entries
+     * @param matches the index entries
+     * @return the records in key order, then record ID order
+     */
+    List<Record<T>> collect(Collection<ConcurrentSkipListMap<String, Record<T>>> matches) {
+        List<Record<T>> result = new ArrayList<>();
+        for (Map<String, Record<T>> records : matches)
+            result.addAll(records.values());
+        return result;
+    }
+
+    /**
+     * Index a new or changed record, moving it if its key changed. The record is added under its new key before it is
+     * removed from its previous key, so it can always be found under one of them
+     * @param record the record
+     */
+    synchronized void put(Record<T> record) {
+        K key = record.getFields() == null ? null : keyExtractor.apply(record.getFields());
+        K previous = key == null ? keys.remove(record.getId()) : keys.put(record.getId(), key);
+        if (key != null)
+            entries.computeIfAbsent(key, k -> new ConcurrentSkipListMap<>()).put(record.getId(), record);
+        if (previous != null && !previous.equals(key))
+            removeEntry(previous, record.getId());
+    }
+
+    /**
+     * Remove a record from the index
+     * @param id the record ID
+     */
+    synchronized void remove(String id) {
+        K previous = keys.remove(id);
+        if (previous != null)
+            removeEntry(previous, id);
+    }
+
+    private void removeEntry(K key, String id) {
+        Map<String, Record<T>> records = entries.get(key);
+        if (records == null)
+            return;
+        records.remove(id);
+        if (records.isEmpty())
+            entries.remove(key);
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration settings for a {@link TableReplica}
+ */
+@Value
+@Builder(toBuilder = true)
+public class ReplicaConfiguration {
+
+    /* Name or ID of a view in the table. If set, only records in that view will be replicated */
+    @Nullable
+    private final String view;
+    /* Filter formula limiting the records replicated, records that stop matching are removed when reconciling */
+    @Nullable
+    private final String filterByFormula;
+    /* Name of a last modified time field used to find changed records, if null LAST_MODIFIED_TIME() is used */
+    @Nullable
+    private final String lastModifiedField;
+    /* How often to fetch records changed since the last sync */
+    @Builder.Default
+    @Nonnull
+    private final Duration pollInterval = Duration.ofSeconds(30);
+    /* How far before the start of the last sync to look for changes, covers clock differences with Airtable */
+    @Builder.Default
+    @Nonnull
+    private final Duration overlap = Duration.ofSeconds(10);
+    /* How often to scan the record IDs in the table to remove deleted records, if null deletes are not detected */
+    @Builder.Default
+    @Nullable
+    private final Duration reconcileInterval = Duration.ofMinutes(10);
+    /* Name of a small field requested by reconciliation scans, if null lastModifiedField is used or, if that is also
+    null, records are fetched in full */
+    @Nullable
+    private final String reconcileField;
+    /* File the replica is saved to after loading and after each reconciliation scan. If the file exists when the
+    replica is started, the replica is loaded from it and only fetches records changed since it was saved */
+    @Nullable
+    private final Path snapshotFile;
+}
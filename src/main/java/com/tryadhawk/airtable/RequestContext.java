@@ -0,0 +1,51 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Describes a request sent to Airtable, passed to each {@link AirtableEventListener} callback for the request
+ */
+@Value
+@Builder
+public class RequestContext {
+
+    /* ID of the base the request is sent to */
+    private final String baseId;
+    /* Name of the table the request is sent to */
+    private final String table;
+    /* The table operation the request is part of */
+    private final Operation operation;
+    /* The HTTP method */
+    private final String method;
+    /* The request URL */
+    private final String url;
+    /* Size of the request body in bytes, 0 if there is no body */
+    private final long requestBytes;
+
+    public enum Operation {
+        SELECT,
+        FIND,
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+}
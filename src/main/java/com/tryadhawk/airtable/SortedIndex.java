@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * {@link RecordIndex} for range queries over an ordered key, such as a date or price. Results are in key order
+ * @param <K> the key type
+ * @param <T> the type table row data is mapped to
+ */
+public class SortedIndex<K, T> extends RecordIndex<K, T> {
+
+    private final ConcurrentSkipListMap<K, ConcurrentSkipListMap<String, Record<T>>> entries;
+
+    private SortedIndex(Function<? super T, ? extends K> keyExtractor,
+                        ConcurrentSkipListMap<K, ConcurrentSkipListMap<String, Record<T>>> entries) {
+        super(keyExtractor, entries);
+        this.entries = entries;
+    }
+
+    /**
+     * Create a new index ordered by the keys' natural order
+     * @param keyExtractor extracts the key from a record's row data, returns null for records that should not be
+     * indexed
+     * @param <K> the key type
+     * @param <T> the type table row data is mapped to
+     * @return the index
+     */
+    public static <K extends Comparable<? super K>, T> SortedIndex<K, T> of(
+            Function<? super T, ? extends K> keyExtractor) {
+        return new SortedIndex<>(keyExtractor, new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Create a new index
+     * @param keyExtractor extracts the key from a record's row data, returns null for records that should not be
+     * indexed
+     * @param comparator the key order
+     * @param <K> the key type
+     * @param <T> the type table row data is mapped to
+     * @return the index
+     */
+    public static <K, T> SortedIndex<K, T> of(Function<? super T, ? extends K> keyExtractor,
+                                              Comparator<? super K> comparator) {
+        return new SortedIndex<>(keyExtractor, new ConcurrentSkipListMap<>(comparator));
+    }
+
+    /**
+     * Get the records with keys in a range
+     * @param from the low end of the range
+     * @param fromInclusive if records with key {@code from} are included
+     * @param to the high end of the range
+     * @param toInclusive if records with key {@code to} are included
+     * @return the matching records in key order
+     */
+    public List<Record<T>> range(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return collect(entries.subMap(from, fromInclusive, to, toInclusive).values());
+    }
+
+    /**
+     * Get the records with keys below a bound
+     * @param to the bound
+     * @param inclusive if records with key {@code to} are included
+     * @return the matching records in key order
+     */
+    public List<Record<T>> headTo(K to, boolean inclusive) {
+        return collect(entries.headMap(to, inclusive).values());
+    }
+
+    /**
+     * Get the records with keys above a bound
+     * @param from the bound
+     * @param inclusive if records with key {@code from} are included
+     * @return the matching records in key order
+     */
+    public List<Record<T>> tailFrom(K from, boolean inclusive) {
+        return collect(entries.tailMap(from, inclusive).values());
+    }
+
+    /**
+     * @return all indexed records in key order
+     */
+    public List<Record<T>> getAll() {
+        return collect(entries.values());
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import com.tryadhawk.airtable.internal.stats.LatencyHistogram;
+import lombok.Value;
+
+/**
+ * {@link AirtableEventListener} that collects {@link TableStats} for each table and operation. Recording is lock-free
+ * and uses a fixed amount of memory for each table and operation
+ */
+class StatsRecorder implements AirtableEventListener {
+
+    private final LongSupplier clock;
+    private final ConcurrentMap<Key, OperationStats> stats = new ConcurrentHashMap<>();
+    private volatile long windowStart;
+
+    StatsRecorder() {
+        this(System::nanoTime);
+    }
+
+    StatsRecorder(LongSupplier clock) {
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        this.windowStart = clock.getAsLong();
+    }
+
+    @Override
+    public void onRequestStart(RequestContext context) {
+        getStats(context).inFlight.incrementAndGet();
+    }
+
+    @Override
+    public void onResponse(RequestContext context, int statusCode, long durationNanos, long responseBytes) {
+        OperationStats operation = getStats(context);
+        operation.inFlight.decrementAndGet();
+        if (statusCode != 0)
+            operation.latency.record(durationNanos);
+    }
+
+    @Override
+    public void onRetryScheduled(RequestContext context, int retry, long delayNanos, Throwable error) {
+        getStats(context).retries.increment();
+    }
+
+    @Override
+    public void onRateLimited(RequestContext context, long delayNanos) {
+        getStats(context).rateLimited.increment();
+    }
+
+    @Override
+    public void onError(RequestContext context, Throwable error, long durationNanos) {
+        getStats(context).errors.increment();
+    }
+
+    /**
+     * @return the statistics for each table and operation since the last reset
+     */
+    List<TableStats> snapshot() {
+        return collect(false);
+    }
+
+    /**
+     * Start a new window
+     * @return the statistics for each table and operation in the window that ended
+     */
+    List<TableStats> reset() {
+        return collect(true);
+    }
+
+    private List<TableStats> collect(boolean reset) {
+        long now = clock.getAsLong();
+        long window = Math.max(1, now - windowStart);
+        if (reset)
+            windowStart = now;
+        List<TableStats> result = new ArrayList<>();
+        stats.forEach((key, operation) -> {
+            LatencyHistogram.Snapshot latency = operation.latency.snapshot(reset);
+            result.add(TableStats.builder()
+                    .baseId(key.getBaseId())
+                    .table(key.getTable())
+                    .operation(key.getOperation())
+                    .responseCount(latency.getCount())
+                    .errorCount(reset ? operation.errors.sumThenReset() : operation.errors.sum())
+                    .retryCount(reset ? operation.retries.sumThenReset() : operation.retries.sum())
+                    .rateLimitedCount(reset ? operation.rateLimited.sumThenReset() : operation.rateLimited.sum())
+                    .inFlight(operation.inFlight.get())
+                    .throughput(latency.getCount() * 1e9 / window)
+                    .p50(Duration.ofNanos(latency.getValueAtPercentile(50)))
+                    .p90(Duration.ofNanos(latency.getValueAtPercentile(90)))
+                    .p99(Duration.ofNanos(latency.getValueAtPercentile(99)))
+                    .max(Duration.ofNanos(latency.getMax()))
+                    .window(Duration.ofNanos(window))
+                    .build());
+        });
+        return result;
+    }
+
+    private OperationStats getStats(RequestContext context) {
+        Key key = new Key(context.getBaseId(), context.getTable(), context.getOperation());
+        OperationStats operation = stats.get(key);
+        return operation != null ? operation : stats.computeIfAbsent(key, k -> new OperationStats());
+    }
+
+    @Value
+    private static class Key {
+        private final String baseId;
+        private final String table;
+        private final RequestContext.Operation operation;
+    }
+
+    private static class OperationStats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder retries = new LongAdder();
+        final LongAdder rateLimited = new LongAdder();
+        final AtomicLong inFlight = new AtomicLong();
+    }
+}
@@ -18,6 +18,7 @@
  */
 package com.tryadhawk.airtable;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
 import com.tryadhawk.airtable.exception.AirtableException;
@@ -97,6 +98,16 @@ public class SyncTable<T> {
         return Single.fromPublisher(asyncTable.create(item)).blockingGet();
     }
 
+    /**
+     * Create new rows in the table. Rows are sent to Airtable in batches of 10
+     * @param items the data for the rows
+     * @return the created rows in the same order as {@code items}
+     * @throws AirtableException if an error occurs
+     */
+    public List<Record<T>> createAll(Collection<T> items) {
+        return Flowable.fromPublisher(asyncTable.createAll(items)).toList().blockingGet();
+    }
+
     /**
      * Update an existing row in the table. Only non-null fields in {@code item} will be updated, all other fields will
      * be left as they were
@@ -109,6 +120,17 @@ public class SyncTable<T> {
         return Single.fromPublisher(asyncTable.update(id, item)).blockingGet();
     }
 
+    /**
+     * Update existing rows in the table. Only non-null fields in each record will be updated, all other fields will
+     * be left as they were. Rows are sent to Airtable in batches of 10
+     * @param records the records to update, each containing the row ID and the data to update
+     * @return the updated rows in the same order as {@code records}
+     * @throws AirtableException if an error occurs
+     */
+    public List<Record<T>> updateAll(Collection<Record<T>> records) {
+        return Flowable.fromPublisher(asyncTable.updateAll(records)).toList().blockingGet();
+    }
+
     /**
      * Delete a row by its row ID
      * @param id the row ID
@@ -118,4 +140,22 @@ public class SyncTable<T> {
     public boolean delete(String id) {
         return Single.fromPublisher(asyncTable.delete(id)).blockingGet();
     }
+
+    /**
+     * Delete rows by their row IDs. Rows are sent to Airtable in batches of 10
+     * @param ids the row IDs
+     * @return whether each row was deleted in the same order as {@code ids}
+     * @throws AirtableException if an error occurs
+     */
+    public List<Boolean> deleteAll(Collection<String> ids) {
+        return Flowable.fromPublisher(asyncTable.deleteAll(ids)).toList().blockingGet();
+    }
+
+    /**
+     * Get statistics for the cache used when finding rows by row ID
+     * @return the cache statistics, all zero if no cache is configured
+     */
+    public CacheStats getCacheStats() {
+        return asyncTable.getCacheStats();
+    }
 }
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.internal.http.CircuitBreaker;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Optional behavior for an {@link AsyncTable}, taken from the {@link Configuration} of the {@link Airtable} the table
+ * was built from
+ */
+@Value
+@Builder(toBuilder = true)
+class TableOptions {
+
+    /* Share a single request between concurrent finds for the same row ID or selects for the same query */
+    private final boolean coalesceReads;
+    /* Milliseconds to collect finds before loading them with a single select, if null finds are not batched */
+    @Nullable
+    private final Integer findBatchWindow;
+    /* Max number of finds loaded by a single select */
+    @Builder.Default
+    private final int findBatchSize = Configuration.FIND_BATCH_SIZE;
+    /* Request only the fields mapped by the table's type in queries that do not set fields */
+    private final boolean projectFields;
+    /* Listener for request events, if null no events are sent */
+    @Nullable
+    private final AirtableEventListener eventListener;
+    /* Circuit breaker for the table's base, shared by all tables in the base */
+    @Builder.Default
+    private final CircuitBreaker circuitBreaker = CircuitBreaker.disabled();
+
+    /**
+     * @param config the configuration
+     * @return the table options set in the configuration
+     */
+    static TableOptions from(Configuration config) {
+        return TableOptions.builder()
+                .coalesceReads(config.isCoalesceReads())
+                .findBatchWindow(config.getFindBatchWindow())
+                .findBatchSize(config.getFindBatchSize())
+                .projectFields(config.isProjectFields())
+                .build();
+    }
+}
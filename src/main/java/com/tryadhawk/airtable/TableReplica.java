@@ -0,0 +1,415 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.exception.AirtableException;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+import com.tryadhawk.airtable.formula.LocalQuery;
+import com.tryadhawk.airtable.v0.Record;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Maybe;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.disposables.CompositeDisposable;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory copy of an Airtable table, kept up to date in the background. The table is loaded in full once, then only
+ * records modified since the last sync are fetched on each poll. Deleted records are removed by periodically scanning
+ * the record IDs in the table. Reads are served from memory without any requests to Airtable. Records are shared
+ * between callers and should not be modified. If a snapshot file is configured, the replica is saved to it and, when
+ * started again, serves records from the saved snapshot while fetching only the records changed since it was saved
+ * <p>
+ * Records can be looked up by field values with a {@link HashIndex} or {@link SortedIndex} added with
+ * {@link #addIndex(RecordIndex)}, or queried with {@link #select(Query)}
+ * @param <T> the type table row data will be mapped to
+ */
+public class TableReplica<T> implements Closeable, ReadFallback<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(TableReplica.class);
+
+    private final AsyncTable<T> table;
+    private final ReplicaConfiguration config;
+    private final TableScanner<T> scanner;
+    private final Clock clock;
+    private final Scheduler scheduler;
+    private final ConcurrentMap<String, Record<T>> records = new ConcurrentHashMap<>();
+    // IDs of records in the snapshot that have since been deleted
+    private final Set<String> removed = ConcurrentHashMap.newKeySet();
+    private final List<RecordIndex<?, T>> indexes = new CopyOnWriteArrayList<>();
+    private final CompositeDisposable tasks = new CompositeDisposable();
+    private final AtomicBoolean started = new AtomicBoolean();
+    // start time of the last successful sync, changes made after this (less the overlap) are fetched by the next sync
+    private volatile Instant watermark;
+    // records loaded from a snapshot file that have not been decoded yet, null once every record has been decoded
+    private volatile TableSnapshot<T> snapshot;
+
+    /**
+     * Create a new instance
+     * @param table the table to replicate
+     * @param config the replica settings
+     */
+    public TableReplica(AsyncTable<T> table, ReplicaConfiguration config) {
+        this(table, config, Clock.systemUTC(), Schedulers.io());
+    }
+
+    TableReplica(AsyncTable<T> table, ReplicaConfiguration config, Clock clock, Scheduler scheduler) {
+        this.table = Objects.requireNonNull(table, "table cannot be null");
+        this.config = Objects.requireNonNull(config, "config cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+        this.scanner = new TableScanner<>(table, Query.builder()
+                .view(config.getView())
+                .filterByFormula(config.getFilterByFormula())
+                .build(), config.getLastModifiedField(), config.getReconcileField());
+    }
+
+    /**
+     * Load the table and then keep it up to date in the background until closed. The table is loaded from the
+     * snapshot file if there is one, otherwise it is loaded in full from Airtable
+     * @return a {@link Publisher} containing the number of records loaded once the table has been loaded or an
+     * {@link AirtableException} if an error occurs
+     */
+    public Publisher<Integer> start() {
+        return Single.defer(() -> {
+            if (!started.compareAndSet(false, true))
+                return Single.<Integer>error(new IllegalStateException("Replica has already been started"));
+            return loadSnapshot()
+                    .switchIfEmpty(Single.defer(this::loadTable))
+                    .doOnError(e -> started.set(false));
+        }).toFlowable();
+    }
+
+    /**
+     * Save the replica to the snapshot file
+     * @return a {@link Publisher} containing the number of records saved or an {@link IOException} if unable to write
+     * the file
+     */
+    public Publisher<Integer> saveSnapshot() {
+        return Single.fromCallable(() -> {
+            if (config.getSnapshotFile() == null)
+                throw new IllegalStateException("No snapshot file is configured");
+            if (watermark == null)
+                throw new IllegalStateException("Replica has not been loaded");
+            Instant savedWatermark = watermark;
+            decodeSnapshot();
+            TableSnapshot.write(config.getSnapshotFile(), records.values(), savedWatermark, table.getRecordWriter());
+            logger.debug("Saved {} records to {}", records.size(), config.getSnapshotFile());
+            return records.size();
+        }).subscribeOn(scheduler).toFlowable();
+    }
+
+    /**
+     * Load the replica from the snapshot file, if there is one, and fetch the records changed since it was saved in
+     * the background
+     * @return a Maybe containing the number of records in the snapshot or empty if there is no usable snapshot
+     */
+    private Maybe<Integer> loadSnapshot() {
+        return Maybe.fromCallable(() -> {
+            if (config.getSnapshotFile() == null || !Files.exists(config.getSnapshotFile()))
+                return null;
+            try {
+                snapshot = TableSnapshot.open(config.getSnapshotFile(), table.getRecordReader());
+            } catch (IOException e) {
+                logger.warn("Failed to open snapshot {}, loading table instead", config.getSnapshotFile(), e);
+                return null;
+            }
+            watermark = snapshot.getWatermark();
+            if (!indexes.isEmpty())
+                indexAll();
+            logger.debug("Loaded {} records from {}", snapshot.size(), config.getSnapshotFile());
+            tasks.add(sync().onErrorComplete(e -> {
+                logger.warn("Failed to sync records changed since snapshot", e);
+                return true;
+            }).subscribeOn(scheduler).subscribe());
+            schedule();
+            return snapshot.size();
+        });
+    }
+
+    /**
+     * Load the table in full from Airtable, then save it to the snapshot file if one is configured
+     * @return a Single containing the number of records loaded
+     */
+    private Single<Integer> loadTable() {
+        Instant loadStart = clock.instant();
+        return scanner.scanAll()
+                .doOnNext(this::put)
+                .count()
+                .map(count -> {
+                    watermark = loadStart;
+                    schedule();
+                    logger.debug("Loaded {} records", count);
+                    if (config.getSnapshotFile() != null)
+                        saveSnapshotInBackground();
+                    return count.intValue();
+                });
+    }
+
+    /**
+     * @return if the table has been loaded
+     */
+    public boolean isReady() {
+        return watermark != null;
+    }
+
+    /**
+     * Get a record by its record ID
+     * @param id the record ID
+     * @return the record or null if there is no record with the ID
+     */
+    @Nullable
+    public Record<T> get(String id) {
+        Record<T> record = records.get(id);
+        TableSnapshot<T> saved = snapshot;
+        if (record != null || saved == null || removed.contains(id))
+            return record;
+        record = saved.get(id);
+        if (record == null)
+            return null;
+        // once the snapshot has been released every record is in the map, including records deleted since it was saved
+        if (snapshot != saved)
+            return records.get(id);
+        Record<T> existing = records.putIfAbsent(id, record);
+        if (existing != null)
+            return existing;
+        // a record removed while it was being decoded must not be restored
+        if (removed.contains(id)) {
+            records.remove(id, record);
+            return null;
+        }
+        return record;
+    }
+
+    /**
+     * @return a live, unmodifiable view of all records. If the replica was loaded from a snapshot, every record that
+     * has not been read yet is decoded first
+     */
+    public Collection<Record<T>> getAll() {
+        decodeSnapshot();
+        return Collections.unmodifiableCollection(records.values());
+    }
+
+    /**
+     * Select the records matching a query without making any requests to Airtable. The query's filter, sorts, and max
+     * records are evaluated locally, see {@link LocalQuery} for what is supported
+     * @param query the query
+     * @return the matching records
+     * @throws AirtableFormulaException if the filter cannot be evaluated locally
+     */
+    public List<Record<T>> select(Query query) {
+        return LocalQuery.select(getAll(), query, table.getType(), table.getObjectMapper());
+    }
+
+    /**
+     * Add a secondary index. The index is built from the records already loaded, then kept up to date as records are
+     * changed. Adding an index to a replica loaded from a snapshot decodes every record in the snapshot
+     * @param index the index
+     * @param <I> the index type
+     * @return {@code index}
+     */
+    public <I extends RecordIndex<?, T>> I addIndex(I index) {
+        synchronized (indexes) {
+            indexes.add(index);
+            decodeSnapshot();
+            for (Record<T> record : records.values())
+                index.put(record);
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of records
+     */
+    public int size() {
+        TableSnapshot<T> saved = snapshot;
+        if (saved == null)
+            return records.size();
+        int size = records.size();
+        for (String id : saved.getIds()) {
+            if (!records.containsKey(id) && !removed.contains(id))
+                ++size;
+        }
+        return size;
+    }
+
+    /**
+     * Stop keeping the replica up to date. Records that have already been loaded can still be read
+     */
+    @Override
+    public void close() {
+        tasks.dispose();
+    }
+
+    /**
+     * Decode every record remaining in the snapshot and release the snapshot. The snapshot is not closed, since other
+     * readers may still be decoding from it, and is unmapped once they are done with it. Holds the same lock as
+     * {@link #remove(String)} so a record deleted while decoding is not restored once its removal is forgotten
+     */
+    private void decodeSnapshot() {
+        if (snapshot == null)
+            return;
+        synchronized (indexes) {
+            TableSnapshot<T> saved = snapshot;
+            if (saved == null)
+                return;
+            for (String id : saved.getIds()) {
+                if (!removed.contains(id))
+                    records.computeIfAbsent(id, saved::get);
+            }
+            snapshot = null;
+            removed.clear();
+        }
+    }
+
+    /**
+     * Save the replica to the snapshot file without waiting for it to be written
+     */
+    private void saveSnapshotInBackground() {
+        tasks.add(Flowable.fromPublisher(saveSnapshot())
+                .subscribe(count -> { }, e -> logger.warn("Failed to save snapshot {}", config.getSnapshotFile(), e)));
+    }
+
+    /**
+     * Schedule the background syncs and reconciliation scans
+     */
+    private void schedule() {
+        long pollMillis = config.getPollInterval().toMillis();
+        tasks.add(Flowable.interval(pollMillis, pollMillis, TimeUnit.MILLISECONDS, scheduler)
+                .onBackpressureDrop()
+                .concatMapCompletable(tick -> sync().onErrorComplete(e -> {
+                    logger.warn("Failed to sync changed records", e);
+                    return true;
+                }), 1)
+                .subscribe());
+        if (config.getReconcileInterval() != null) {
+            long reconcileMillis = config.getReconcileInterval().toMillis();
+            tasks.add(Flowable.interval(reconcileMillis, reconcileMillis, TimeUnit.MILLISECONDS, scheduler)
+                    .onBackpressureDrop()
+                    .concatMapCompletable(tick -> reconcile().onErrorComplete(e -> {
+                        logger.warn("Failed to reconcile records", e);
+                        return true;
+                    }), 1)
+                    .subscribe());
+        }
+    }
+
+    /**
+     * Fetch the records modified since the last sync
+     * @return a Completable that completes once the changed records have been stored
+     */
+    Completable sync() {
+        return Completable.defer(() -> {
+            Instant syncStart = clock.instant();
+            return scanner.scanModifiedSince(watermark.minus(config.getOverlap()))
+                    .doOnNext(this::put)
+                    .ignoreElements()
+                    .doOnComplete(() -> watermark = syncStart);
+        });
+    }
+
+    /**
+     * Scan the record IDs in the table and remove the records that are no longer in it. Only records that were stored
+     * before the scan started are removed, so records added by a sync during the scan are kept
+     * @return a Completable that completes once the deleted records have been removed
+     */
+    Completable reconcile() {
+        return Completable.defer(() -> {
+            Set<String> missing = new HashSet<>(records.keySet());
+            TableSnapshot<T> saved = snapshot;
+            if (saved != null)
+                missing.addAll(saved.getIds());
+            return scanner.scanIds()
+                    .doOnNext(record -> {
+                        missing.remove(record.getId());
+                        // records fetched with all of their fields are as good as a sync
+                        if (scanner.isIdScanComplete())
+                            put(record);
+                    })
+                    .ignoreElements()
+                    .doOnComplete(() -> {
+                        for (String id : missing)
+                            remove(id);
+                        if (!missing.isEmpty())
+                            logger.debug("Removed {} deleted records", missing.size());
+                        if (config.getSnapshotFile() != null)
+                            saveSnapshotInBackground();
+                    });
+        });
+    }
+
+    /**
+     * Store a record
+     * @param record the record
+     */
+    private void put(Record<T> record) {
+        synchronized (indexes) {
+            records.put(record.getId(), record);
+            for (RecordIndex<?, T> index : indexes)
+                index.put(record);
+        }
+    }
+
+    /**
+     * Remove a deleted record
+     * @param id the record ID
+     */
+    private void remove(String id) {
+        synchronized (indexes) {
+            removed.add(id);
+            records.remove(id);
+            for (RecordIndex<?, T> index : indexes)
+                index.remove(id);
+        }
+    }
+
+    /**
+     * Decode every record in the snapshot and add it to the indexes
+     */
+    private void indexAll() {
+        synchronized (indexes) {
+            decodeSnapshot();
+            for (Record<T> record : records.values()) {
+                for (RecordIndex<?, T> index : indexes)
+                    index.put(record);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.time.Instant;
+import java.util.Objects;
+import javax.annotation.Nullable;
+import com.tryadhawk.airtable.v0.Record;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Scans the records matching a query in full, only the records modified since a time, or only their record IDs. Used
+ * to keep local copies of a table up to date without scanning the whole table on every poll. Scans never read from the
+ * table's {@link ReadFallback}, so they fail while the circuit breaker is open
+ * @param <T> the type table row data will be mapped to
+ */
+class TableScanner<T> {
+
+    private final AsyncTable<T> table;
+    private final Query query;
+    @Nullable
+    private final String lastModifiedField;
+    @Nullable
+    private final String idScanField;
+
+    /**
+     * Create a new instance
+     * @param table the table to scan
+     * @param query the query matching the records to scan
+     * @param lastModifiedField name of a last modified time field, if null LAST_MODIFIED_TIME() is used
+     * @param idScanField name of a small field requested by ID scans, if null {@code lastModifiedField} is used or, if
+     * that is also null, ID scans fetch records in full
+     */
+    TableScanner(AsyncTable<T> table, Query query, @Nullable String lastModifiedField, @Nullable String idScanField) {
+        this.table = Objects.requireNonNull(table, "table cannot be null");
+        this.query = Objects.requireNonNull(query, "query cannot be null");
+        this.lastModifiedField = lastModifiedField;
+        this.idScanField = idScanField != null ? idScanField : lastModifiedField;
+    }
+
+    /**
+     * @return all records matching the query
+     */
+    Flowable<Record<T>> scanAll() {
+        return table.scan(query);
+    }
+
+    /**
+     * Scan the records matching the query that were modified after a time
+     * @param since the time
+     * @return the modified records
+     */
+    Flowable<Record<T>> scanModifiedSince(Instant since) {
+        String modified = lastModifiedField == null ? "LAST_MODIFIED_TIME()" : "{" + lastModifiedField + "}";
+        String formula = "IS_AFTER(" + modified + ",'" + since + "')";
+        if (query.getFilterByFormula() != null)
+            formula = "AND(" + query.getFilterByFormula() + "," + formula + ")";
+        return table.scan(query.toBuilder().filterByFormula(formula).build());
+    }
+
+    /**
+     * Scan the records matching the query with as few fields as possible, for finding which records still exist
+     * @return the records, only complete if {@link #isIdScanComplete()}
+     */
+    Flowable<Record<T>> scanIds() {
+        if (idScanField == null)
+            return scanAll();
+        return table.scan(query.toBuilder().clearFields().field(idScanField).build());
+    }
+
+    /**
+     * @return if ID scans fetch records in full
+     */
+    boolean isIdScanComplete() {
+        return idScanField == null;
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nullable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * Read-only, memory-mapped snapshot of a table's records saved to a file. Only the index of record IDs is read when the
+ * snapshot is opened, each record is decoded from the mapped file when it is accessed. The file contains a header with
+ * the time the records were current as of, the JSON for each record, and an index of record ID to the position of its
+ * JSON, followed by the position of the index
+ * @param <T> the type table row data will be mapped to
+ */
+public class TableSnapshot<T> implements Closeable {
+
+    /* "ATS1" */
+    private static final int MAGIC = 0x41545331;
+    private static final int VERSION = 1;
+    /* Magic, version, watermark, and record count */
+    private static final int HEADER_LENGTH = 4 + 4 + 8 + 4;
+    /* Position of the index */
+    private static final int FOOTER_LENGTH = 8;
+
+    private final ObjectReader recordReader;
+    private final Instant watermark;
+    // position and length of each record's JSON in the mapped file
+    private final Map<String, long[]> index;
+    private volatile ByteBuffer buffer;
+
+    private TableSnapshot(ObjectReader recordReader, Instant watermark, Map<String, long[]> index, ByteBuffer buffer) {
+        this.recordReader = recordReader;
+        this.watermark = watermark;
+        this.index = index;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Open a snapshot file
+     * @param <T> the type for {@code type}
+     * @param file the snapshot file
+     * @param type the type the table row data is mapped to
+     * @param objectMapper the mapper to use for mapping row data to {@code type}
+     * @return the snapshot
+     * @throws IOException if unable to read the file or the file is not a valid snapshot
+     */
+    public static <T> TableSnapshot<T> open(Path file, Class<T> type, ObjectMapper objectMapper) throws IOException {
+        return open(file, objectMapper.readerFor(
+                objectMapper.getTypeFactory().constructParametricType(Record.class, type)));
+    }
+
+    /**
+     * Open a snapshot file
+     * @param <T> the type table row data is mapped to
+     * @param file the snapshot file
+     * @param recordReader the reader for the table's records
+     * @return the snapshot
+     * @throws IOException if unable to read the file or the file is not a valid snapshot
+     */
+    static <T> TableSnapshot<T> open(Path file, ObjectReader recordReader) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE)
+                throw new IOException("Snapshot " + file + " is too large to map");
+            if (size < HEADER_LENGTH + FOOTER_LENGTH)
+                throw new IOException("Snapshot " + file + " is truncated");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION)
+            throw new IOException(file + " is not a snapshot");
+        Instant watermark = Instant.ofEpochMilli(buffer.getLong(8));
+        int count = buffer.getInt(16);
+        long indexPosition = buffer.getLong(buffer.limit() - FOOTER_LENGTH);
+        if (indexPosition < HEADER_LENGTH || indexPosition > buffer.limit() - FOOTER_LENGTH)
+            throw new IOException("Snapshot " + file + " is corrupt");
+
+        Map<String, long[]> index = new HashMap<>(count * 4 / 3 + 1);
+        ByteBuffer entries = buffer.duplicate();
+        entries.position((int) indexPosition);
+        entries.limit(buffer.limit() - FOOTER_LENGTH);
+        for (int i = 0; i < count; ++i) {
+            byte[] id = new byte[entries.getShort() & 0xFFFF];
+            entries.get(id);
+            index.put(new String(id, StandardCharsets.UTF_8), new long[] { entries.getLong(), entries.getInt() });
+        }
+        return new TableSnapshot<>(recordReader, watermark, index, buffer);
+    }
+
+    /**
+     * Save records to a snapshot file. The snapshot is written to a temporary file that then replaces {@code file}, so
+     * an existing snapshot is never left partially written
+     * @param <T> the type for {@code type}
+     * @param file the snapshot file
+     * @param records the records
+     * @param watermark the time the records are current as of
+     * @param type the type the table row data is mapped to
+     * @param objectMapper the mapper to use for mapping row data to JSON
+     * @throws IOException if unable to write the file
+     */
+    public static <T> void write(Path file, Iterable<Record<T>> records, Instant watermark, Class<T> type,
+                                 ObjectMapper objectMapper) throws IOException {
+        write(file, records, watermark, objectMapper.writerFor(
+                objectMapper.getTypeFactory().constructParametricType(Record.class, type)));
+    }
+
+    /**
+     * Save records to a snapshot file
+     * @param <T> the type table row data is mapped to
+     * @param file the snapshot file
+     * @param records the records
+     * @param watermark the time the records are current as of
+     * @param recordWriter the writer for the table's records
+     * @throws IOException if unable to write the file
+     */
+    static <T> void write(Path file, Iterable<Record<T>> records, Instant watermark, ObjectWriter recordWriter)
+            throws IOException {
+        Path absolute = file.toAbsolutePath();
+        Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, long[]> index = new HashMap<>();
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(watermark.toEpochMilli());
+                // the count is only known once the records have been written, reserve its place
+                out.writeInt(0);
+                for (Record<T> record : records) {
+                    byte[] json = recordWriter.writeValueAsBytes(record);
+                    index.put(record.getId(), new long[] { out.size(), json.length });
+                    out.write(json);
+                }
+                // size saturates at Integer.MAX_VALUE, which is also the largest snapshot that can be mapped
+                long indexPosition = out.size();
+                if (indexPosition == Integer.MAX_VALUE)
+                    throw new IOException("Too many records to write to snapshot " + file);
+                for (Map.Entry<String, long[]> entry : index.entrySet()) {
+                    byte[] id = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                    out.writeShort(id.length);
+                    out.write(id);
+                    out.writeLong(entry.getValue()[0]);
+                    out.writeInt((int) entry.getValue()[1]);
+                }
+                out.writeLong(indexPosition);
+                out.flush();
+                try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.allocate(4).putInt(0, index.size()), 16);
+                }
+            }
+            Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * @return the time the records in this snapshot are current as of
+     */
+    public Instant getWatermark() {
+        return watermark;
+    }
+
+    /**
+     * @return the number of records in this snapshot
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * @return the record IDs in this snapshot
+     */
+    public Set<String> getIds() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Decode a record from this snapshot
+     * @param id the record ID
+     * @return the record or null if there is no record with the ID
+     * @throws AirtableMappingException if unable to parse the record
+     * @throws IllegalStateException if this snapshot has been closed
+     */
+    @Nullable
+    public Record<T> get(String id) {
+        long[] entry = index.get(id);
+        if (entry == null)
+            return null;
+        ByteBuffer mapped = buffer;
+        if (mapped == null)
+            throw new IllegalStateException("Snapshot has been closed");
+        ByteBuffer json = mapped.duplicate();
+        json.position((int) entry[0]);
+        json.limit((int) (entry[0] + entry[1]));
+        try (InputStream in = new ByteBufferBackedInputStream(json)) {
+            return recordReader.readValue(in);
+        } catch (IOException e) {
+            throw new AirtableMappingException("Failed to map snapshot record " + id, e);
+        }
+    }
+
+    /**
+     * Release this snapshot. The file is unmapped once the mapping is garbage collected
+     */
+    @Override
+    public void close() {
+        buffer = null;
+    }
+}
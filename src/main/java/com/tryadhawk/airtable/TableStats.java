@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable;
+
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Request statistics for one operation on one table, collected since the statistics were last reset. Latencies are
+ * measured for each attempt, from sending the request to receiving the response
+ */
+@Value
+@Builder
+public class TableStats {
+
+    /* ID of the base containing the table */
+    private final String baseId;
+    /* Name of the table */
+    private final String table;
+    /* The table operation */
+    private final RequestContext.Operation operation;
+    /* Number of attempts that received a response, including retried attempts */
+    private final long responseCount;
+    /* Number of requests that failed and were not retried */
+    private final long errorCount;
+    /* Number of retries scheduled */
+    private final long retryCount;
+    /* Number of attempts delayed by the client side rate limit */
+    private final long rateLimitedCount;
+    /* Number of attempts currently waiting for a response */
+    private final long inFlight;
+    /* Responses received per second */
+    private final double throughput;
+    /* Median latency */
+    private final Duration p50;
+    /* 90th percentile latency */
+    private final Duration p90;
+    /* 99th percentile latency */
+    private final Duration p99;
+    /* Highest latency */
+    private final Duration max;
+    /* Time the statistics were collected over */
+    private final Duration window;
+}
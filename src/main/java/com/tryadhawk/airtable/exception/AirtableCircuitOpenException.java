@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.exception;
+
+import java.time.Duration;
+
+/**
+ * Airtable exception indicating a request was not sent because the circuit breaker for its base is open after too many
+ * failed or slow requests
+ */
+public class AirtableCircuitOpenException extends AirtableException {
+
+    private final String baseId;
+    private final Duration retryAfter;
+
+    public AirtableCircuitOpenException(String baseId, Duration retryAfter) {
+        super("Circuit breaker is open for base " + baseId + ", retry after " + retryAfter);
+        this.baseId = baseId;
+        this.retryAfter = retryAfter;
+    }
+
+    /** @return the ID of the base */
+    public String getBaseId() {
+        return baseId;
+    }
+
+    /** @return the time until the circuit breaker allows a trial request */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
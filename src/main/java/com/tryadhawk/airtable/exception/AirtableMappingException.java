@@ -24,6 +24,10 @@ package com.tryadhawk.airtable.exception;
  */
 public class AirtableMappingException extends AirtableException {
 
+    public AirtableMappingException(String message) {
+        super(message);
+    }
+
     public AirtableMappingException(String message, Throwable cause) {
         super(message, cause);
     }
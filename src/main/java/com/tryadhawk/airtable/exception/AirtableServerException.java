@@ -19,6 +19,7 @@
 
 package com.tryadhawk.airtable.exception;
 
+import java.time.Duration;
 import javax.annotation.Nullable;
 import com.tryadhawk.airtable.v0.Error;
 
@@ -30,6 +31,7 @@ public class AirtableServerException extends AirtableException {
     private final int statusCode;
     private final String statusText;
     private final Error error;
+    private final Duration retryAfter;
 
     public AirtableServerException(int statusCode) {
         this(statusCode, null, null, null);
@@ -40,10 +42,16 @@ public class AirtableServerException extends AirtableException {
     }
 
     public AirtableServerException(int statusCode, String statusText, Error error, Throwable cause) {
+        this(statusCode, statusText, error, null, cause);
+    }
+
+    public AirtableServerException(int statusCode, String statusText, Error error, Duration retryAfter,
+                                   Throwable cause) {
         super(buildExceptionMessage(statusCode, statusText, error), cause);
         this.statusCode = statusCode;
         this.statusText = statusText == null ? "" : statusText;
         this.error = error;
+        this.retryAfter = retryAfter;
     }
 
     /** @return the HTTP status code */
@@ -62,6 +70,12 @@ public class AirtableServerException extends AirtableException {
         return error;
     }
 
+    /** @return the time the server asked the client to wait before retrying, from the Retry-After header */
+    @Nullable
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
     private static String buildExceptionMessage(int statusCode, String statusText, Error error) {
         StringBuilder sb = new StringBuilder("Status code: ").append(statusCode);
         if (statusText != null)
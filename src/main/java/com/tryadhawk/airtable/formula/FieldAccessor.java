@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+
+/**
+ * Reads fields from row data by their Airtable field name, which is the JSON property name the row type is mapped with
+ */
+class FieldAccessor {
+
+    private final boolean map;
+    private final Map<String, AnnotatedMember> accessors = new HashMap<>();
+
+    /**
+     * Create a new instance
+     * @param type the type row data is mapped to
+     * @param objectMapper the mapper used to map row data to {@code type}
+     * @param fields the fields that will be read
+     * @throws AirtableFormulaException if {@code type} has no readable property for one of {@code fields}
+     */
+    FieldAccessor(Class<?> type, ObjectMapper objectMapper, Set<String> fields) {
+        this.map = Map.class.isAssignableFrom(type);
+        if (map)
+            return;
+        BeanDescription description = objectMapper.getSerializationConfig()
+                .introspect(objectMapper.constructType(type));
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            AnnotatedMember accessor = property.getAccessor();
+            if (accessor != null && fields.contains(property.getName())) {
+                accessor.fixAccess(objectMapper.isEnabled(MapperFeature.OVERRIDE_PUBLIC_ACCESS_MODIFIERS));
+                accessors.put(property.getName(), accessor);
+            }
+        }
+        for (String field : fields) {
+            if (!accessors.containsKey(field))
+                throw new AirtableFormulaException("Unknown field " + field + " for " + type.getName());
+        }
+    }
+
+    /**
+     * Read a field
+     * @param data the row data
+     * @param field the field name
+     * @return the field value or null if the field is empty
+     */
+    Object get(Object data, String field) {
+        if (data == null)
+            return null;
+        if (map)
+            return ((Map<?, ?>) data).get(field);
+        AnnotatedMember accessor = accessors.get(field);
+        return accessor == null ? null : accessor.getValue(data);
+    }
+}
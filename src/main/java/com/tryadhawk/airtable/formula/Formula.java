@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Predicate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * A compiled Airtable formula that can be evaluated locally, such as against cached or replicated records, instead of
+ * by Airtable. Formulas are parsed once and evaluate without reflection or further parsing.
+ * <p>
+ * A subset of the formula language is supported: the operators {@code = != < > <= >= & + - * /}, logical functions
+ * ({@code AND OR XOR NOT IF TRUE FALSE BLANK}), text functions ({@code LEN LOWER UPPER TRIM LEFT RIGHT MID FIND SEARCH
+ * CONCATENATE SUBSTITUTE REGEX_MATCH VALUE}), numeric functions ({@code ABS ROUND}), date functions ({@code IS_BEFORE
+ * IS_AFTER IS_SAME DATETIME_PARSE NOW TODAY}), {@code RECORD_ID()}, and {@code CREATED_TIME()}. Dates are compared in
+ * UTC. Formulas using any other function fail to parse with an {@link AirtableFormulaException}
+ */
+public class Formula {
+
+    private final String formula;
+    private final Expression expression;
+    private final Set<String> fields;
+
+    private Formula(String formula, Expression expression, Set<String> fields) {
+        this.formula = formula;
+        this.expression = expression;
+        this.fields = Collections.unmodifiableSet(fields);
+    }
+
+    /**
+     * Parse a formula
+     * @param formula the formula, as used in {@link com.tryadhawk.airtable.Query#getFilterByFormula()}
+     * @return the compiled formula
+     * @throws AirtableFormulaException if the formula is invalid or uses unsupported functions
+     */
+    public static Formula parse(String formula) {
+        Objects.requireNonNull(formula, "formula cannot be null");
+        FormulaParser parser = new FormulaParser(formula);
+        Expression expression = parser.parse();
+        return new Formula(formula, expression, parser.getFields());
+    }
+
+    /**
+     * Evaluate the formula
+     * @param context the record to evaluate the formula against
+     * @return the result, one of null, {@link Double}, {@link String}, {@link Boolean}, or {@link java.time.Instant}
+     */
+    public Object evaluate(FormulaContext context) {
+        return expression.evaluate(context);
+    }
+
+    /**
+     * Evaluate the formula as a filter. Blank, zero, and empty text results are false, as they are in Airtable
+     * @param context the record to evaluate the formula against
+     * @return whether the record matches the formula
+     */
+    public boolean test(FormulaContext context) {
+        return Values.toBoolean(expression.evaluate(context));
+    }
+
+    /**
+     * Create a predicate matching records the same way Airtable filters them with this formula. Field names are the
+     * JSON property names {@code type} is mapped with
+     * @param type the type row data is mapped to, either a bean or a {@link java.util.Map}
+     * @param objectMapper the mapper used to map row data to {@code type}
+     * @param <T> the type row data is mapped to
+     * @return the predicate
+     * @throws AirtableFormulaException if the formula references a field {@code type} does not have
+     */
+    public <T> Predicate<Record<T>> toPredicate(Class<T> type, ObjectMapper objectMapper) {
+        FieldAccessor accessor = new FieldAccessor(type, objectMapper, fields);
+        return record -> test(new FormulaContext() {
+            @Override
+            public Object getField(String name) {
+                return accessor.get(record.getFields(), name);
+            }
+
+            @Override
+            public String getRecordId() {
+                return record.getId();
+            }
+
+            @Override
+            public String getCreatedTime() {
+                return record.getCreatedTime();
+            }
+        });
+    }
+
+    /**
+     * @return the names of the fields referenced by the formula
+     */
+    public Set<String> getFields() {
+        return fields;
+    }
+
+    @Override
+    public String toString() {
+        return formula;
+    }
+}
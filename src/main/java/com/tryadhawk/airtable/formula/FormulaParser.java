@@ -0,0 +1,287 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+
+/**
+ * Recursive descent parser compiling a formula into a tree of {@link Expression}s. Operators from lowest to highest
+ * precedence are comparisons ({@code = != < > <= >=}), concatenation ({@code &}), addition and subtraction, and
+ * multiplication and division
+ */
+class FormulaParser {
+
+    private final String formula;
+    private final Set<String> fields = new LinkedHashSet<>();
+    private int position;
+
+    FormulaParser(String formula) {
+        this.formula = formula;
+    }
+
+    /**
+     * Parse the whole formula
+     * @return the compiled formula
+     * @throws AirtableFormulaException if the formula is invalid or uses unsupported functions
+     */
+    Expression parse() {
+        Expression expression = parseComparison();
+        skipWhitespace();
+        if (position < formula.length())
+            throw error("Unexpected '" + formula.charAt(position) + "'");
+        return expression;
+    }
+
+    /** @return the names of the fields referenced by the formula */
+    Set<String> getFields() {
+        return fields;
+    }
+
+    private Expression parseComparison() {
+        Expression left = parseConcatenation();
+        while (true) {
+            String operator = matchOperator("!=", "<=", ">=", "=", "<", ">");
+            if (operator == null)
+                return left;
+            Expression l = left;
+            Expression r = parseConcatenation();
+            switch (operator) {
+                case "=":
+                    left = context -> Values.equal(l.evaluate(context), r.evaluate(context));
+                    break;
+                case "!=":
+                    left = context -> !Values.equal(l.evaluate(context), r.evaluate(context));
+                    break;
+                case "<":
+                    left = context -> test(Values.compare(l.evaluate(context), r.evaluate(context)), c -> c < 0);
+                    break;
+                case ">":
+                    left = context -> test(Values.compare(l.evaluate(context), r.evaluate(context)), c -> c > 0);
+                    break;
+                case "<=":
+                    left = context -> test(Values.compare(l.evaluate(context), r.evaluate(context)), c -> c <= 0);
+                    break;
+                default:
+                    left = context -> test(Values.compare(l.evaluate(context), r.evaluate(context)), c -> c >= 0);
+                    break;
+            }
+        }
+    }
+
+    private Expression parseConcatenation() {
+        Expression left = parseAdditive();
+        while (matchOperator("&") != null) {
+            Expression l = left;
+            Expression r = parseAdditive();
+            left = context -> Values.toText(l.evaluate(context)) + Values.toText(r.evaluate(context));
+        }
+        return left;
+    }
+
+    private Expression parseAdditive() {
+        Expression left = parseMultiplicative();
+        while (true) {
+            String operator = matchOperator("+", "-");
+            if (operator == null)
+                return left;
+            Expression l = left;
+            Expression r = parseMultiplicative();
+            if (operator.equals("+"))
+                left = context -> Values.toNumber(l.evaluate(context)) + Values.toNumber(r.evaluate(context));
+            else
+                left = context -> Values.toNumber(l.evaluate(context)) - Values.toNumber(r.evaluate(context));
+        }
+    }
+
+    private Expression parseMultiplicative() {
+        Expression left = parseUnary();
+        while (true) {
+            String operator = matchOperator("*", "/");
+            if (operator == null)
+                return left;
+            Expression l = left;
+            Expression r = parseUnary();
+            if (operator.equals("*"))
+                left = context -> Values.toNumber(l.evaluate(context)) * Values.toNumber(r.evaluate(context));
+            else
+                left = context -> Values.toNumber(l.evaluate(context)) / Values.toNumber(r.evaluate(context));
+        }
+    }
+
+    private Expression parseUnary() {
+        if (matchOperator("-") != null) {
+            Expression operand = parseUnary();
+            return context -> -Values.toNumber(operand.evaluate(context));
+        }
+        return parsePrimary();
+    }
+
+    private Expression parsePrimary() {
+        skipWhitespace();
+        if (position >= formula.length())
+            throw error("Unexpected end of formula");
+        char c = formula.charAt(position);
+        if (c == '(') {
+            ++position;
+            Expression expression = parseComparison();
+            expect(')');
+            return expression;
+        }
+        if (c == '\'' || c == '"')
+            return new Literal(parseString(c));
+        if (c == '{') {
+            int end = formula.indexOf('}', position);
+            if (end < 0)
+                throw error("Unclosed field name");
+            return field(formula.substring(position + 1, end), end + 1);
+        }
+        if (Character.isDigit(c) || c == '.')
+            return new Literal(parseNumber());
+        if (Character.isLetter(c) || c == '_') {
+            int start = position;
+            while (position < formula.length() &&
+                    (Character.isLetterOrDigit(formula.charAt(position)) || formula.charAt(position) == '_'))
+                ++position;
+            String name = formula.substring(start, position);
+            skipWhitespace();
+            if (position < formula.length() && formula.charAt(position) == '(') {
+                ++position;
+                return Functions.compile(name.toUpperCase(), parseArguments(), this::error);
+            }
+            // field names without spaces can be used without braces
+            return field(name, position);
+        }
+        throw error("Unexpected '" + c + "'");
+    }
+
+    private List<Expression> parseArguments() {
+        List<Expression> arguments = new ArrayList<>();
+        skipWhitespace();
+        if (position < formula.length() && formula.charAt(position) == ')') {
+            ++position;
+            return arguments;
+        }
+        while (true) {
+            arguments.add(parseComparison());
+            skipWhitespace();
+            if (position >= formula.length() || formula.charAt(position) != ',') {
+                expect(')');
+                return arguments;
+            }
+            ++position;
+        }
+    }
+
+    private Expression field(String name, int end) {
+        position = end;
+        fields.add(name);
+        return context -> Values.fromField(context.getField(name));
+    }
+
+    private String parseString(char quote) {
+        StringBuilder value = new StringBuilder();
+        ++position;
+        while (position < formula.length()) {
+            char c = formula.charAt(position++);
+            if (c == quote)
+                return value.toString();
+            if (c == '\\' && position < formula.length()) {
+                char escaped = formula.charAt(position++);
+                value.append(escaped == 'n' ? '\n' : escaped == 't' ? '\t' : escaped);
+            } else {
+                value.append(c);
+            }
+        }
+        throw error("Unclosed string");
+    }
+
+    private Double parseNumber() {
+        int start = position;
+        while (position < formula.length() &&
+                (Character.isDigit(formula.charAt(position)) || formula.charAt(position) == '.'))
+            ++position;
+        try {
+            return Double.parseDouble(formula.substring(start, position));
+        } catch (NumberFormatException e) {
+            throw error("Invalid number");
+        }
+    }
+
+    /**
+     * Consume the first of a list of operators found at the current position
+     * @param operators the operators, longer operators sharing a prefix with shorter ones must come first
+     * @return the operator consumed or null if none were found
+     */
+    private String matchOperator(String... operators) {
+        skipWhitespace();
+        for (String operator : operators) {
+            if (formula.startsWith(operator, position)) {
+                position += operator.length();
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    private void expect(char c) {
+        skipWhitespace();
+        if (position >= formula.length() || formula.charAt(position) != c)
+            throw error("Expected '" + c + "'");
+        ++position;
+    }
+
+    private void skipWhitespace() {
+        while (position < formula.length() && Character.isWhitespace(formula.charAt(position)))
+            ++position;
+    }
+
+    private AirtableFormulaException error(String message) {
+        return new AirtableFormulaException(message + " at position " + position + " in formula: " + formula);
+    }
+
+    private static boolean test(Integer comparison, IntPredicate predicate) {
+        return comparison != null && predicate.test(comparison);
+    }
+
+    /**
+     * A constant value, lets functions prepare work such as compiling patterns once instead of on every evaluation
+     */
+    static class Literal implements Expression {
+
+        private final Object value;
+
+        Literal(Object value) {
+            this.value = value;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        @Override
+        public Object evaluate(FormulaContext context) {
+            return value;
+        }
+    }
+}
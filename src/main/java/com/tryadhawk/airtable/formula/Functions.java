@@ -0,0 +1,274 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+
+/**
+ * The formula functions that can be evaluated locally
+ */
+final class Functions {
+
+    private Functions() { }
+
+    /**
+     * Compile a function call
+     * @param name the function name in upper case
+     * @param args the compiled arguments
+     * @param error creates the exception for an invalid call
+     * @return the compiled function call
+     * @throws AirtableFormulaException if the function is not supported or has the wrong number of arguments
+     */
+    static Expression compile(String name, List<Expression> args, Function<String, AirtableFormulaException> error) {
+        switch (name) {
+            case "AND":
+                checkArgs(name, args, 1, Integer.MAX_VALUE, error);
+                return context -> {
+                    for (Expression arg : args) {
+                        if (!Values.toBoolean(arg.evaluate(context)))
+                            return false;
+                    }
+                    return true;
+                };
+            case "OR":
+                checkArgs(name, args, 1, Integer.MAX_VALUE, error);
+                return context -> {
+                    for (Expression arg : args) {
+                        if (Values.toBoolean(arg.evaluate(context)))
+                            return true;
+                    }
+                    return false;
+                };
+            case "XOR":
+                checkArgs(name, args, 1, Integer.MAX_VALUE, error);
+                return context -> {
+                    boolean result = false;
+                    for (Expression arg : args)
+                        result ^= Values.toBoolean(arg.evaluate(context));
+                    return result;
+                };
+            case "NOT":
+                checkArgs(name, args, 1, 1, error);
+                return context -> !Values.toBoolean(args.get(0).evaluate(context));
+            case "IF":
+                checkArgs(name, args, 2, 3, error);
+                return context -> Values.toBoolean(args.get(0).evaluate(context)) ? args.get(1).evaluate(context) :
+                        args.size() > 2 ? args.get(2).evaluate(context) : null;
+            case "TRUE":
+                checkArgs(name, args, 0, 0, error);
+                return new FormulaParser.Literal(true);
+            case "FALSE":
+                checkArgs(name, args, 0, 0, error);
+                return new FormulaParser.Literal(false);
+            case "BLANK":
+                checkArgs(name, args, 0, 0, error);
+                return new FormulaParser.Literal(null);
+            case "RECORD_ID":
+                checkArgs(name, args, 0, 0, error);
+                return FormulaContext::getRecordId;
+            case "CREATED_TIME":
+                checkArgs(name, args, 0, 0, error);
+                return context -> Values.toDate(context.getCreatedTime());
+            case "LEN":
+                checkArgs(name, args, 1, 1, error);
+                return context -> (double) text(args.get(0), context).length();
+            case "LOWER":
+                checkArgs(name, args, 1, 1, error);
+                return context -> text(args.get(0), context).toLowerCase(Locale.ROOT);
+            case "UPPER":
+                checkArgs(name, args, 1, 1, error);
+                return context -> text(args.get(0), context).toUpperCase(Locale.ROOT);
+            case "TRIM":
+                checkArgs(name, args, 1, 1, error);
+                return context -> text(args.get(0), context).trim();
+            case "LEFT":
+                checkArgs(name, args, 2, 2, error);
+                return context -> {
+                    String text = text(args.get(0), context);
+                    return text.substring(0, clamp(number(args.get(1), context), text.length()));
+                };
+            case "RIGHT":
+                checkArgs(name, args, 2, 2, error);
+                return context -> {
+                    String text = text(args.get(0), context);
+                    return text.substring(text.length() - clamp(number(args.get(1), context), text.length()));
+                };
+            case "MID":
+                checkArgs(name, args, 3, 3, error);
+                return context -> {
+                    String text = text(args.get(0), context);
+                    int start = clamp(number(args.get(1), context) - 1, text.length());
+                    return text.substring(start, start + clamp(number(args.get(2), context), text.length() - start));
+                };
+            case "FIND":
+            case "SEARCH":
+                checkArgs(name, args, 2, 3, error);
+                boolean blankIfMissing = name.equals("SEARCH");
+                return context -> {
+                    String text = text(args.get(1), context);
+                    int start = args.size() > 2 ? clamp(number(args.get(2), context) - 1, text.length()) : 0;
+                    int index = text.indexOf(text(args.get(0), context), start);
+                    return index < 0 && blankIfMissing ? null : (double) (index + 1);
+                };
+            case "CONCATENATE":
+                checkArgs(name, args, 1, Integer.MAX_VALUE, error);
+                return context -> {
+                    StringBuilder result = new StringBuilder();
+                    for (Expression arg : args)
+                        result.append(text(arg, context));
+                    return result.toString();
+                };
+            case "SUBSTITUTE":
+                checkArgs(name, args, 3, 3, error);
+                return context -> {
+                    String old = text(args.get(1), context);
+                    String text = text(args.get(0), context);
+                    return old.isEmpty() ? text : text.replace(old, text(args.get(2), context));
+                };
+            case "REGEX_MATCH":
+                checkArgs(name, args, 2, 2, error);
+                if (args.get(1) instanceof FormulaParser.Literal) {
+                    Pattern pattern;
+                    try {
+                        pattern = Pattern.compile(Values.toText(((FormulaParser.Literal) args.get(1)).getValue()));
+                    } catch (PatternSyntaxException e) {
+                        throw error.apply("Invalid pattern for " + name + ": " + e.getDescription());
+                    }
+                    return context -> pattern.matcher(text(args.get(0), context)).find();
+                }
+                return context -> Pattern.compile(text(args.get(1), context)).matcher(text(args.get(0), context)).find();
+            case "VALUE":
+                checkArgs(name, args, 1, 1, error);
+                return context -> Values.toNumber(text(args.get(0), context).replaceAll("[^0-9.eE+-]", ""));
+            case "ABS":
+                checkArgs(name, args, 1, 1, error);
+                return context -> Math.abs(number(args.get(0), context));
+            case "ROUND":
+                checkArgs(name, args, 1, 2, error);
+                return context -> {
+                    double value = number(args.get(0), context);
+                    if (Double.isNaN(value) || Double.isInfinite(value))
+                        return value;
+                    int digits = args.size() > 1 ? (int) number(args.get(1), context) : 0;
+                    return BigDecimal.valueOf(value).setScale(digits, RoundingMode.HALF_UP).doubleValue();
+                };
+            case "DATETIME_PARSE":
+                checkArgs(name, args, 1, 1, error);
+                return context -> Values.toDate(args.get(0).evaluate(context));
+            case "NOW":
+                checkArgs(name, args, 0, 0, error);
+                return context -> Instant.now();
+            case "TODAY":
+                checkArgs(name, args, 0, 0, error);
+                return context -> LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+            case "IS_BEFORE":
+                checkArgs(name, args, 2, 2, error);
+                return context -> compareDates(args.get(0), args.get(1), context, ChronoUnit.MILLIS) < 0;
+            case "IS_AFTER":
+                checkArgs(name, args, 2, 2, error);
+                return context -> compareDates(args.get(0), args.get(1), context, ChronoUnit.MILLIS) > 0;
+            case "IS_SAME":
+                checkArgs(name, args, 2, 3, error);
+                return context -> compareDates(args.get(0), args.get(1), context,
+                        args.size() > 2 ? unit(text(args.get(2), context)) : ChronoUnit.MILLIS) == 0;
+            default:
+                throw error.apply("Unsupported function " + name);
+        }
+    }
+
+    private static void checkArgs(String name, List<Expression> args, int min, int max,
+                                  Function<String, AirtableFormulaException> error) {
+        if (args.size() < min || args.size() > max)
+            throw error.apply("Wrong number of arguments to " + name);
+    }
+
+    private static String text(Expression expression, FormulaContext context) {
+        return Values.toText(expression.evaluate(context));
+    }
+
+    private static double number(Expression expression, FormulaContext context) {
+        return Values.toNumber(expression.evaluate(context));
+    }
+
+    /**
+     * @return {@code value} limited to between 0 and {@code max}
+     */
+    private static int clamp(double value, int max) {
+        if (Double.isNaN(value) || value < 0)
+            return 0;
+        return (int) Math.min(value, max);
+    }
+
+    /**
+     * Compare two dates truncated to a unit
+     * @return the comparison or 2 if either value is not a date, which fails every date test
+     */
+    private static int compareDates(Expression left, Expression right, FormulaContext context, ChronoUnit unit) {
+        Instant leftDate = Values.toDate(left.evaluate(context));
+        Instant rightDate = Values.toDate(right.evaluate(context));
+        if (leftDate == null || rightDate == null)
+            return 2;
+        return Integer.signum(truncate(leftDate, unit).compareTo(truncate(rightDate, unit)));
+    }
+
+    private static Instant truncate(Instant date, ChronoUnit unit) {
+        if (unit.compareTo(ChronoUnit.DAYS) <= 0)
+            return date.truncatedTo(unit);
+        LocalDate day = date.atZone(ZoneOffset.UTC).toLocalDate();
+        if (unit == ChronoUnit.WEEKS)
+            day = day.minusDays(day.getDayOfWeek().getValue() % 7);
+        else if (unit == ChronoUnit.MONTHS)
+            day = day.withDayOfMonth(1);
+        else
+            day = day.withDayOfYear(1);
+        return day.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    private static ChronoUnit unit(String unit) {
+        switch (unit.trim().toLowerCase(Locale.ROOT)) {
+            case "second": case "seconds": case "s":
+                return ChronoUnit.SECONDS;
+            case "minute": case "minutes": case "m":
+                return ChronoUnit.MINUTES;
+            case "hour": case "hours": case "h":
+                return ChronoUnit.HOURS;
+            case "day": case "days": case "d":
+                return ChronoUnit.DAYS;
+            case "week": case "weeks": case "w":
+                return ChronoUnit.WEEKS;
+            case "month": case "months":
+                return ChronoUnit.MONTHS;
+            case "year": case "years": case "y":
+                return ChronoUnit.YEARS;
+            default:
+                return ChronoUnit.MILLIS;
+        }
+    }
+}
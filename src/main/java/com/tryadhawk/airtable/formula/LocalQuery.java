@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.Query;
+import com.tryadhawk.airtable.Sort;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * Runs a {@link Query} against records held in memory, giving the same results Airtable would for the supported
+ * subset of formulas. See {@link Formula} for the supported subset
+ */
+public final class LocalQuery {
+
+    private LocalQuery() { }
+
+    /**
+     * Select the records matching a query. The query's filter, sorts, and max records are applied. Views cannot be
+     * evaluated locally and are ignored, as are fields, page size, and offset. Records are returned as is, not copied
+     * @param records the records to select from
+     * @param query the query
+     * @param type the type row data is mapped to, either a bean or a {@link java.util.Map}
+     * @param objectMapper the mapper used to map row data to {@code type}
+     * @param <T> the type row data is mapped to
+     * @return the matching records
+     * @throws AirtableFormulaException if the filter is invalid, uses unsupported functions, or references a field
+     * {@code type} does not have
+     */
+    public static <T> List<Record<T>> select(Collection<Record<T>> records, Query query, Class<T> type,
+                                             ObjectMapper objectMapper) {
+        Predicate<Record<T>> filter = query.getFilterByFormula() == null || query.getFilterByFormula().isEmpty() ?
+                record -> true : Formula.parse(query.getFilterByFormula()).toPredicate(type, objectMapper);
+        List<Record<T>> result = new ArrayList<>();
+        for (Record<T> record : records) {
+            if (filter.test(record))
+                result.add(record);
+        }
+        if (!query.getSorts().isEmpty())
+            result.sort(buildComparator(query.getSorts(), type, objectMapper));
+        if (query.getMaxRecords() != null && result.size() > query.getMaxRecords())
+            return new ArrayList<>(result.subList(0, query.getMaxRecords()));
+        return result;
+    }
+
+    private static <T> Comparator<Record<T>> buildComparator(List<Sort> sorts, Class<T> type,
+                                                             ObjectMapper objectMapper) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (Sort sort : sorts)
+            fields.add(sort.getField());
+        FieldAccessor accessor = new FieldAccessor(type, objectMapper, fields);
+        Comparator<Record<T>> comparator = (a, b) -> 0;
+        for (Sort sort : sorts) {
+            Comparator<Record<T>> bySort = (a, b) -> compareFields(
+                    Values.fromField(accessor.get(a.getFields(), sort.getField())),
+                    Values.fromField(accessor.get(b.getFields(), sort.getField())));
+            comparator = comparator.thenComparing(sort.getDirection() == Sort.Direction.desc ?
+                    bySort.reversed() : bySort);
+        }
+        return comparator;
+    }
+
+    /**
+     * Compare two field values for sorting, blank values sort first
+     */
+    private static int compareFields(Object left, Object right) {
+        boolean leftBlank = left == null || "".equals(left);
+        boolean rightBlank = right == null || "".equals(right);
+        if (leftBlank || rightBlank)
+            return Boolean.compare(!leftBlank, !rightBlank);
+        Integer comparison = Values.compare(left, right);
+        return comparison == null ? 0 : comparison;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.formula;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.StringJoiner;
+
+/**
+ * Conversions between formula values, following Airtable's rules where blank, zero, and empty text are false
+ */
+final class Values {
+
+    private Values() { }
+
+    /**
+     * Convert a field value to a formula value. Lists, such as multiple selects and linked records, become their
+     * elements joined with ", " as they do in Airtable formulas
+     * @param value the field value
+     * @return the formula value
+     */
+    static Object fromField(Object value) {
+        if (value == null || value instanceof String || value instanceof Boolean || value instanceof Double ||
+                value instanceof Instant)
+            return value;
+        if (value instanceof Number)
+            return ((Number) value).doubleValue();
+        if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            if (values.isEmpty())
+                return null;
+            StringJoiner joined = new StringJoiner(", ");
+            for (Object element : values)
+                joined.add(toText(fromField(element)));
+            return joined.toString();
+        }
+        if (value instanceof Date)
+            return ((Date) value).toInstant();
+        if (value instanceof LocalDate)
+            return ((LocalDate) value).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (value instanceof LocalDateTime)
+            return ((LocalDateTime) value).toInstant(ZoneOffset.UTC);
+        if (value instanceof OffsetDateTime)
+            return ((OffsetDateTime) value).toInstant();
+        if (value instanceof ZonedDateTime)
+            return ((ZonedDateTime) value).toInstant();
+        if (value instanceof Enum)
+            return ((Enum<?>) value).name();
+        return value.toString();
+    }
+
+    static boolean toBoolean(Object value) {
+        if (value == null)
+            return false;
+        if (value instanceof Boolean)
+            return (Boolean) value;
+        if (value instanceof Double)
+            return (Double) value != 0 && !((Double) value).isNaN();
+        if (value instanceof String)
+            return !((String) value).isEmpty();
+        return true;
+    }
+
+    static double toNumber(Object value) {
+        if (value == null)
+            return 0;
+        if (value instanceof Double)
+            return (Double) value;
+        if (value instanceof Boolean)
+            return (Boolean) value ? 1 : 0;
+        if (value instanceof Instant)
+            return ((Instant) value).toEpochMilli();
+        String text = value.toString().trim();
+        if (text.isEmpty())
+            return 0;
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    static String toText(Object value) {
+        if (value == null)
+            return "";
+        if (value instanceof Double) {
+            double number = (Double) value;
+            if (number == Math.rint(number) && !Double.isInfinite(number) && Math.abs(number) < 1e15)
+                return Long.toString((long) number);
+            return Double.toString(number);
+        }
+        if (value instanceof Boolean)
+            return (Boolean) value ? "1" : "0";
+        return value.toString();
+    }
+
+    /**
+     * Convert a value to a date, parsing text as an ISO-8601 date or date and time
+     * @param value the value
+     * @return the date or null if the value is blank or not a date
+     */
+    static Instant toDate(Object value) {
+        if (value == null || value instanceof Instant)
+            return (Instant) value;
+        if (value instanceof Double)
+            return Instant.ofEpochMilli(((Double) value).longValue());
+        String text = value.toString().trim();
+        if (text.isEmpty())
+            return null;
+        try {
+            if (text.length() == 10)
+                return LocalDate.parse(text).atStartOfDay(ZoneOffset.UTC).toInstant();
+            if (text.endsWith("Z") || text.lastIndexOf('+') > 9 || text.lastIndexOf('-') > 9)
+                return OffsetDateTime.parse(text).toInstant();
+            return LocalDateTime.parse(text).toInstant(ZoneOffset.UTC);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Compare two values for equality. Blank equals blank, empty text, false, and 0
+     * @param left the left value
+     * @param right the right value
+     * @return if the values are equal
+     */
+    static boolean equal(Object left, Object right) {
+        if (left == null || right == null) {
+            Object other = left == null ? right : left;
+            return other == null || "".equals(other) || Boolean.FALSE.equals(other) ||
+                    other instanceof Double && (Double) other == 0;
+        }
+        Integer comparison = compare(left, right);
+        return comparison != null && comparison == 0;
+    }
+
+    /**
+     * Compare two values. Numbers, booleans, and numeric text compare as numbers, dates compare as dates if the other
+     * value is also a date, and everything else compares as text
+     * @param left the left value
+     * @param right the right value
+     * @return negative, zero, or positive if left is less than, equal to, or greater than right, or null if the values
+     * cannot be compared
+     */
+    static Integer compare(Object left, Object right) {
+        if (left instanceof Instant || right instanceof Instant) {
+            Instant leftDate = toDate(left);
+            Instant rightDate = toDate(right);
+            if (leftDate == null || rightDate == null)
+                return null;
+            return leftDate.compareTo(rightDate);
+        }
+        if (isNumeric(left) || isNumeric(right)) {
+            double leftNumber = toNumber(left);
+            double rightNumber = toNumber(right);
+            if (!Double.isNaN(leftNumber) && !Double.isNaN(rightNumber))
+                return Double.compare(leftNumber, rightNumber);
+        }
+        return toText(left).compareTo(toText(right));
+    }
+
+    private static boolean isNumeric(Object value) {
+        return value instanceof Double || value instanceof Boolean;
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import com.tryadhawk.airtable.CacheConfiguration;
+import com.tryadhawk.airtable.CacheStats;
+
+/**
+ * Size bounded, least recently used cache of records by record ID with expiration after write. Records that were not
+ * found can be cached as missing so repeated lookups of the same missing ID do not reach Airtable. Expired records can be
+ * retained until evicted so they can still be returned while Airtable is unavailable
+ * @param <V> the type of the cached records
+ */
+public class RecordCache<V> {
+
+    private static final RecordCache<?> DISABLED = new RecordCache<>();
+
+    private final boolean enabled;
+    private final int maximumSize;
+    private final long expireNanos;
+    private final long expireMissingNanos;
+    private final boolean retainExpired;
+    private final LongSupplier clock;
+    private final Map<String, Entry<V>> entries;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Create a new instance
+     * @param config the cache settings
+     */
+    public RecordCache(CacheConfiguration config) {
+        this(config, false);
+    }
+
+    /**
+     * Create a new instance
+     * @param config the cache settings
+     * @param retainExpired if expired records should be kept until evicted so {@link #getStale(String)} can return them
+     */
+    public RecordCache(CacheConfiguration config, boolean retainExpired) {
+        this(config, retainExpired, System::nanoTime);
+    }
+
+    RecordCache(CacheConfiguration config, LongSupplier clock) {
+        this(config, false, clock);
+    }
+
+    RecordCache(CacheConfiguration config, boolean retainExpired, LongSupplier clock) {
+        Objects.requireNonNull(config, "config cannot be null");
+        if (config.getMaximumSize() < 1)
+            throw new IllegalArgumentException("maximumSize must be greater than 0");
+        this.enabled = true;
+        this.maximumSize = config.getMaximumSize();
+        this.expireNanos = config.getExpireAfterWrite().toNanos();
+        this.expireMissingNanos = config.getExpireMissingAfterWrite() == null ? 0 :
+                config.getExpireMissingAfterWrite().toNanos();
+        this.retainExpired = retainExpired;
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        // access ordered so the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<String, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, RecordCache.Entry<V>> eldest) {
+                boolean evict = size() > maximumSize;
+                if (evict)
+                    evictions.incrementAndGet();
+                return evict;
+            }
+        };
+    }
+
+    private RecordCache() {
+        this.enabled = false;
+        this.maximumSize = 0;
+        this.expireNanos = 0;
+        this.expireMissingNanos = 0;
+        this.retainExpired = false;
+        this.clock = () -> 0;
+        this.entries = null;
+    }
+
+    /**
+     * @param <V> the type of the cached records
+     * @return a cache that never stores anything
+     */
+    @SuppressWarnings("unchecked")
+    public static <V> RecordCache<V> disabled() {
+        return (RecordCache<V>) DISABLED;
+    }
+
+    /**
+     * Look up a record, counting the lookup as a hit or miss
+     * @param id the record ID
+     * @return the cached entry or null if the record is not cached or has expired
+     */
+    public Entry<V> get(String id) {
+        if (!enabled)
+            return null;
+        Entry<V> entry;
+        synchronized (entries) {
+            entry = entries.get(id);
+            if (entry != null && entry.expiresAt - clock.getAsLong() <= 0) {
+                if (!retainExpired)
+                    entries.remove(id);
+                entry = null;
+            }
+        }
+        (entry == null ? misses : hits).incrementAndGet();
+        return entry;
+    }
+
+    /**
+     * Look up a record, including records that have expired if expired records are retained, without counting the
+     * lookup as a hit or miss
+     * @param id the record ID
+     * @return the cached entry or null if the record is not cached
+     */
+    public Entry<V> getStale(String id) {
+        if (!enabled)
+            return null;
+        synchronized (entries) {
+            return entries.get(id);
+        }
+    }
+
+    /**
+     * Cache a record
+     * @param id the record ID
+     * @param value the record
+     */
+    public void put(String id, V value) {
+        if (!enabled || id == null)
+            return;
+        Entry<V> entry = new Entry<>(value, clock.getAsLong() + expireNanos);
+        synchronized (entries) {
+            entries.put(id, entry);
+        }
+    }
+
+    /**
+     * Cache a record as missing, if caching missing records is enabled
+     * @param id the record ID
+     * @param error the error returned when the record was not found
+     */
+    public void putMissing(String id, Throwable error) {
+        if (!enabled || expireMissingNanos == 0)
+            return;
+        Entry<V> entry = new Entry<>(error, clock.getAsLong() + expireMissingNanos);
+        synchronized (entries) {
+            entries.put(id, entry);
+        }
+    }
+
+    /**
+     * Remove a record from the cache
+     * @param id the record ID
+     */
+    public void invalidate(String id) {
+        if (!enabled)
+            return;
+        synchronized (entries) {
+            entries.remove(id);
+        }
+    }
+
+    /**
+     * @return the current statistics for this cache
+     */
+    public CacheStats stats() {
+        long size = 0;
+        if (enabled) {
+            synchronized (entries) {
+                size = entries.size();
+            }
+        }
+        return new CacheStats(hits.get(), misses.get(), evictions.get(), size);
+    }
+
+    /**
+     * A cached record or a record cached as missing
+     * @param <V> the type of the record
+     */
+    public static class Entry<V> {
+
+        private final V value;
+        private final Throwable error;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.error = null;
+            this.expiresAt = expiresAt;
+        }
+
+        private Entry(Throwable error, long expiresAt) {
+            this.value = null;
+            this.error = error;
+            this.expiresAt = expiresAt;
+        }
+
+        /** @return the record or null if the record is cached as missing */
+        public V getValue() {
+            return value;
+        }
+
+        /** @return the error returned when the record was not found or null if the record is not missing */
+        public Throwable getError() {
+            return error;
+        }
+
+        /** @return if the record is cached as missing */
+        public boolean isMissing() {
+            return error != null;
+        }
+    }
+}
@@ -19,9 +19,17 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.Configuration;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
 import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.reactive.Backoff;
 import com.tryadhawk.airtable.internal.reactive.ReactiveUtils;
 import com.tryadhawk.airtable.internal.reactive.RetryWithDelay;
 import io.reactivex.rxjava3.core.Single;
@@ -31,15 +39,23 @@ import org.asynchttpclient.Response;
 
 /**
  * Wrapper around AsyncHttpClient that transforms exceptions and failure response codes to
- * {@link AirtableServerException AirtableServerExceptions} and automatically retries up to 5 times after a delay for
- * 429 response status codes
+ * {@link AirtableServerException AirtableServerExceptions}, waits for a {@link RateLimiter} permit before each attempt,
+ * and automatically retries up to 5 times for 429 response status codes. Transient failures, network errors and 500,
+ * 502, 503, and 504 response status codes, are also retried for idempotent requests while the {@link RetryBudget}
+ * allows. Retries wait for the time in the response's Retry-After header if it has one. Otherwise rate limited
+ * requests wait out Airtable's 30 second penalty and other failures wait for a delay set by a {@link Backoff}.
+ * Requests fail immediately with an {@link AirtableCircuitOpenException} while the {@link CircuitBreaker} for their
+ * base is open. GET requests can be hedged, sending a second copy of a slow request, as set by a {@link HedgePolicy}
  */
 public class AirtableHttpClient {
 
     private final AsyncHttpClient httpClient;
     private final HttpResponseExceptionHandler exceptionHandler;
-    private final int waitMin;
-    private final int waitMax;
+    private final Backoff backoff;
+    private final RetryBudget retryBudget;
+    private final boolean retryNonIdempotent;
+    private final HedgePolicy hedgePolicy;
+    private final Duration rateLimitDelay;
 
     public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper) {
         this(httpClient, objectMapper, new HttpResponseExceptionHandler(objectMapper));
@@ -47,20 +63,82 @@ public class AirtableHttpClient {
 
     public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
                               HttpResponseExceptionHandler exceptionHandler) {
-        this(httpClient, objectMapper, exceptionHandler, 30, 36);
+        this(httpClient, objectMapper, exceptionHandler, Backoff.decorrelatedJitter(Configuration.RETRY_BASE_DELAY,
+                Configuration.RETRY_MAX_DELAY, TimeUnit.MILLISECONDS));
     }
 
-    AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
-                       HttpResponseExceptionHandler exceptionHandler, int waitMin, int waitMax) {
-        if (waitMin < 1 || waitMax < 1)
-            throw new IllegalArgumentException("waitMin and waitMax must be greater than 0");
-        if (waitMin >= waitMax)
-            throw new IllegalArgumentException("waitMin must be less than or equal to waitMax");
+    /**
+     * Create a new instance
+     * @param httpClient the client to send requests with
+     * @param objectMapper the mapper for error responses
+     * @param exceptionHandler the handler mapping errors to {@link AirtableServerException AirtableServerExceptions}
+     * @param backoff the policy for the delay between retries of transient failures without a Retry-After header
+     */
+    public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
+                              HttpResponseExceptionHandler exceptionHandler, Backoff backoff) {
+        this(httpClient, objectMapper, exceptionHandler, backoff,
+                new RetryBudget(Configuration.RETRY_BUDGET, Configuration.RETRY_BUDGET_MIN_RETRIES), false);
+    }
+
+    /**
+     * Create a new instance
+     * @param httpClient the client to send requests with
+     * @param objectMapper the mapper for error responses
+     * @param exceptionHandler the handler mapping errors to {@link AirtableServerException AirtableServerExceptions}
+     * @param backoff the policy for the delay between retries of transient failures without a Retry-After header
+     * @param retryBudget the budget for retries of transient failures, shared by all requests sent by this client
+     * @param retryNonIdempotent if POST and PATCH requests that create or update rows should be retried after
+     * transient failures, which can apply them twice
+     */
+    public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
+                              HttpResponseExceptionHandler exceptionHandler, Backoff backoff,
+                              RetryBudget retryBudget, boolean retryNonIdempotent) {
+        this(httpClient, objectMapper, exceptionHandler, backoff, retryBudget, retryNonIdempotent,
+                HedgePolicy.disabled());
+    }
+
+    /**
+     * Create a new instance
+     * @param httpClient the client to send requests with
+     * @param objectMapper the mapper for error responses
+     * @param exceptionHandler the handler mapping errors to {@link AirtableServerException AirtableServerExceptions}
+     * @param backoff the policy for the delay between retries of transient failures without a Retry-After header
+     * @param retryBudget the budget for retries of transient failures, shared by all requests sent by this client
+     * @param retryNonIdempotent if POST and PATCH requests that create or update rows should be retried after
+     * transient failures, which can apply them twice
+     * @param hedgePolicy the policy for when to send a second copy of a GET request that has not been answered
+     */
+    public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
+                              HttpResponseExceptionHandler exceptionHandler, Backoff backoff,
+                              RetryBudget retryBudget, boolean retryNonIdempotent, HedgePolicy hedgePolicy) {
+        this(httpClient, objectMapper, exceptionHandler, backoff, retryBudget, retryNonIdempotent, hedgePolicy,
+                Duration.ofMillis(Configuration.RATE_LIMIT_DELAY));
+    }
+
+    /**
+     * Create a new instance
+     * @param httpClient the client to send requests with
+     * @param objectMapper the mapper for error responses
+     * @param exceptionHandler the handler mapping errors to {@link AirtableServerException AirtableServerExceptions}
+     * @param backoff the policy for the delay between retries of transient failures without a Retry-After header
+     * @param retryBudget the budget for retries of transient failures, shared by all requests sent by this client
+     * @param retryNonIdempotent if POST and PATCH requests that create or update rows should be retried after
+     * transient failures, which can apply them twice
+     * @param hedgePolicy the policy for when to send a second copy of a GET request that has not been answered
+     * @param rateLimitDelay the delay before retrying a 429 response without a Retry-After header
+     */
+    public AirtableHttpClient(AsyncHttpClient httpClient, ObjectMapper objectMapper,
+                              HttpResponseExceptionHandler exceptionHandler, Backoff backoff,
+                              RetryBudget retryBudget, boolean retryNonIdempotent, HedgePolicy hedgePolicy,
+                              Duration rateLimitDelay) {
         this.httpClient = Objects.requireNonNull(httpClient, "httpClient cannot be null");
         Objects.requireNonNull(objectMapper, "objectMapper cannot be null");
         this.exceptionHandler = Objects.requireNonNull(exceptionHandler, "exceptionHandler cannot be null");
-        this.waitMin = waitMin;
-        this.waitMax = waitMax;
+        this.backoff = Objects.requireNonNull(backoff, "backoff cannot be null");
+        this.retryBudget = Objects.requireNonNull(retryBudget, "retryBudget cannot be null");
+        this.retryNonIdempotent = retryNonIdempotent;
+        this.hedgePolicy = Objects.requireNonNull(hedgePolicy, "hedgePolicy cannot be null");
+        this.rateLimitDelay = Objects.requireNonNull(rateLimitDelay, "rateLimitDelay cannot be null");
     }
 
     /**
@@ -69,13 +147,177 @@ public class AirtableHttpClient {
      * @return a Single containing the Response or an AirtableServerException if an error occurs
      */
     public Single<Response> execute(Request request) {
-        return ReactiveUtils.fromFuture(() -> httpClient.executeRequest(request))
-                .onErrorResumeNext(e -> exceptionHandler.handleError(e))
+        return execute(request, RateLimiter.unlimited());
+    }
+
+    /**
+     * Execute a request, waiting for a permit from a rate limiter before each attempt
+     * @param request the request to execute
+     * @param rateLimiter the rate limiter for the base the request is sent to
+     * @return a Single containing the Response or an AirtableServerException if an error occurs
+     */
+    public Single<Response> execute(Request request, RateLimiter rateLimiter) {
+        return execute(request, rateLimiter, RequestEvents.disabled());
+    }
+
+    /**
+     * Execute a request, waiting for a permit from a rate limiter before each attempt and sending events for each
+     * attempt, retry, and failure
+     * @param request the request to execute
+     * @param rateLimiter the rate limiter for the base the request is sent to
+     * @param events the events for the request
+     * @return a Single containing the Response or an AirtableServerException if an error occurs
+     */
+    public Single<Response> execute(Request request, RateLimiter rateLimiter, RequestEvents events) {
+        return execute(request, rateLimiter, CircuitBreaker.disabled(), events);
+    }
+
+    /**
+     * Execute a request, checking a circuit breaker and waiting for a permit from a rate limiter before each attempt
+     * and sending events for each attempt, retry, and failure
+     * @param request the request to execute
+     * @param rateLimiter the rate limiter for the base the request is sent to
+     * @param circuitBreaker the circuit breaker for the base the request is sent to
+     * @param events the events for the request
+     * @return a Single containing the Response, an AirtableCircuitOpenException if the circuit breaker is open, or an
+     * AirtableServerException if an error occurs
+     */
+    public Single<Response> execute(Request request, RateLimiter rateLimiter, CircuitBreaker circuitBreaker,
+                                    RequestEvents events) {
+        boolean idempotent = retryNonIdempotent || isIdempotent(request);
+        Single<Response> response = Single.defer(() -> {
+                    CircuitBreaker.Permit permit = circuitBreaker.acquire();
+                    return rateLimiter.acquire(events::rateLimited)
+                            .andThen(Single.defer(() -> {
+                                permit.sent();
+                                return send(request, rateLimiter, events)
+                                        .doOnSuccess(r -> permit.responded(r.getStatusCode()))
+                                        .doOnError(e -> permit.failed());
+                            }))
+                            .doOnDispose(permit::cancelled)
+                            .onErrorResumeNext(e -> exceptionHandler.handleError(e));
+                })
                 .flatMap(exceptionHandler::checkResponse)
                 .retryWhen(RetryWithDelay.builder()
-                        .waitMin(waitMin)
-                        .waitMax(waitMax)
-                        .predicate(e -> e instanceof AirtableServerException && ((AirtableServerException) e).getStatusCode() == 429)
-                        .build());
+                        .backoff(backoff)
+                        .retryAfter(this::getRetryAfter)
+                        .predicate(e -> isRateLimited(e) || idempotent && isTransient(e) && retryBudget.tryWithdraw())
+                        .listener(events::retryScheduled)
+                        .build())
+                .doOnSubscribe(d -> retryBudget.deposit());
+        if (!events.isEnabled())
+            return response;
+        return Single.defer(() -> {
+            long start = events.startTimer();
+            return response.doOnError(e -> events.failed(e, start));
+        });
+    }
+
+    /**
+     * Send a single attempt of a request. GET requests that have not been answered within the hedge policy's delay
+     * are sent again if a rate limiter permit is available without waiting, and whichever response arrives first is
+     * used while the other request is cancelled. A hedge that fails or gets an error response is ignored
+     * @param request the request
+     * @param rateLimiter the rate limiter for the base the request is sent to
+     * @param events the events for the request
+     * @return a Single containing the first response
+     */
+    private Single<Response> send(Request request, RateLimiter rateLimiter, RequestEvents events) {
+        if (!hedgePolicy.isEnabled() || !"GET".equals(request.getMethod()))
+            return send(request, events);
+        long delay = hedgePolicy.getDelayNanos();
+        Single<Response> first = sendTimed(request, events);
+        if (delay < 0)
+            return first;
+        // error responses are checked before the race so a 429 or 5xx hedge cannot beat a successful first request
+        Single<Response> hedge = Single.timer(delay, TimeUnit.NANOSECONDS, hedgePolicy.getScheduler())
+                .flatMap(t -> rateLimiter.tryAcquire() ? sendTimed(request, events) : Single.<Response>never())
+                .flatMap(exceptionHandler::checkResponse)
+                .onErrorResumeWith(Single.never());
+        return Single.ambArray(first, hedge);
+    }
+
+    /**
+     * Send a single attempt of a request, recording its latency with the hedge policy if it succeeds or is cancelled
+     * @param request the request
+     * @param events the events for the request
+     * @return a Single containing the response
+     */
+    private Single<Response> sendTimed(Request request, RequestEvents events) {
+        return Single.defer(() -> {
+            long start = hedgePolicy.now();
+            AtomicBoolean ended = new AtomicBoolean();
+            return send(request, events)
+                    .doOnEvent((r, e) -> {
+                        if (ended.compareAndSet(false, true) && r != null && r.getStatusCode() == 200)
+                            hedgePolicy.record(hedgePolicy.now() - start);
+                    })
+                    .doOnDispose(() -> {
+                        if (ended.compareAndSet(false, true))
+                            hedgePolicy.record(hedgePolicy.now() - start);
+                    });
+        });
+    }
+
+    /**
+     * Send a single attempt of a request
+     * @param request the request
+     * @param events the events for the request
+     * @return a Single containing the response
+     */
+    private Single<Response> send(Request request, RequestEvents events) {
+        return Single.defer(() -> {
+            RequestEvents.Attempt attempt = events.startAttempt();
+            return ReactiveUtils.fromFuture(() -> httpClient.executeRequest(request))
+                    .doOnSuccess(attempt::responded)
+                    .doOnError(e -> attempt.ended())
+                    .doOnDispose(attempt::ended);
+        });
+    }
+
+    private Duration getRetryAfter(Throwable error) {
+        Duration retryAfter = error instanceof AirtableServerException ?
+                ((AirtableServerException) error).getRetryAfter() : null;
+        if (retryAfter != null)
+            return retryAfter;
+        return isRateLimited(error) ? rateLimitDelay : Duration.ZERO;
+    }
+
+    private static boolean isRateLimited(Throwable error) {
+        return error instanceof AirtableServerException && ((AirtableServerException) error).getStatusCode() == 429;
+    }
+
+    /**
+     * Check if an error is likely to succeed if retried, either a network error or a server error status code
+     * @param error the error
+     * @return if the error is transient
+     */
+    private static boolean isTransient(Throwable error) {
+        if (!(error instanceof AirtableServerException))
+            return false;
+        Throwable cause = error.getCause();
+        if (cause != null)
+            return cause instanceof IOException || cause instanceof TimeoutException;
+        int status = ((AirtableServerException) error).getStatusCode();
+        return status == 500 || status == 502 || status == 503 || status == 504;
+    }
+
+    /**
+     * Check if a request can be sent more than once without changing the result. Listing records with a POST to
+     * listRecords only reads records
+     * @param request the request
+     * @return if the request is idempotent
+     */
+    private static boolean isIdempotent(Request request) {
+        switch (request.getMethod()) {
+            case "GET":
+            case "HEAD":
+            case "DELETE":
+                return true;
+            case "POST":
+                return request.getUri().getPath().endsWith("/listRecords");
+            default:
+                return false;
+        }
     }
 }
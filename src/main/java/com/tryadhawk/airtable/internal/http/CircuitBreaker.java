@@ -0,0 +1,282 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.http;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+import com.tryadhawk.airtable.CircuitBreakerConfiguration;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker for the requests sent to a base. Outcomes are counted in a sliding window of 10 buckets, and the
+ * circuit opens once enough requests in the window have failed or been slow. Requests are rejected while the circuit is
+ * open. Once it has been open for a while, a few trial requests are let through to decide whether to close it again
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private static final CircuitBreaker DISABLED = new CircuitBreaker();
+    private static final int BUCKET_COUNT = 10;
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String baseId;
+    private final CircuitBreakerConfiguration config;
+    private final LongSupplier clock;
+    private final long bucketNanos;
+    private final long slowNanos;
+    private final long openNanos;
+    // window buckets, bucket i counts requests recorded while clock / bucketNanos == epochs[i]
+    private final long[] epochs = new long[BUCKET_COUNT];
+    private final int[] totals = new int[BUCKET_COUNT];
+    private final int[] failures = new int[BUCKET_COUNT];
+    private final int[] slows = new int[BUCKET_COUNT];
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialPermits;
+    private int trialSuccesses;
+
+    /**
+     * Create a new instance
+     * @param baseId the ID of the base the requests are sent to
+     * @param config the circuit breaker settings
+     */
+    public CircuitBreaker(String baseId, CircuitBreakerConfiguration config) {
+        this(baseId, config, System::nanoTime);
+    }
+
+    CircuitBreaker(String baseId, CircuitBreakerConfiguration config, LongSupplier clock) {
+        this.baseId = Objects.requireNonNull(baseId, "baseId cannot be null");
+        this.config = Objects.requireNonNull(config, "config cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        if (config.getMinimumRequests() < 1)
+            throw new IllegalArgumentException("minimumRequests must be greater than 0");
+        if (config.getHalfOpenRequests() < 1)
+            throw new IllegalArgumentException("halfOpenRequests must be greater than 0");
+        this.bucketNanos = Math.max(1, config.getWindow().toNanos() / BUCKET_COUNT);
+        this.slowNanos = config.getSlowRequestDuration().toNanos();
+        this.openNanos = config.getOpenDuration().toNanos();
+        clearWindow();
+    }
+
+    private CircuitBreaker() {
+        this.baseId = "";
+        this.config = null;
+        this.clock = () -> 0;
+        this.bucketNanos = 0;
+        this.slowNanos = 0;
+        this.openNanos = 0;
+    }
+
+    /**
+     * @return a CircuitBreaker that never opens
+     */
+    public static CircuitBreaker disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @return if the circuit breaker can open
+     */
+    public boolean isEnabled() {
+        return config != null;
+    }
+
+    /**
+     * @return if records cached by a table can be returned while the circuit is open
+     */
+    public boolean isFallbackToCache() {
+        return config != null && config.isFallbackToCache();
+    }
+
+    /**
+     * @return the current state
+     */
+    public synchronized State getState() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos)
+            return State.HALF_OPEN;
+        return state;
+    }
+
+    /**
+     * Get permission to send a request. The request's outcome must be recorded with the returned permit
+     * @return the permit for the request
+     * @throws AirtableCircuitOpenException if the circuit is open
+     */
+    Permit acquire() {
+        if (config == null)
+            return Permit.DISABLED;
+        Duration retryAfter = tryAcquire();
+        if (retryAfter != null)
+            throw new AirtableCircuitOpenException(baseId, retryAfter);
+        return new Permit(this);
+    }
+
+    /**
+     * @return null if the request is permitted, otherwise the time until trial requests are allowed
+     */
+    private synchronized Duration tryAcquire() {
+        long now = clock.getAsLong();
+        if (state == State.OPEN) {
+            long remaining = openNanos - (now - openedAt);
+            if (remaining > 0)
+                return Duration.ofNanos(remaining);
+            logger.info("Circuit breaker for base {} is half open, sending trial requests", baseId);
+            state = State.HALF_OPEN;
+            trialPermits = config.getHalfOpenRequests();
+            trialSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialPermits == 0)
+                return Duration.ZERO;
+            --trialPermits;
+        }
+        return null;
+    }
+
+    /**
+     * Return a trial permit for a request that ended without an outcome that should be counted
+     */
+    private synchronized void release() {
+        if (state == State.HALF_OPEN && trialPermits < config.getHalfOpenRequests())
+            ++trialPermits;
+    }
+
+    private synchronized void record(boolean failure, long start) {
+        long now = clock.getAsLong();
+        boolean slow = now - start >= slowNanos;
+        if (state == State.HALF_OPEN) {
+            if (failure || slow) {
+                open(now);
+            } else if (++trialSuccesses >= config.getHalfOpenRequests()) {
+                logger.info("Circuit breaker for base {} is closed", baseId);
+                state = State.CLOSED;
+                clearWindow();
+            }
+            return;
+        }
+        if (state == State.OPEN)
+            return;
+
+        long epoch = Math.floorDiv(now, bucketNanos);
+        int bucket = (int) Math.floorMod(epoch, (long) BUCKET_COUNT);
+        if (epochs[bucket] != epoch) {
+            epochs[bucket] = epoch;
+            totals[bucket] = 0;
+            failures[bucket] = 0;
+            slows[bucket] = 0;
+        }
+        ++totals[bucket];
+        if (failure)
+            ++failures[bucket];
+        if (slow)
+            ++slows[bucket];
+
+        int total = 0;
+        int failed = 0;
+        int slowed = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            if (epochs[i] > epoch - BUCKET_COUNT) {
+                total += totals[i];
+                failed += failures[i];
+                slowed += slows[i];
+            }
+        }
+        if (total >= config.getMinimumRequests() && (failed >= config.getFailureRateThreshold() * total ||
+                slowed >= config.getSlowRequestRateThreshold() * total))
+            open(now);
+    }
+
+    private void clearWindow() {
+        Arrays.fill(epochs, Long.MIN_VALUE);
+        Arrays.fill(totals, 0);
+        Arrays.fill(failures, 0);
+        Arrays.fill(slows, 0);
+    }
+
+    private void open(long now) {
+        logger.warn("Circuit breaker for base {} is open, failing requests for {}", baseId, config.getOpenDuration());
+        state = State.OPEN;
+        openedAt = now;
+    }
+
+    /**
+     * Permission to send a single request. Only the first outcome recorded is counted
+     */
+    static class Permit {
+
+        private static final Permit DISABLED = new Permit(null);
+
+        private final CircuitBreaker circuitBreaker;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private volatile long start;
+
+        private Permit(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            if (circuitBreaker != null)
+                this.start = circuitBreaker.clock.getAsLong();
+        }
+
+        /**
+         * Start timing the request, called when it is sent after any delay for a rate limit
+         */
+        void sent() {
+            if (circuitBreaker != null)
+                start = circuitBreaker.clock.getAsLong();
+        }
+
+        /**
+         * Record a response. 5xx status codes are failures, 429 is not counted, and all others are successes
+         * @param statusCode the response status code
+         */
+        void responded(int statusCode) {
+            if (statusCode == 429)
+                cancelled();
+            else if (circuitBreaker != null && ended.compareAndSet(false, true))
+                circuitBreaker.record(statusCode >= 500, start);
+        }
+
+        /**
+         * Record a request that failed without a response
+         */
+        void failed() {
+            if (circuitBreaker != null && ended.compareAndSet(false, true))
+                circuitBreaker.record(true, start);
+        }
+
+        /**
+         * Record a request that ended without an outcome that should be counted, such as when it was cancelled
+         */
+        void cancelled() {
+            if (circuitBreaker != null && ended.compareAndSet(false, true))
+                circuitBreaker.release();
+        }
+    }
+}
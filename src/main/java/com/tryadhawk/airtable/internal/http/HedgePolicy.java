@@ -0,0 +1,142 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import com.tryadhawk.airtable.internal.stats.LatencyHistogram;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+
+/**
+ * Decides when to send a second, hedged copy of a read that has not been answered. The delay is a percentile of the
+ * latencies recorded for recent reads, recalculated every 10 seconds, so only reads slower than most are hedged. No
+ * reads are hedged until enough latencies have been recorded
+ */
+public class HedgePolicy {
+
+    private static final HedgePolicy DISABLED = new HedgePolicy();
+    /* Min number of latencies recorded before the delay is calculated */
+    private static final int MIN_SAMPLES = 20;
+    private static final long REFRESH_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    private final double percentile;
+    private final long minDelayNanos;
+    private final LongSupplier clock;
+    private final Scheduler scheduler;
+    private final LatencyHistogram latencies = new LatencyHistogram();
+    // clock nanos after which the delay is next recalculated
+    private final AtomicLong nextRefresh;
+    // -1 until enough latencies have been recorded
+    private volatile long delayNanos = -1;
+
+    /**
+     * Create a new instance
+     * @param percentile the percentile of recent latencies to wait before hedging, from 0 to 100
+     * @param minDelay the min time to wait before hedging
+     * @param unit the unit for {@code minDelay}
+     */
+    public HedgePolicy(double percentile, long minDelay, TimeUnit unit) {
+        this(percentile, minDelay, unit, System::nanoTime, Schedulers.computation());
+    }
+
+    HedgePolicy(double percentile, long minDelay, TimeUnit unit, LongSupplier clock, Scheduler scheduler) {
+        if (percentile <= 0 || percentile > 100)
+            throw new IllegalArgumentException("percentile must be greater than 0 and at most 100");
+        if (minDelay < 0)
+            throw new IllegalArgumentException("minDelay cannot be negative");
+        this.percentile = percentile;
+        this.minDelayNanos = unit.toNanos(minDelay);
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+        this.nextRefresh = new AtomicLong(clock.getAsLong());
+    }
+
+    private HedgePolicy() {
+        this.percentile = 0;
+        this.minDelayNanos = 0;
+        this.clock = () -> 0;
+        this.scheduler = Schedulers.computation();
+        this.nextRefresh = new AtomicLong();
+    }
+
+    /**
+     * @return a HedgePolicy that never hedges
+     */
+    public static HedgePolicy disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @return if reads can be hedged
+     */
+    public boolean isEnabled() {
+        return this != DISABLED;
+    }
+
+    /**
+     * @return the scheduler to wait for the delay on
+     */
+    Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * @return the current time, in clock nanos
+     */
+    long now() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Record the latency of a read. Reads cancelled because a hedge answered first are recorded with the time they
+     * had taken so far, so the slowest reads still raise the delay
+     * @param nanos the latency
+     */
+    void record(long nanos) {
+        if (!isEnabled())
+            return;
+        latencies.record(nanos);
+        refresh();
+    }
+
+    /**
+     * @return the time to wait for a read before hedging it, or -1 if reads should not be hedged yet
+     */
+    long getDelayNanos() {
+        if (!isEnabled())
+            return -1;
+        refresh();
+        return delayNanos;
+    }
+
+    private void refresh() {
+        long now = clock.getAsLong();
+        long next = nextRefresh.get();
+        if (now - next < 0 || !nextRefresh.compareAndSet(next, now + REFRESH_NANOS))
+            return;
+        // keep collecting until there are enough latencies for the percentile to be meaningful
+        if (latencies.snapshot(false).getCount() < MIN_SAMPLES)
+            return;
+        LatencyHistogram.Snapshot snapshot = latencies.snapshot(true);
+        delayNanos = Math.max(minDelayNanos, snapshot.getValueAtPercentile(percentile));
+    }
+}
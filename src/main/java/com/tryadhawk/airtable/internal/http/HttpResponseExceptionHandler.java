@@ -19,6 +19,12 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.io.InputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Objects;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tryadhawk.airtable.exception.AirtableServerException;
@@ -37,9 +43,15 @@ public class HttpResponseExceptionHandler {
     private static final Logger logger = LoggerFactory.getLogger(HttpResponseExceptionHandler.class);
 
     private final ObjectMapper objectMapper;
+    private final Clock clock;
 
     public HttpResponseExceptionHandler(ObjectMapper objectMapper) {
+        this(objectMapper, Clock.systemUTC());
+    }
+
+    HttpResponseExceptionHandler(ObjectMapper objectMapper, Clock clock) {
         this.objectMapper = Objects.requireNonNull(objectMapper, "objectMapper cannot be null");
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
     }
 
     /**
@@ -79,7 +91,31 @@ public class HttpResponseExceptionHandler {
         int status = response.getStatusCode();
         String statusText = response.getStatusText();
         Error err = extractError(response);
-        return new AirtableServerException(status, statusText, err);
+        return new AirtableServerException(status, statusText, err, parseRetryAfter(response), null);
+    }
+
+    /**
+     * Parse the Retry-After header of a response, either a number of seconds or an HTTP date
+     * @param response the response
+     * @return the time to wait before retrying or null if the header is missing or invalid
+     */
+    private Duration parseRetryAfter(Response response) {
+        String retryAfter = response.getHeader("Retry-After");
+        if (retryAfter == null || retryAfter.trim().isEmpty())
+            return null;
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(retryAfter.trim())));
+        } catch (NumberFormatException e) {
+            // not a number of seconds, try a date
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(retryAfter.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+            Duration wait = Duration.between(clock.instant(), date.toInstant());
+            return wait.isNegative() ? Duration.ZERO : wait;
+        } catch (DateTimeParseException e) {
+            logger.debug("Ignoring invalid Retry-After header: {}", retryAfter);
+            return null;
+        }
     }
 
     /**
@@ -90,11 +126,11 @@ public class HttpResponseExceptionHandler {
      */
     private Error extractError(Response response) {
         Error err;
-        String body = response.getResponseBody();
-        try {
+        try (InputStream body = response.getResponseBodyAsStream()) {
             ErrorWrapper wrapper = objectMapper.readValue(body, ErrorWrapper.class);
             err = wrapper.getError();
         } catch (Exception e) {
+            String body = response.getResponseBody();
             logger.warn("Failed to parse response body to error, body: {}", body, e);
             err = new Error("UNDEFINED_ERROR", body);
         }
@@ -19,76 +19,152 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.util.ArrayList;
 import java.util.List;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.tryadhawk.airtable.Query;
 import com.tryadhawk.airtable.Sort;
+import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.v0.ListRecords;
+import org.asynchttpclient.Param;
 import org.asynchttpclient.RequestBuilder;
+import org.asynchttpclient.util.Utf8UrlEncoder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Builds a {@link RequestBuilder} for a {@link Query}
+ * Builds a {@link RequestBuilder} for a {@link Query}. Queries are sent as a GET with query params unless the URL
+ * would be too long for Airtable to accept, in which case they are sent as a POST to the table's {@code listRecords}
+ * endpoint with the same params in a JSON body. Both return the same pages, so the two are interchangeable
  */
 public class QueryRequestBuilder {
 
     private static final Logger logger = LoggerFactory.getLogger(QueryRequestBuilder.class);
 
+    /* Max URL length Airtable accepts for a GET request */
+    static final int MAX_URL_LENGTH = 16_000;
+    /* Max number of records per page Airtable returns */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final ObjectWriter listRecordsWriter = new ObjectMapper().writerFor(ListRecords.class);
+
     /**
-     * Create a {@link RequestBuilder} initialized with the URL, method, and query params for a {@link Query}
+     * Create a {@link RequestBuilder} initialized with the URL, method, and params for a {@link Query}
      * @param query the Query
      * @param tableUrl the table endpoint URL
      * @return the RequestBuilder
+     * @throws AirtableMappingException if the query is too long for a URL and cannot be mapped to JSON
      */
     public RequestBuilder buildRequestForQuery(Query query, String tableUrl) {
-        RequestBuilder request = new RequestBuilder("GET")
-                .setUrl(tableUrl);
-
+        Integer pageSize = query.getPageSize() == null ? null : getPageSize(query.getPageSize());
+        List<Param> params = new ArrayList<>();
         if (query.getFields() != null) {
             for (String field : query.getFields())
-                request.addQueryParam("fields[]", field);
+                params.add(new Param("fields[]", field));
         }
         if (query.getMaxRecords() != null)
-            request.addQueryParam("maxRecords", query.getMaxRecords().toString());
+            params.add(new Param("maxRecords", query.getMaxRecords().toString()));
         if (query.getView() != null)
-            request.addQueryParam("view", query.getView());
+            params.add(new Param("view", query.getView()));
         if (query.getFilterByFormula() != null)
-            request.addQueryParam("filterByFormula", query.getFilterByFormula());
-        if (query.getPageSize() != null)
-            handlePageSize(query.getPageSize(), request);
+            params.add(new Param("filterByFormula", query.getFilterByFormula()));
+        if (pageSize != null)
+            params.add(new Param("pageSize", pageSize.toString()));
         if (query.getSorts() != null)
-            handleSorting(query.getSorts(), request);
+            handleSorting(query.getSorts(), params);
         if (query.getOffset()!= null)
-            request.addQueryParam("offset", query.getOffset());
+            params.add(new Param("offset", query.getOffset()));
+
+        int urlLength = getUrlLength(tableUrl, params);
+        if (urlLength > MAX_URL_LENGTH) {
+            logger.debug("Query URL is {} characters, sending query as a POST instead", urlLength);
+            return buildPostRequestForQuery(query, pageSize, tableUrl);
+        }
 
+        RequestBuilder request = new RequestBuilder("GET")
+                .setUrl(tableUrl)
+                .setQueryParams(params);
         logger.debug("Built query request: {}", request);
 
         return request;
     }
 
     /**
-     * Add sorting query parameters to a RequestBuilder
+     * Get the length of a URL with query params, encoded the same way as the request encodes them
+     * @param url the URL without query params
+     * @param params the query params
+     * @return the length of the URL
+     */
+    static int getUrlLength(String url, List<Param> params) {
+        int length = url.length();
+        for (Param param : params) {
+            // the leading ? or & and the =
+            length += 2 + Utf8UrlEncoder.encodeQueryElement(param.getName()).length();
+            if (param.getValue() != null)
+                length += Utf8UrlEncoder.encodeQueryElement(param.getValue()).length();
+        }
+        return length;
+    }
+
+    /**
+     * Create a {@link RequestBuilder} for a POST listRecords request for a {@link Query}
+     * @param query the Query
+     * @param pageSize the page size to request, already limited to the max Airtable allows
+     * @param tableUrl the table endpoint URL
+     * @return the RequestBuilder
+     */
+    private RequestBuilder buildPostRequestForQuery(Query query, Integer pageSize, String tableUrl) {
+        ListRecords body = new ListRecords();
+        if (query.getFields() != null && !query.getFields().isEmpty())
+            body.setFields(query.getFields());
+        body.setMaxRecords(query.getMaxRecords());
+        body.setView(query.getView());
+        body.setFilterByFormula(query.getFilterByFormula());
+        body.setPageSize(pageSize);
+        if (query.getSorts() != null && !query.getSorts().isEmpty()) {
+            List<ListRecords.Sort> sorts = new ArrayList<>();
+            for (Sort sort : query.getSorts())
+                sorts.add(new ListRecords.Sort(sort.getField(), sort.getDirection().toString()));
+            body.setSort(sorts);
+        }
+        body.setOffset(query.getOffset());
+
+        try {
+            return new RequestBuilder("POST")
+                    .setUrl(tableUrl + "/listRecords")
+                    .setHeader("Content-Type", MimeType.APPLICATION_JSON)
+                    .setBody(listRecordsWriter.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new AirtableMappingException("Failed to map query to JSON", e);
+        }
+    }
+
+    /**
+     * Add sorting query parameters
      * @param sorting the list of sorting parameters
-     * @param request the RequestBuilder
+     * @param params the query parameters
      */
-    private void handleSorting(List<Sort> sorting, RequestBuilder request) {
+    private void handleSorting(List<Sort> sorting, List<Param> params) {
         int i = 0;
         for (Sort sort : sorting) {
-            request.addQueryParam("sort[" + i + "][field]", sort.getField());
-            request.addQueryParam("sort[" + i + "][direction]", sort.getDirection().toString());
+            params.add(new Param("sort[" + i + "][field]", sort.getField()));
+            params.add(new Param("sort[" + i + "][direction]", sort.getDirection().toString()));
             ++i;
         }
     }
 
     /**
-     * Add a page size query parameter to a RequestBuilder
+     * Limit a page size to the max Airtable allows
      * @param pageSize the page size
-     * @param request the RequestBuilder
+     * @return the page size to request
      */
-    private void handlePageSize(int pageSize, RequestBuilder request) {
-        if (pageSize > 100) {
-            logger.warn("Using max pageSize of 100 instead of {}", pageSize);
-            pageSize = 100;
+    private int getPageSize(int pageSize) {
+        if (pageSize > MAX_PAGE_SIZE) {
+            logger.warn("Using max pageSize of {} instead of {}", MAX_PAGE_SIZE, pageSize);
+            return MAX_PAGE_SIZE;
         }
-        request.addQueryParam("pageSize", Integer.toString(pageSize));
+        return pageSize;
     }
 }
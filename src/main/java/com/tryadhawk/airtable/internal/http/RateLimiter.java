@@ -0,0 +1,143 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import io.reactivex.rxjava3.core.Completable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Token bucket rate limiter for requests to Airtable. Permits are handed out at a fixed rate with bursts of up to
+ * {@code burst} permits allowed when the limiter has been idle. Callers that exceed the rate are delayed on a
+ * {@link Scheduler} instead of blocking a thread, and are served in the order they acquired their permit
+ */
+public class RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimiter.class);
+
+    private static final RateLimiter UNLIMITED = new RateLimiter();
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier clock;
+    private final Scheduler scheduler;
+    // theoretical arrival time of the next permit, in clock nanos
+    private final AtomicLong nextPermit;
+
+    /**
+     * Create a new instance
+     * @param permitsPerSecond the number of permits handed out each second
+     * @param burst the maximum number of permits that can be handed out at once after the limiter has been idle
+     */
+    public RateLimiter(int permitsPerSecond, int burst) {
+        this(permitsPerSecond, burst, System::nanoTime, Schedulers.computation());
+    }
+
+    RateLimiter(int permitsPerSecond, int burst, LongSupplier clock, Scheduler scheduler) {
+        if (permitsPerSecond < 1)
+            throw new IllegalArgumentException("permitsPerSecond must be greater than 0");
+        if (burst < 1)
+            throw new IllegalArgumentException("burst must be greater than 0");
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstNanos = intervalNanos * (burst - 1);
+        this.clock = Objects.requireNonNull(clock, "clock cannot be null");
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+        this.nextPermit = new AtomicLong(clock.getAsLong());
+    }
+
+    private RateLimiter() {
+        this.intervalNanos = 0;
+        this.burstNanos = 0;
+        this.clock = () -> 0;
+        this.scheduler = Schedulers.computation();
+        this.nextPermit = new AtomicLong();
+    }
+
+    /**
+     * @return a RateLimiter that never delays requests
+     */
+    public static RateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Acquire a permit. The permit is reserved when the returned Completable is subscribed to
+     * @return a Completable that completes once the permit is available
+     */
+    public Completable acquire() {
+        return acquire(wait -> { });
+    }
+
+    /**
+     * Acquire a permit. The permit is reserved when the returned Completable is subscribed to
+     * @param onDelay called with the delay in nanoseconds if the permit is not available immediately
+     * @return a Completable that completes once the permit is available
+     */
+    public Completable acquire(LongConsumer onDelay) {
+        return Completable.defer(() -> {
+            long wait = reserve();
+            if (wait == 0)
+                return Completable.complete();
+            logger.debug("Rate limit reached, delaying request by {}ns", wait);
+            onDelay.accept(wait);
+            return Completable.timer(wait, TimeUnit.NANOSECONDS, scheduler);
+        });
+    }
+
+    /**
+     * Take a permit only if one is available without waiting
+     * @return if a permit was taken
+     */
+    boolean tryAcquire() {
+        if (intervalNanos == 0)
+            return true;
+        long now = clock.getAsLong();
+        long current;
+        do {
+            current = nextPermit.get();
+            if (current - burstNanos - now > 0)
+                return false;
+        } while (!nextPermit.compareAndSet(current, Math.max(current, now) + intervalNanos));
+        return true;
+    }
+
+    /**
+     * Reserve the next available permit
+     * @return the number of nanoseconds to wait before the permit can be used
+     */
+    long reserve() {
+        if (intervalNanos == 0)
+            return 0;
+        long now = clock.getAsLong();
+        long next;
+        long current;
+        do {
+            current = nextPermit.get();
+            next = Math.max(current, now) + intervalNanos;
+        } while (!nextPermit.compareAndSet(current, next));
+        return Math.max(0, current - burstNanos - now);
+    }
+}
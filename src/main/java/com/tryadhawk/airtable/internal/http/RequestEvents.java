@@ -0,0 +1,202 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import com.tryadhawk.airtable.AirtableEventListener;
+import com.tryadhawk.airtable.RequestContext;
+import org.asynchttpclient.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends the events for a single request to an {@link AirtableEventListener}, isolating the request from exceptions
+ * thrown by the listener. The disabled instance skips all work, including measuring response sizes
+ */
+public class RequestEvents {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestEvents.class);
+
+    private static final RequestEvents DISABLED = new RequestEvents();
+
+    private final AirtableEventListener listener;
+    private final RequestContext context;
+
+    /**
+     * Create a new instance
+     * @param listener the listener to send events to
+     * @param context the request the events are for
+     */
+    public RequestEvents(AirtableEventListener listener, RequestContext context) {
+        this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+        this.context = Objects.requireNonNull(context, "context cannot be null");
+    }
+
+    private RequestEvents() {
+        this.listener = null;
+        this.context = null;
+    }
+
+    /**
+     * @return a RequestEvents that does not send any events
+     */
+    public static RequestEvents disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * @return if events are sent to a listener
+     */
+    public boolean isEnabled() {
+        return listener != null;
+    }
+
+    /**
+     * @return the time to measure durations from, 0 if events are disabled
+     */
+    public long startTimer() {
+        return listener == null ? 0 : System.nanoTime();
+    }
+
+    /**
+     * Send the event for the start of an attempt
+     * @return the attempt, which sends exactly one response event when it ends
+     */
+    Attempt startAttempt() {
+        if (listener == null)
+            return Attempt.DISABLED;
+        try {
+            listener.onRequestStart(context);
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+        return new Attempt(this, System.nanoTime());
+    }
+
+    private void responded(Response response, long start) {
+        try {
+            if (response == null)
+                listener.onResponse(context, 0, System.nanoTime() - start, 0);
+            else
+                listener.onResponse(context, response.getStatusCode(), System.nanoTime() - start, getSize(response));
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+    }
+
+    void retryScheduled(int retry, long delayNanos, Throwable error) {
+        if (listener == null)
+            return;
+        try {
+            listener.onRetryScheduled(context, retry, delayNanos, error);
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+    }
+
+    void rateLimited(long delayNanos) {
+        if (listener == null)
+            return;
+        try {
+            listener.onRateLimited(context, delayNanos);
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+    }
+
+    /**
+     * Send the event for a mapped response body
+     * @param records the number of records in the response
+     * @param start the time returned by {@link #startTimer()} before mapping started
+     */
+    public void parsed(int records, long start) {
+        if (listener == null)
+            return;
+        try {
+            listener.onParseCompleted(context, records, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+    }
+
+    /**
+     * Send the event for a failed request
+     * @param error the error
+     * @param start the time returned by {@link #startTimer()} when the request started
+     */
+    public void failed(Throwable error, long start) {
+        if (listener == null)
+            return;
+        try {
+            listener.onError(context, error, System.nanoTime() - start);
+        } catch (RuntimeException e) {
+            logger.warn("Event listener failed", e);
+        }
+    }
+
+    /**
+     * A single attempt to send a request
+     */
+    static class Attempt {
+
+        private static final Attempt DISABLED = new Attempt(null, 0);
+
+        private final RequestEvents events;
+        private final long start;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Attempt(RequestEvents events, long start) {
+            this.events = events;
+            this.start = start;
+        }
+
+        /**
+         * End the attempt with a response
+         * @param response the response
+         */
+        void responded(Response response) {
+            if (events != null && ended.compareAndSet(false, true))
+                events.responded(response, start);
+        }
+
+        /**
+         * End the attempt without a response, because it failed or was cancelled
+         */
+        void ended() {
+            responded(null);
+        }
+    }
+
+    /**
+     * @return the size of the response body from the Content-Length header, or -1 if the response has a body of
+     * unknown size. The body is not measured, since that would copy it
+     */
+    private static long getSize(Response response) {
+        String length = response.getHeader("Content-Length");
+        if (length != null) {
+            try {
+                return Long.parseLong(length.trim());
+            } catch (NumberFormatException e) {
+                // fall through, the size is unknown
+            }
+        }
+        return response.hasResponseBody() ? -1 : 0;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits retries of failed requests to a fraction of all requests, so a degraded API is not sent more load by
+ * retries. Each request deposits {@code ratio} of a retry into the budget and each retry withdraws a whole one. The
+ * budget holds at most {@code minRetries} retries, or one if it is 0, and starts full so that occasional failures can
+ * always be retried
+ */
+public class RetryBudget {
+
+    private static final RetryBudget UNLIMITED = new RetryBudget();
+
+    /* budget balances are kept in thousandths of a retry */
+    private static final long SCALE = 1000;
+
+    private final long deposit;
+    private final long capacity;
+    private final AtomicLong balance;
+
+    /**
+     * Create a new instance
+     * @param ratio the max number of retries for each request over time, from 0 to 1
+     * @param minRetries the number of retries allowed regardless of the ratio
+     */
+    public RetryBudget(double ratio, int minRetries) {
+        if (ratio < 0 || ratio > 1)
+            throw new IllegalArgumentException("ratio must be between 0 and 1");
+        if (minRetries < 0)
+            throw new IllegalArgumentException("minRetries cannot be negative");
+        this.deposit = Math.round(ratio * SCALE);
+        this.capacity = Math.max(SCALE, minRetries * SCALE);
+        this.balance = new AtomicLong(minRetries * SCALE);
+    }
+
+    private RetryBudget() {
+        this.deposit = 0;
+        this.capacity = 0;
+        this.balance = null;
+    }
+
+    /**
+     * @return a RetryBudget that allows every retry
+     */
+    public static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * Record a request, adding to the budget
+     */
+    void deposit() {
+        if (balance == null || deposit == 0)
+            return;
+        long current;
+        do {
+            current = balance.get();
+            if (current >= capacity)
+                return;
+        } while (!balance.compareAndSet(current, Math.min(capacity, current + deposit)));
+    }
+
+    /**
+     * Take a retry from the budget
+     * @return if the budget allowed the retry
+     */
+    boolean tryWithdraw() {
+        if (balance == null)
+            return true;
+        long current;
+        do {
+            current = balance.get();
+            if (current < SCALE)
+                return false;
+        } while (!balance.compareAndSet(current, current - SCALE));
+        return true;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+
+/**
+ * Finds the Airtable fields a type binds, so queries can request only those fields instead of every field in the table
+ */
+public final class FieldProjection {
+
+    private FieldProjection() { }
+
+    /**
+     * Find the names of the JSON properties an {@link ObjectMapper} binds when mapping to a type. Names set with
+     * {@code @JsonProperty} are used and ignored properties are left out
+     * @param type the type
+     * @param objectMapper the mapper
+     * @return the property names, or an empty list if the type can bind any property, such as a {@link java.util.Map},
+     * a {@link JsonNode}, or a bean with a {@code @JsonAnySetter}
+     */
+    public static List<String> findFields(Class<?> type, ObjectMapper objectMapper) {
+        JavaType javaType = objectMapper.constructType(type);
+        if (javaType.isContainerType() || javaType.isJavaLangObject() || JsonNode.class.isAssignableFrom(type))
+            return Collections.emptyList();
+        BeanDescription description = objectMapper.getDeserializationConfig().introspect(javaType);
+        if (description.findAnySetterAccessor() != null)
+            return Collections.emptyList();
+        List<String> fields = new ArrayList<>();
+        for (BeanPropertyDefinition property : description.findProperties()) {
+            if (property.couldDeserialize())
+                fields.add(property.getName());
+        }
+        return Collections.unmodifiableList(fields);
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Objects;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordPage;
+
+/**
+ * Incrementally parses the JSON of a {@link RecordPage}, binding one {@link Record} at a time from the
+ * {@code records} array instead of binding the whole page at once. The page's {@code offset} is available once all
+ * records have been read
+ * @param <T> the type row data is mapped to
+ */
+public class RecordStreamParser<T> implements Closeable {
+
+    private final JsonParser parser;
+    private final ObjectReader recordReader;
+    private boolean inRecords = false;
+    private boolean done = false;
+    private String offset;
+
+    /**
+     * Create a new instance
+     * @param body the JSON of the page
+     * @param recordReader the reader used to bind each {@link Record}
+     * @throws AirtableMappingException if the body is not a JSON object
+     */
+    public RecordStreamParser(InputStream body, ObjectReader recordReader) {
+        this.recordReader = Objects.requireNonNull(recordReader, "recordReader cannot be null");
+        try {
+            this.parser = recordReader.getFactory().createParser(body);
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.close();
+                throw new AirtableMappingException("Failed to map data to JSON, expected a JSON object");
+            }
+        } catch (IOException e) {
+            throw new AirtableMappingException("Failed to map data to JSON", e);
+        }
+    }
+
+    /**
+     * Read the next record in the page
+     * @return the next record or null if there are no more records
+     * @throws AirtableMappingException if unable to parse the JSON
+     */
+    public Record<T> next() {
+        try {
+            while (!done) {
+                if (inRecords) {
+                    JsonToken token = parser.nextToken();
+                    if (token == JsonToken.START_OBJECT)
+                        return recordReader.readValue(parser);
+                    if (token != JsonToken.END_ARRAY)
+                        throw new AirtableMappingException("Failed to map data to JSON, unexpected token " + token);
+                    inRecords = false;
+                } else {
+                    readField();
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new AirtableMappingException("Failed to map data to JSON", e);
+        }
+    }
+
+    /**
+     * @return the offset of the next page or null if this is the last page or if the page has not been fully read
+     */
+    public String getOffset() {
+        return offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    /**
+     * Read the next top level field of the page, stopping at the start of the records array
+     * @throws IOException if unable to parse the JSON
+     */
+    private void readField() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_OBJECT || token == null) {
+            done = true;
+            return;
+        }
+        String name = parser.getCurrentName();
+        token = parser.nextToken();
+        if ("records".equals(name) && token == JsonToken.START_ARRAY)
+            inRecords = true;
+        else if ("offset".equals(name) && token == JsonToken.VALUE_STRING)
+            offset = parser.getText();
+        else
+            parser.skipChildren();
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy for the delay between retries. Delays are random so that clients failing at the same time do not all retry at
+ * the same time
+ */
+public class Backoff {
+
+    private final long baseNanos;
+    private final long capNanos;
+    private final boolean decorrelated;
+
+    private Backoff(long baseNanos, long capNanos, boolean decorrelated) {
+        if (baseNanos < 1)
+            throw new IllegalArgumentException("base delay must be greater than 0");
+        if (capNanos < baseNanos)
+            throw new IllegalArgumentException("max delay cannot be less than the base delay");
+        this.baseNanos = baseNanos;
+        this.capNanos = capNanos;
+        this.decorrelated = decorrelated;
+    }
+
+    /**
+     * Wait a random time between {@code min} and {@code max} before every retry
+     * @param min the min delay
+     * @param max the max delay, must be at least {@code min}
+     * @param unit the unit of {@code min} and {@code max}
+     * @return the policy
+     */
+    public static Backoff uniform(long min, long max, TimeUnit unit) {
+        return new Backoff(unit.toNanos(min), unit.toNanos(max), false);
+    }
+
+    /**
+     * Capped exponential backoff with decorrelated jitter. Each delay is a random time between {@code base} and three
+     * times the previous delay, capped at {@code cap}, so delays grow quickly while staying spread out
+     * @param base the min delay and the delay the first retry is based on
+     * @param cap the max delay, must be at least {@code base}
+     * @param unit the unit of {@code base} and {@code cap}
+     * @return the policy
+     */
+    public static Backoff decorrelatedJitter(long base, long cap, TimeUnit unit) {
+        return new Backoff(unit.toNanos(base), unit.toNanos(cap), true);
+    }
+
+    /**
+     * @param previousNanos the previous delay, 0 before the first retry
+     * @return the delay before the next retry
+     */
+    long nextDelayNanos(long previousNanos) {
+        long max = decorrelated ? Math.min(capNanos, Math.max(baseNanos, previousNanos) * 3) : capNanos;
+        return randomBetween(baseNanos, max);
+    }
+
+    /**
+     * @return a random delay to add to a delay requested by the server, between 0 and the base delay
+     */
+    long jitterNanos() {
+        return randomBetween(0, baseNanos);
+    }
+
+    private static long randomBetween(long min, long max) {
+        return min >= max ? min : ThreadLocalRandom.current().nextLong(min, max + 1);
+    }
+}
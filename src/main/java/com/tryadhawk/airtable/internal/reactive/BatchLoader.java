@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Scheduler;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.core.SingleEmitter;
+import io.reactivex.rxjava3.schedulers.Schedulers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects individual loads by key and serves them with a single batch load. Keys are collected from the first load
+ * until either the window has elapsed or the max number of distinct keys has been reached, then loaded together and
+ * the results are handed back to each load by key
+ * @param <K> the type of the keys
+ * @param <V> the type of the loaded values
+ */
+public class BatchLoader<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchLoader.class);
+
+    private final Function<List<K>, Flowable<V>> loader;
+    private final Function<V, K> keyMapper;
+    private final Function<K, Throwable> notFound;
+    private final long window;
+    private final TimeUnit unit;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+    private final Object lock = new Object();
+    // emitters waiting on each key in the current batch, in the order the keys were first loaded
+    private Map<K, List<SingleEmitter<V>>> pending = new LinkedHashMap<>();
+
+    /**
+     * Create a new instance
+     * @param loader loads the values for a batch of distinct keys
+     * @param keyMapper gets the key of a loaded value
+     * @param notFound creates the error for a key that had no value in the batch results
+     * @param window how long to collect keys after the first load before loading the batch
+     * @param unit the unit of {@code window}
+     * @param maxBatchSize the max number of distinct keys in a batch
+     */
+    public BatchLoader(Function<List<K>, Flowable<V>> loader, Function<V, K> keyMapper,
+                       Function<K, Throwable> notFound, long window, TimeUnit unit, int maxBatchSize) {
+        this(loader, keyMapper, notFound, window, unit, maxBatchSize, Schedulers.computation());
+    }
+
+    BatchLoader(Function<List<K>, Flowable<V>> loader, Function<V, K> keyMapper, Function<K, Throwable> notFound,
+                long window, TimeUnit unit, int maxBatchSize, Scheduler scheduler) {
+        if (maxBatchSize < 1)
+            throw new IllegalArgumentException("maxBatchSize must be greater than 0");
+        this.loader = Objects.requireNonNull(loader, "loader cannot be null");
+        this.keyMapper = Objects.requireNonNull(keyMapper, "keyMapper cannot be null");
+        this.notFound = Objects.requireNonNull(notFound, "notFound cannot be null");
+        this.window = window;
+        this.unit = Objects.requireNonNull(unit, "unit cannot be null");
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = Objects.requireNonNull(scheduler, "scheduler cannot be null");
+    }
+
+    /**
+     * Load the value for a key as part of the next batch. The key is added to the batch when the returned Single is
+     * subscribed to
+     * @param key the key
+     * @return a Single containing the value for the key or an error if the batch failed or had no value for the key
+     */
+    public Single<V> load(K key) {
+        return Single.create(emitter -> add(key, emitter));
+    }
+
+    /**
+     * Add a load to the current batch, starting the window if it is the first load or dispatching the batch if it is
+     * full
+     * @param key the key
+     * @param emitter the emitter waiting on the value for the key
+     */
+    private void add(K key, SingleEmitter<V> emitter) {
+        Map<K, List<SingleEmitter<V>>> full = null;
+        synchronized (lock) {
+            pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(emitter);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = new LinkedHashMap<>();
+            } else if (pending.size() == 1 && pending.get(key).size() == 1) {
+                Map<K, List<SingleEmitter<V>>> batch = pending;
+                scheduler.scheduleDirect(() -> flush(batch), window, unit);
+            }
+        }
+        if (full != null)
+            dispatch(full);
+    }
+
+    /**
+     * Dispatch a batch once its window has elapsed
+     * @param batch the batch the window was started for
+     */
+    private void flush(Map<K, List<SingleEmitter<V>>> batch) {
+        synchronized (lock) {
+            // the batch may have already been dispatched because it was full, the current batch has its own window
+            if (pending != batch)
+                return;
+            pending = new LinkedHashMap<>();
+        }
+        dispatch(batch);
+    }
+
+    /**
+     * Load a batch and complete each pending load with the value for its key
+     * @param batch the emitters waiting on each key
+     */
+    private void dispatch(Map<K, List<SingleEmitter<V>>> batch) {
+        logger.debug("Loading batch of {} keys", batch.size());
+        Flowable.defer(() -> loader.apply(new ArrayList<>(batch.keySet())))
+                .toMap(keyMapper::apply)
+                .subscribe(values -> complete(batch, values), e -> {
+                    for (List<SingleEmitter<V>> emitters : batch.values())
+                        emitters.forEach(emitter -> emitter.tryOnError(e));
+                });
+    }
+
+    /**
+     * Complete each pending load in a batch with the value for its key
+     * @param batch the emitters waiting on each key
+     * @param values the loaded values by key
+     */
+    private void complete(Map<K, List<SingleEmitter<V>>> batch, Map<K, V> values) {
+        batch.forEach((key, emitters) -> {
+            V value = values.get(key);
+            for (SingleEmitter<V> emitter : emitters) {
+                if (value != null)
+                    emitter.onSuccess(value);
+                else
+                    emitter.tryOnError(notFound.apply(key));
+            }
+        });
+    }
+}
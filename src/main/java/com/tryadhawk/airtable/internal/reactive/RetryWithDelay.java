@@ -19,11 +19,11 @@
 
 package com.tryadhawk.airtable.internal.reactive;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
 import io.reactivex.rxjava3.core.Flowable;
@@ -33,8 +33,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Class for retrying a reactive operation until it succeeds while waiting a random amount of time (between waitMin and
- * waitMax seconds) between attempts
+ * Class for retrying a reactive operation until it succeeds while waiting a random amount of time between attempts, as
+ * set by a {@link Backoff}. A delay requested by the error, such as from a Retry-After header, is used instead of the
+ * backoff when present
  */
 public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?>> {
 
@@ -43,25 +44,27 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
     private static final List<Predicate<Throwable>> DEFAULT_PREDICATES = Collections.singletonList(
             new ExceptionRetryPredicate(Exception.class));
 
-    private final int waitMin;
-    private final int waitMax;
+    private final Backoff backoff;
     private final int maxTries;
     private final List<Predicate<Throwable>> retryPredicates;
+    private final Function<Throwable, Duration> retryAfter;
+    private final RetryListener listener;
 
     /**
      * Create a new instance
      * @param maxTries the maximum number of attempts
-     * @param waitMin the minimum amount of time in seconds to wait between attempts
-     * @param waitMax the maximum amount of time in seconds to wait between attempts
+     * @param backoff the policy for the time to wait between attempts
      * @param retryPredicates the checks to run to see if an error should be retried
+     * @param retryAfter finds the delay requested by an error, returning {@link Duration#ZERO} if none was requested
+     * @param listener called when a retry is scheduled
      */
-    private RetryWithDelay(int maxTries, int waitMin, int waitMax, List<Predicate<Throwable>> retryPredicates) {
-        if (waitMin >= waitMax)
-            throw new IllegalArgumentException("waitMin must be less than waitMax");
+    private RetryWithDelay(int maxTries, Backoff backoff, List<Predicate<Throwable>> retryPredicates,
+                           Function<Throwable, Duration> retryAfter, RetryListener listener) {
         this.maxTries = maxTries;
-        this.waitMin = waitMin;
-        this.waitMax = waitMax;
+        this.backoff = Objects.requireNonNull(backoff);
         this.retryPredicates = new ArrayList<>(Objects.requireNonNull(retryPredicates));
+        this.retryAfter = Objects.requireNonNull(retryAfter);
+        this.listener = Objects.requireNonNull(listener);
     }
 
     /**
@@ -73,21 +76,35 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
 
     @Override
     public Publisher<?> apply(Flowable<Throwable> errors) {
+        // the previous delay for this subscription, retries are sequential so no synchronization is needed
+        long[] previousDelay = { 0 };
         return errors
-                .flatMap(error -> {
-                    boolean retryable = isRetryableException(error);
-                    if (retryable)
-                        logger.info("Retryable operation failed with exception: {}", error.getClass());
-                    logger.debug("Operation exception", error);
-                    return retryable ? Flowable.just(error) : Flowable.error(error);
-                }).zipWith(Flowable.range(1, maxTries), (t, i) -> new Retry(i, t))
-                .flatMap(retry -> retry.retry < maxTries ?
-                        Flowable.timer(randomWait(), TimeUnit.SECONDS) : Flowable.error(retry.throwable))
+                .zipWith(Flowable.range(1, maxTries), (t, i) -> new Retry(i, t))
+                .flatMap(retry -> {
+                    logger.debug("Operation exception", retry.throwable);
+                    // predicates are only checked while tries remain, since they can have side effects
+                    if (retry.retry >= maxTries || !isRetryableException(retry.throwable))
+                        return Flowable.error(retry.throwable);
+                    logger.info("Retryable operation failed with exception: {}", retry.throwable.getClass());
+                    long wait = nextDelay(retry.throwable, previousDelay[0]);
+                    previousDelay[0] = wait;
+                    listener.onRetry(retry.retry, wait, retry.throwable);
+                    return Flowable.timer(wait, TimeUnit.NANOSECONDS);
+                })
                 .doOnError(e -> logger.debug("Not retrying after error"));
     }
 
-    private long randomWait() {
-        return ThreadLocalRandom.current().nextInt(waitMin, waitMax);
+    /**
+     * @param error the error that failed the attempt
+     * @param previousNanos the previous delay, 0 before the first retry
+     * @return the delay in nanoseconds before the next attempt
+     */
+    private long nextDelay(Throwable error, long previousNanos) throws Throwable {
+        Duration requested = retryAfter.apply(error);
+        if (requested.isZero() || requested.isNegative())
+            return backoff.nextDelayNanos(previousNanos);
+        // spread out clients that were all asked to wait the same time
+        return requested.toNanos() + backoff.jitterNanos();
     }
 
     /**
@@ -110,8 +127,11 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
 
         private int waitMin = 30;
         private int waitMax = 36;
+        private Backoff backoff;
         private int maxRetries = 5;
         private List<Predicate<Throwable>> retryPredicates;
+        private Function<Throwable, Duration> retryAfter = error -> Duration.ZERO;
+        private RetryListener listener = (retry, delayNanos, error) -> { };
 
         /**
          * Set the maximum number of retry attempts, by default a request is retried 5 times
@@ -149,6 +169,28 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
             return this;
         }
 
+        /**
+         * Set the policy for the time to wait between attempts, replacing the random wait between waitMin and waitMax
+         * seconds
+         * @param backoff the policy
+         * @return this builder
+         */
+        public Builder backoff(Backoff backoff) {
+            this.backoff = Objects.requireNonNull(backoff, "backoff cannot be null");
+            return this;
+        }
+
+        /**
+         * Set how to find the delay requested by an error, such as from a Retry-After header. A requested delay is
+         * used instead of the backoff, plus a little jitter
+         * @param retryAfter returns the requested delay, {@link Duration#ZERO} if none was requested
+         * @return this builder
+         */
+        public Builder retryAfter(Function<Throwable, Duration> retryAfter) {
+            this.retryAfter = Objects.requireNonNull(retryAfter, "retryAfter cannot be null");
+            return this;
+        }
+
         /**
          * Add an exception class to retry. If no exceptions or predicates are added, by default all exceptions are
          * retried
@@ -160,7 +202,9 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
         }
 
         /**
-         * Add a predicate to retry. If no exceptions or predicates are added, by default all exceptions are retried
+         * Add a predicate to retry. If no exceptions or predicates are added, by default all exceptions are retried.
+         * Predicates are not checked after the last attempt, so a predicate that spends a retry budget only spends it
+         * on retries that are scheduled
          * @param predicate the predicate that checks the exception and returns whether it should be retried
          * @return this builder
          */
@@ -171,10 +215,23 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
             return this;
         }
 
+        /**
+         * Set the listener called each time a retry is scheduled
+         * @param listener the listener
+         * @return this builder
+         */
+        public Builder listener(RetryListener listener) {
+            this.listener = Objects.requireNonNull(listener, "listener cannot be null");
+            return this;
+        }
+
         public RetryWithDelay build() {
             if (retryPredicates == null)
                 retryPredicates = DEFAULT_PREDICATES;
-            return new RetryWithDelay(maxRetries + 1, waitMin, waitMax, retryPredicates);
+            if (backoff == null && waitMin >= waitMax)
+                throw new IllegalArgumentException("waitMin must be less than waitMax");
+            Backoff delays = backoff != null ? backoff : Backoff.uniform(waitMin, waitMax, TimeUnit.SECONDS);
+            return new RetryWithDelay(maxRetries + 1, delays, retryPredicates, retryAfter, listener);
         }
 
         private Builder() {
@@ -182,6 +239,20 @@ public class RetryWithDelay implements Function<Flowable<Throwable>, Publisher<?
         }
     }
 
+    /**
+     * Listener notified when a failed attempt will be retried
+     */
+    @FunctionalInterface
+    public interface RetryListener {
+
+        /**
+         * @param retry the number of the retry, starting at 1
+         * @param delayNanos the time until the retry
+         * @param error the error that failed the attempt
+         */
+        void onRetry(int retry, long delayNanos, Throwable error);
+    }
+
     private static class Retry {
         final int retry;
         final Throwable throwable;
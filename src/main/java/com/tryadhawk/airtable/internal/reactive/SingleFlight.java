@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import io.reactivex.rxjava3.core.Flowable;
+
+/**
+ * Coalesces concurrent subscriptions for the same key into a single upstream subscription. While a stream for a key is
+ * in flight, new subscribers for that key share it and receive every item already emitted followed by the remaining
+ * items and the same completion or error. Once the stream terminates or all subscribers cancel, the next subscriber
+ * starts a new stream
+ * @param <K> the type of the keys
+ * @param <V> the type of the items emitted
+ */
+public class SingleFlight<K, V> {
+
+    private static final SingleFlight<?, ?> DISABLED = new SingleFlight<>(false);
+
+    private final boolean enabled;
+    private final ConcurrentMap<K, Flowable<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new instance
+     */
+    public SingleFlight() {
+        this(true);
+    }
+
+    private SingleFlight(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @param <K> the type of the keys
+     * @param <V> the type of the items emitted
+     * @return a SingleFlight that never shares streams between subscribers
+     */
+    @SuppressWarnings("unchecked")
+    public static <K, V> SingleFlight<K, V> disabled() {
+        return (SingleFlight<K, V>) DISABLED;
+    }
+
+    /**
+     * Get a stream for a key, sharing the stream already in flight for the key if there is one
+     * @param key the key identifying the stream
+     * @param supplier supplies a new stream if there is none in flight for the key
+     * @return the shared stream
+     */
+    public Flowable<V> execute(K key, Supplier<Flowable<V>> supplier) {
+        if (!enabled)
+            return Flowable.defer(supplier::get);
+        return Flowable.defer(() -> {
+            Flowable<V> existing = inFlight.get(key);
+            if (existing != null)
+                return existing;
+            AtomicReference<Flowable<V>> self = new AtomicReference<>();
+            Flowable<V> shared = Flowable.defer(supplier::get)
+                    // only remove this stream, a newer stream may already be in flight for the key
+                    .doFinally(() -> inFlight.remove(key, self.get()))
+                    .replay()
+                    .refCount();
+            self.set(shared);
+            existing = inFlight.putIfAbsent(key, shared);
+            return existing != null ? existing : shared;
+        });
+    }
+
+    /**
+     * @return the number of streams currently in flight
+     */
+    int size() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+package com.tryadhawk.airtable.internal.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, lock-free histogram of durations in nanoseconds. Values are counted in log-linear buckets, 32 buckets per
+ * power of two, so percentiles are accurate to within about 3% while memory stays constant no matter how many values
+ * are recorded. Values over about 18 minutes are counted in the last bucket
+ */
+public class LatencyHistogram {
+
+    /* Number of bits of precision kept for each value */
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /* Values with more bits than this are counted in the last bucket */
+    private static final int MAX_VALUE_BITS = 40;
+    private static final int BUCKET_COUNT = (MAX_VALUE_BITS - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record a value
+     * @param nanos the value, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexOf(value));
+        long current;
+        while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+            // retry until the max is at least value
+        }
+    }
+
+    /**
+     * Take a snapshot of the recorded values
+     * @param reset if the histogram should be cleared as the snapshot is taken. Values recorded while the snapshot is
+     * taken are counted in either the snapshot or the cleared histogram, never both or neither
+     * @return the snapshot
+     */
+    public Snapshot snapshot(boolean reset) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; ++i) {
+            snapshot[i] = reset ? counts.getAndSet(i, 0) : counts.get(i);
+            total += snapshot[i];
+        }
+        return new Snapshot(snapshot, total, reset ? max.getAndSet(0) : max.get());
+    }
+
+    /**
+     * @param value a value
+     * @return the index of the bucket the value is counted in
+     */
+    static int indexOf(long value) {
+        int bits = 64 - Long.numberOfLeadingZeros(value);
+        // small values have a bucket each
+        if (bits <= SUB_BUCKET_BITS + 1)
+            return (int) value;
+        if (bits > MAX_VALUE_BITS)
+            return BUCKET_COUNT - 1;
+        // keep the top bit and the SUB_BUCKET_BITS bits below it, the top bit lands the index in the second half of
+        // the range for its power of two
+        int shift = bits - SUB_BUCKET_BITS - 1;
+        return shift * SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * @param index the index of a bucket
+     * @return the highest value counted in the bucket
+     */
+    static long highestValueOf(int index) {
+        if (index < 2 * SUB_BUCKET_COUNT)
+            return index;
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        long lowest = (long) (index % SUB_BUCKET_COUNT + SUB_BUCKET_COUNT) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * The values recorded by a {@link LatencyHistogram} at a point in time
+     */
+    public static class Snapshot {
+
+        private final long[] counts;
+        private final long count;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.max = max;
+        }
+
+        /** @return the number of values recorded */
+        public long getCount() {
+            return count;
+        }
+
+        /** @return the largest value recorded, 0 if no values were recorded */
+        public long getMax() {
+            return max;
+        }
+
+        /**
+         * @param percentile the percentile, from 0 to 100
+         * @return the value at or below which {@code percentile} percent of values fall, 0 if no values were recorded
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count == 0)
+                return 0;
+            long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                seen += counts[i];
+                if (seen >= target)
+                    return Math.min(highestValueOf(i), max);
+            }
+            return max;
+        }
+    }
+}
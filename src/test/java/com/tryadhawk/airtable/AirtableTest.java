@@ -29,7 +29,7 @@ import static org.mockito.Mockito.mock;
 public class AirtableTest {
 
     private AirtableHttpClient httpClient = mock(AirtableHttpClient.class);
-    private ObjectMapper objectMapper = mock(ObjectMapper.class);
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     /**
      * Should create a default ObjectMapper and AirtableHttpClient if none are set in the builder
@@ -19,23 +19,52 @@
 
 package com.tryadhawk.airtable;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
 import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.cache.RecordCache;
 import com.tryadhawk.airtable.internal.http.AirtableHttpClient;
+import com.tryadhawk.airtable.internal.http.CircuitBreaker;
+import com.tryadhawk.airtable.internal.http.RateLimiter;
+import com.tryadhawk.airtable.internal.http.RequestEvents;
 import com.tryadhawk.airtable.test.DummyRow;
 import com.tryadhawk.airtable.v0.Delete;
+import com.tryadhawk.airtable.v0.DeleteBatch;
 import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordBatch;
 import com.tryadhawk.airtable.v0.RecordPage;
 import io.reactivex.rxjava3.core.Flowable;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.subjects.SingleSubject;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import org.asynchttpclient.Param;
+import org.asynchttpclient.Request;
 import org.asynchttpclient.Response;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AsyncTableTest {
@@ -57,13 +86,13 @@ public class AsyncTableTest {
                         "GET".equals(arg.getMethod()) &&
                         arg.getHeaders().size() == 2 &&
                         arg.getHeaders().contains("Accept", "application/json", false) &&
-                        arg.getHeaders().contains("Authorization", "Bearer 1234", false))))
+                        arg.getHeaders().contains("Authorization", "Bearer 1234", false)), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         RecordPage<DummyRow> records = new RecordPage<>(Arrays.asList(
                 Record.of("123", new DummyRow("1", "name", 12), "today"),
                 Record.of("456", new DummyRow("2", "name2", 13), "tomorrow")), null);
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(records));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(records));
 
         Flowable.fromPublisher(table.select())
                 .test().await()
@@ -78,18 +107,18 @@ public class AsyncTableTest {
      */
     @Test
     public void selectMultiplePagesTest() throws InterruptedException, JsonProcessingException {
-        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table".equals(arg.getUrl()))))
+        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table".equals(arg.getUrl())), any(), any(), any()))
                 .thenReturn(Single.just(response));
         Response response2 = mock(Response.class);
-        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table?offset=abc".equals(arg.getUrl()))))
+        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table?offset=abc".equals(arg.getUrl())), any(), any(), any()))
                 .thenReturn(Single.just(response2));
 
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(new RecordPage<>(Arrays.asList(
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(
                 Record.of("123", new DummyRow("1", "name", 12), "today"),
                 Record.of("456", new DummyRow("2", "name2", 34), "tomorrow")), "abc")));
         when(response2.getStatusCode()).thenReturn(200);
-        when(response2.getResponseBody()).thenReturn(objectMapper.writeValueAsString(new RecordPage<>(Arrays.asList(
+        when(response2.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(
                 Record.of("789", new DummyRow("3", "name3", 56), "never"),
                 Record.of("098", new DummyRow("4", "name4", 78), "yesterday")), null)));
 
@@ -103,14 +132,103 @@ public class AsyncTableTest {
                 .assertComplete().assertNoErrors();
     }
 
+    /**
+     * Should walk every page of a very large table without growing the stack or failing
+     */
+    @Test
+    public void selectManyPagesTest() throws InterruptedException {
+        int pages = 10_000;
+        when(httpClient.execute(any(), any(), any(), any())).thenAnswer(invocation -> {
+            Request request = invocation.getArgument(0);
+            List<Param> offsets = request.getQueryParams();
+            int page = offsets.isEmpty() ? 0 : Integer.parseInt(offsets.get(0).getValue());
+            byte[] body = objectMapper.writeValueAsBytes(new RecordPage<>(
+                    Arrays.asList(Record.of("rec" + page, new DummyRow(Integer.toString(page), "name", page), "today")),
+                    page + 1 < pages ? Integer.toString(page + 1) : null));
+            Response pageResponse = mock(Response.class, answer -> {
+                switch (answer.getMethod().getName()) {
+                    case "getStatusCode":
+                        return 200;
+                    case "getResponseBodyAsStream":
+                        return new ByteArrayInputStream(body);
+                    default:
+                        return null;
+                }
+            });
+            return Single.just(pageResponse);
+        });
+
+        Flowable.fromPublisher(table.select())
+                .test().await()
+                .assertValueCount(pages)
+                .assertComplete().assertNoErrors();
+    }
+
+    /**
+     * Should request the next page before the subscriber consumes the current page, but stop fetching pages once the
+     * prefetch limit is reached until the subscriber requests more
+     */
+    @Test
+    public void selectPrefetchTest() throws InterruptedException, JsonProcessingException {
+        for (int i = 0; i < 6; ++i) {
+            String url = i == 0 ? "https://localhost/base/table" : "https://localhost/base/table?offset=p" + i;
+            Response pageResponse = mock(Response.class);
+            when(pageResponse.getStatusCode()).thenReturn(200);
+            when(pageResponse.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(
+                    Arrays.asList(Record.of("rec" + i, new DummyRow(Integer.toString(i), "name", i), "today")),
+                    i < 5 ? "p" + (i + 1) : null)));
+            when(httpClient.execute(argThat(arg -> arg != null && url.equals(arg.getUrl())), any(), any(), any()))
+                    .thenReturn(Single.just(pageResponse));
+        }
+
+        TestSubscriber<Record<DummyRow>> subscriber = Flowable.fromPublisher(table.select(Query.builder().prefetch(1).build()))
+                .test(0);
+        verify(httpClient, timeout(1000)).execute(argThat(arg -> arg != null && arg.getUrl().endsWith("offset=p1")), any(), any(), any());
+        verify(httpClient, after(200).never()).execute(argThat(arg -> arg != null && arg.getUrl().endsWith("offset=p4")), any(), any(), any());
+        subscriber.assertNoValues();
+
+        subscriber.requestMore(Long.MAX_VALUE)
+                .await()
+                .assertValueCount(6)
+                .assertComplete().assertNoErrors();
+    }
+
+    /**
+     * When streaming records, should emit each record from every page and follow the offset to the next page
+     */
+    @Test
+    public void selectStreamRecordsTest() throws InterruptedException, JsonProcessingException {
+        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table".equals(arg.getUrl())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        Response response2 = mock(Response.class);
+        when(httpClient.execute(argThat(arg -> arg != null && "https://localhost/base/table?offset=abc".equals(arg.getUrl())), any(), any(), any()))
+                .thenReturn(Single.just(response2));
+
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(
+                Record.of("123", new DummyRow("1", "name", 12), "today"),
+                Record.of("456", new DummyRow("2", "name2", 34), "tomorrow")), "abc")));
+        when(response2.getStatusCode()).thenReturn(200);
+        when(response2.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(
+                Record.of("789", new DummyRow("3", "name3", 56), "never")), null)));
+
+        Flowable.fromPublisher(table.select(Query.builder().streamRecords(true).build()))
+                .test().await()
+                .assertValues(
+                        Record.of("123", new DummyRow("1", "name", 12), "today"),
+                        Record.of("456", new DummyRow("2", "name2", 34), "tomorrow"),
+                        Record.of("789", new DummyRow("3", "name3", 56), "never"))
+                .assertComplete().assertNoErrors();
+    }
+
     /**
      * Any exceptions when parsing the JSON should be wrapped in an AirtableParsingException
      */
     @Test
     public void selectParsingErrorTest() throws InterruptedException {
-        when(httpClient.execute(any())).thenReturn(Single.just(response));
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody()).thenReturn("1");
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("1".getBytes()));
 
         Flowable.fromPublisher(table.select())
                 .test().await()
@@ -128,13 +246,13 @@ public class AsyncTableTest {
                         "GET".equals(arg.getMethod()) &&
                         arg.getHeaders().size() == 2 &&
                         arg.getHeaders().contains("Accept", "application/json", false) &&
-                        arg.getHeaders().contains("Authorization", "Bearer 1234", false))))
+                        arg.getHeaders().contains("Authorization", "Bearer 1234", false)), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         RecordPage<DummyRow> records = new RecordPage<>(Arrays.asList(
                 Record.of("123", new DummyRow("1", "name", 12), "today"),
                 Record.of("456", new DummyRow("2", "name2", 13), "tomorrow")), null);
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(records));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(records));
 
         Flowable.fromPublisher(table.selectPage())
                 .test().await()
@@ -155,11 +273,11 @@ public class AsyncTableTest {
                         "GET".equals(arg.getMethod()) &&
                         arg.getHeaders().size() == 2 &&
                         arg.getHeaders().contains("Accept", "application/json", false) &&
-                        arg.getHeaders().contains("Authorization", "Bearer 1234", false))))
+                        arg.getHeaders().contains("Authorization", "Bearer 1234", false)), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         Record<DummyRow> record = Record.of("123", new DummyRow("1", "name", 12), "today");
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(record));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(record));
 
         Single.fromPublisher(table.find("abc123"))
                 .test().await()
@@ -172,9 +290,9 @@ public class AsyncTableTest {
      */
     @Test
     public void findParsingErrorTest() throws InterruptedException {
-        when(httpClient.execute(any())).thenReturn(Single.just(response));
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody()).thenReturn("1");
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("1".getBytes()));
 
         Flowable.fromPublisher(table.find("123abc"))
                 .test().await()
@@ -197,11 +315,11 @@ public class AsyncTableTest {
                         arg.getHeaders().contains("Accept", "application/json", false) &&
                         arg.getHeaders().contains("Content-Type", "application/json", false) &&
                         arg.getHeaders().contains("Authorization", "Bearer 1234", false) &&
-                        Arrays.equals(bytes, arg.getByteData()))))
+                        Arrays.equals(bytes, arg.getByteData())), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         Record<DummyRow> record = Record.of("abc", item, "now");
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(record));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(record));
 
         Single.fromPublisher(table.create(item))
                 .test().await()
@@ -225,11 +343,11 @@ public class AsyncTableTest {
                         arg.getHeaders().contains("Accept", "application/json", false) &&
                         arg.getHeaders().contains("Content-Type", "application/json", false) &&
                         arg.getHeaders().contains("Authorization", "Bearer 1234", false) &&
-                        Arrays.equals(bytes, arg.getByteData()))))
+                        Arrays.equals(bytes, arg.getByteData())), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         Record<DummyRow> record = Record.of("abc", item, "now");
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(record));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(record));
 
         Single.fromPublisher(table.update("abc", item))
                 .test().await()
@@ -249,11 +367,11 @@ public class AsyncTableTest {
                         "DELETE".equals(arg.getMethod()) &&
                         arg.getHeaders().size() == 2 &&
                         arg.getHeaders().contains("Accept", "application/json", false) &&
-                        arg.getHeaders().contains("Authorization", "Bearer 1234", false))))
+                        arg.getHeaders().contains("Authorization", "Bearer 1234", false)), any(), any(), any()))
                 .thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
         Delete delete = new Delete(true, "abc");
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(delete));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(delete));
 
         Single.fromPublisher(table.delete("abc"))
                 .test().await()
@@ -266,12 +384,445 @@ public class AsyncTableTest {
      */
     @Test
     public void deleteParsingErrorTest() throws InterruptedException {
-        when(httpClient.execute(any())).thenReturn(Single.just(response));
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
         when(response.getStatusCode()).thenReturn(200);
-        when(response.getResponseBody()).thenReturn("1");
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("1".getBytes()));
 
         Flowable.fromPublisher(table.delete("123abc"))
                 .test().await()
                 .assertError(AirtableMappingException.class);
     }
+
+    /**
+     * Should split the items into batches of 10, create each batch in a single request, and return the created records
+     * in order
+     */
+    @Test
+    public void createAllTest() throws JsonProcessingException, InterruptedException {
+        List<DummyRow> items = new ArrayList<>();
+        List<Record<DummyRow>> created = new ArrayList<>();
+        for (int i = 0; i < 12; ++i) {
+            items.add(new DummyRow(Integer.toString(i), "name" + i, i));
+            created.add(Record.of("rec" + i, items.get(i), "now"));
+        }
+        byte[] bytes1 = objectMapper.writeValueAsBytes(new RecordBatch<>(Arrays.asList(
+                Record.of(items.get(0)), Record.of(items.get(1)), Record.of(items.get(2)), Record.of(items.get(3)),
+                Record.of(items.get(4)), Record.of(items.get(5)), Record.of(items.get(6)), Record.of(items.get(7)),
+                Record.of(items.get(8)), Record.of(items.get(9)))));
+        byte[] bytes2 = objectMapper.writeValueAsBytes(new RecordBatch<>(Arrays.asList(
+                Record.of(items.get(10)), Record.of(items.get(11)))));
+        Response response2 = mock(Response.class);
+        when(httpClient.execute(argThat(arg ->
+                arg != null &&
+                        "https://localhost/base/table".equals(arg.getUrl()) &&
+                        "POST".equals(arg.getMethod()) &&
+                        arg.getHeaders().contains("Content-Type", "application/json", false) &&
+                        Arrays.equals(bytes1, arg.getByteData())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        when(httpClient.execute(argThat(arg -> arg != null && Arrays.equals(bytes2, arg.getByteData())), any(), any(), any()))
+                .thenReturn(Single.just(response2));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(
+                new RecordBatch<>(created.subList(0, 10))));
+        when(response2.getStatusCode()).thenReturn(200);
+        when(response2.getResponseBodyAsStream()).thenReturn(toJsonStream(
+                new RecordBatch<>(created.subList(10, 12))));
+
+        Flowable.fromPublisher(table.createAll(items))
+                .test().await()
+                .assertValueSequence(created)
+                .assertComplete().assertNoErrors();
+    }
+
+    /**
+     * Should send the record IDs and fields without the created time and return the updated records
+     */
+    @Test
+    public void updateAllTest() throws JsonProcessingException, InterruptedException {
+        DummyRow item1 = new DummyRow("1", "name", 2);
+        DummyRow item2 = new DummyRow("3", "name2", 4);
+        byte[] bytes = objectMapper.writeValueAsBytes(new RecordBatch<>(Arrays.asList(
+                Record.of("abc", item1, null), Record.of("def", item2, null))));
+        when(httpClient.execute(argThat(arg ->
+                arg != null &&
+                        "https://localhost/base/table".equals(arg.getUrl()) &&
+                        "PATCH".equals(arg.getMethod()) &&
+                        arg.getHeaders().contains("Content-Type", "application/json", false) &&
+                        Arrays.equals(bytes, arg.getByteData())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        List<Record<DummyRow>> updated = Arrays.asList(Record.of("abc", item1, "now"), Record.of("def", item2, "now"));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordBatch<>(updated)));
+
+        Flowable.fromPublisher(table.updateAll(Arrays.asList(
+                Record.of("abc", item1, "then"), Record.of("def", item2, "then"))))
+                .test().await()
+                .assertValueSequence(updated)
+                .assertComplete().assertNoErrors();
+    }
+
+    /**
+     * Should delete the rows in a single request with the IDs as query params and return each delete result
+     */
+    @Test
+    public void deleteAllTest() throws JsonProcessingException, InterruptedException {
+        when(httpClient.execute(argThat(arg ->
+                arg != null &&
+                        "https://localhost/base/table?records%5B%5D=abc&records%5B%5D=def".equals(arg.getUrl()) &&
+                        "DELETE".equals(arg.getMethod())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        DeleteBatch delete = new DeleteBatch(Arrays.asList(new Delete(true, "abc"), new Delete(false, "def")));
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(delete));
+
+        Flowable.fromPublisher(table.deleteAll(Arrays.asList("abc", "def")))
+                .test().await()
+                .assertResult(true, false);
+    }
+
+    /**
+     * With a cache configured, should only fetch a record from Airtable the first time it is found
+     */
+    @Test
+    public void findCachedTest() throws JsonProcessingException, InterruptedException {
+        AsyncTable<DummyRow> table = buildCachedTable();
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(record));
+
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(record);
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(record);
+
+        verify(httpClient, times(1)).execute(any(), any(), any(), any());
+        assertEquals(new CacheStats(1, 1, 0, 1), table.getCacheStats());
+    }
+
+    /**
+     * With a cache configured, should remember records that were not found and return the same error
+     */
+    @Test
+    public void findCachedMissingTest() throws InterruptedException {
+        AsyncTable<DummyRow> table = buildCachedTable();
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.error(new AirtableServerException(404)));
+
+        Single.fromPublisher(table.find("abc")).test().await().assertError(AirtableServerException.class);
+        Single.fromPublisher(table.find("abc")).test().await().assertError(AirtableServerException.class);
+
+        verify(httpClient, times(1)).execute(any(), any(), any(), any());
+    }
+
+    /**
+     * With a cache configured, should serve records from a select and remove deleted records
+     */
+    @Test
+    public void findCachedAfterSelectAndDeleteTest() throws JsonProcessingException, InterruptedException {
+        AsyncTable<DummyRow> table = buildCachedTable();
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        Response deleteResponse = mock(Response.class);
+        when(httpClient.execute(argThat(arg -> arg != null && "GET".equals(arg.getMethod())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        when(httpClient.execute(argThat(arg -> arg != null && "DELETE".equals(arg.getMethod())), any(), any(), any()))
+                .thenReturn(Single.just(deleteResponse));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream())
+                .thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(record), null)))
+                .thenReturn(toJsonStream(record));
+        when(deleteResponse.getResponseBodyAsStream()).thenReturn(toJsonStream(new Delete(true, "abc")));
+
+        Flowable.fromPublisher(table.select()).test().await().assertValue(record);
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(record);
+        verify(httpClient, times(1)).execute(argThat(arg -> arg != null && "GET".equals(arg.getMethod())), any(), any(), any());
+
+        Single.fromPublisher(table.delete("abc")).test().await().assertValue(true);
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(record);
+        verify(httpClient, times(2)).execute(argThat(arg -> arg != null && "GET".equals(arg.getMethod())), any(), any(), any());
+    }
+
+    /**
+     * With reads coalesced, concurrent finds for the same row ID should share one request and its result
+     */
+    @Test
+    public void findCoalescedTest() throws JsonProcessingException {
+        AsyncTable<DummyRow> table = buildCoalescedTable();
+        SingleSubject<Response> pending = SingleSubject.create();
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(pending);
+        when(response.getStatusCode()).thenReturn(200);
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(record));
+
+        TestSubscriber<Record<DummyRow>> first = Flowable.fromPublisher(table.find("abc")).test();
+        TestSubscriber<Record<DummyRow>> second = Flowable.fromPublisher(table.find("abc")).test();
+        pending.onSuccess(response);
+
+        first.assertResult(record);
+        second.assertResult(record);
+        verify(httpClient, times(1)).execute(any(), any(), any(), any());
+    }
+
+    /**
+     * With reads coalesced, concurrent selects for equal queries should share the same requests and their error
+     */
+    @Test
+    public void selectCoalescedTest() throws InterruptedException {
+        AsyncTable<DummyRow> table = buildCoalescedTable();
+        SingleSubject<Response> pending = SingleSubject.create();
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(pending);
+
+        TestSubscriber<Record<DummyRow>> first = Flowable.fromPublisher(table.select(Query.builder().view("v").build())).test();
+        TestSubscriber<Record<DummyRow>> second = Flowable.fromPublisher(table.select(Query.builder().view("v").build())).test();
+        pending.onError(new AirtableServerException(500));
+
+        first.await().assertError(AirtableServerException.class);
+        second.await().assertError(AirtableServerException.class);
+        verify(httpClient, times(1)).execute(any(), any(), any(), any());
+    }
+
+    private AsyncTable<DummyRow> buildCoalescedTable() {
+        return new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class, httpClient, objectMapper,
+                RateLimiter.unlimited(), RecordCache.disabled(),
+                TableOptions.builder().coalesceReads(true).build());
+    }
+
+    /**
+     * With finds batched, finds within the batch window should be loaded with a single select and missing rows should
+     * fail with a 404
+     */
+    @Test
+    public void findBatchedTest() throws JsonProcessingException, InterruptedException {
+        AsyncTable<DummyRow> table = new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class,
+                httpClient, objectMapper, RateLimiter.unlimited(), RecordCache.disabled(),
+                TableOptions.builder().findBatchWindow(50).build());
+        when(httpClient.execute(argThat(arg -> arg != null && ("https://localhost/base/table?filterByFormula=" +
+                "OR%28RECORD_ID%28%29%3D%27abc%27%2CRECORD_ID%28%29%3D%27def%27%29").equals(arg.getUrl())), any(), any(), any()))
+                .thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(record), null)));
+
+        TestSubscriber<Record<DummyRow>> first = Flowable.fromPublisher(table.find("abc")).test();
+        TestSubscriber<Record<DummyRow>> second = Flowable.fromPublisher(table.find("def")).test();
+
+        first.await().assertResult(record);
+        second.await().assertError(e -> e instanceof AirtableServerException &&
+                ((AirtableServerException) e).getStatusCode() == 404);
+        verify(httpClient, times(1)).execute(any(), any(), any(), any());
+    }
+
+    /**
+     * Should split the row IDs between formulas so that no formula is longer than the max length
+     */
+    @Test
+    public void buildFindFormulasTest() {
+        assertEquals(Arrays.asList("OR(RECORD_ID()='abc',RECORD_ID()='d\\'e')"),
+                AsyncTable.buildFindFormulas(Arrays.asList("abc", "d'e")));
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 500; ++i)
+            ids.add(String.format("rec%014d", i));
+        List<String> formulas = AsyncTable.buildFindFormulas(ids);
+        assertEquals(5, formulas.size());
+        int count = 0;
+        for (String formula : formulas) {
+            assertTrue(formula.length() <= 4000);
+            count += formula.split("RECORD_ID\\(\\)").length - 1;
+        }
+        assertEquals(500, count);
+    }
+
+    /**
+     * With fields projected, queries without fields should request only the fields bound by the table's type, while
+     * queries with fields or with projection turned off should be sent as is
+     */
+    @Test
+    public void selectProjectedTest() throws InterruptedException, JsonProcessingException {
+        AsyncTable<DummyRow> table = new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class,
+                httpClient, objectMapper, RateLimiter.unlimited(), RecordCache.disabled(),
+                TableOptions.builder().projectFields(true).build());
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream())
+                .thenReturn(toJsonStream(new RecordPage<>(new ArrayList<>(), null)))
+                .thenReturn(toJsonStream(new RecordPage<>(new ArrayList<>(), null)))
+                .thenReturn(toJsonStream(new RecordPage<>(new ArrayList<>(), null)));
+
+        Flowable.fromPublisher(table.select()).test().await().assertComplete();
+        Flowable.fromPublisher(table.select(Query.builder().field("name").build())).test().await().assertComplete();
+        Flowable.fromPublisher(table.select(Query.builder().projectFields(false).build())).test().await()
+                .assertComplete();
+
+        ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+        verify(httpClient, times(3)).execute(requests.capture(), any(), any(), any());
+        assertThat(requests.getAllValues().get(0).getQueryParams())
+                .extracting(Param::getName, Param::getValue)
+                .containsExactlyInAnyOrder(tuple("fields%5B%5D", "rowId"), tuple("fields%5B%5D", "name"),
+                        tuple("fields%5B%5D", "number"));
+        assertThat(requests.getAllValues().get(1).getQueryParams())
+                .extracting(Param::getName, Param::getValue)
+                .containsExactly(tuple("fields%5B%5D", "name"));
+        assertThat(requests.getAllValues().get(2).getQueryParams()).isEmpty();
+    }
+
+    /**
+     * Should page through a query too long for a URL with POST listRecords requests
+     */
+    @Test
+    public void selectLongQueryTest() throws InterruptedException, IOException {
+        StringBuilder formula = new StringBuilder("OR(");
+        for (int i = 0; i < 1000; ++i)
+            formula.append("RECORD_ID()='rec").append(i).append("',");
+        formula.append("FALSE())");
+        Record<DummyRow> record1 = Record.of("123", new DummyRow("1", "name", 12), "today");
+        Record<DummyRow> record2 = Record.of("456", new DummyRow("2", "name2", 13), "tomorrow");
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream())
+                .thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(record1), "next")))
+                .thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(record2), null)));
+
+        Flowable.fromPublisher(table.select(Query.builder().filterByFormula(formula.toString()).build()))
+                .test().await()
+                .assertResult(record1, record2);
+
+        ArgumentCaptor<Request> requests = ArgumentCaptor.forClass(Request.class);
+        verify(httpClient, times(2)).execute(requests.capture(), any(), any(), any());
+        for (Request request : requests.getAllValues()) {
+            assertEquals("POST", request.getMethod());
+            assertEquals("https://localhost/base/table/listRecords", request.getUrl());
+            assertTrue(request.getHeaders().contains("Authorization", "Bearer 1234", false));
+        }
+        assertEquals(formula.toString(), objectMapper.readTree(requests.getAllValues().get(0).getByteData())
+                .get("filterByFormula").asText());
+        assertEquals("next", objectMapper.readTree(requests.getAllValues().get(1).getByteData())
+                .get("offset").asText());
+    }
+
+    /**
+     * With an event listener, should describe each request and report the records parsed from each response
+     */
+    @Test
+    public void selectEventsTest() throws InterruptedException, JsonProcessingException {
+        AirtableEventListener listener = mock(AirtableEventListener.class);
+        AsyncTable<DummyRow> table = new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class,
+                httpClient, objectMapper, RateLimiter.unlimited(), RecordCache.disabled(),
+                TableOptions.builder().eventListener(listener).build());
+        ArgumentCaptor<RequestEvents> events = ArgumentCaptor.forClass(RequestEvents.class);
+        when(httpClient.execute(any(), any(), any(), events.capture())).thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(Arrays.asList(
+                Record.of("123", new DummyRow("1", "name", 12), "today"),
+                Record.of("456", new DummyRow("2", "name2", 13), "tomorrow")), null)));
+
+        Flowable.fromPublisher(table.select()).test().await().assertValueCount(2);
+
+        assertTrue(events.getValue().isEnabled());
+        RequestContext context = RequestContext.builder()
+                .baseId("base")
+                .table("table")
+                .operation(RequestContext.Operation.SELECT)
+                .method("GET")
+                .url("https://localhost/base/table")
+                .build();
+        verify(listener).onParseCompleted(eq(context), eq(2), anyLong());
+    }
+
+    /**
+     * Without an event listener, should not send events
+     */
+    @Test
+    public void selectNoEventsTest() throws InterruptedException, JsonProcessingException {
+        ArgumentCaptor<RequestEvents> events = ArgumentCaptor.forClass(RequestEvents.class);
+        when(httpClient.execute(any(), any(), any(), events.capture())).thenReturn(Single.just(response));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(new RecordPage<>(new ArrayList<>(), null)));
+
+        Flowable.fromPublisher(table.select()).test().await().assertComplete();
+
+        assertEquals(RequestEvents.disabled(), events.getValue());
+    }
+
+    /**
+     * While the circuit breaker is open, should find records in the cache even if they have expired, then in the
+     * read fallback
+     */
+    @Test
+    public void findCircuitOpenTest() throws JsonProcessingException, InterruptedException {
+        AsyncTable<DummyRow> table = buildCircuitBreakerTable();
+        Record<DummyRow> cached = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        Record<DummyRow> local = Record.of("def", new DummyRow("2", "other", 13), "today");
+        when(httpClient.execute(any(), any(), any(), any()))
+                .thenReturn(Single.just(response))
+                .thenReturn(Single.error(new AirtableCircuitOpenException("base", Duration.ofSeconds(1))));
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(toJsonStream(cached));
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(cached);
+
+        Single.fromPublisher(table.find("abc")).test().await().assertValue(cached);
+        Single.fromPublisher(table.find("def")).test().await().assertError(AirtableCircuitOpenException.class);
+        table.setReadFallback(new ListFallback(Arrays.asList(local)));
+        Single.fromPublisher(table.find("def")).test().await().assertValue(local);
+        Single.fromPublisher(table.find("ghi")).test().await().assertError(AirtableCircuitOpenException.class);
+    }
+
+    /**
+     * While the circuit breaker is open, should select records from the read fallback if no records were emitted, and
+     * should not fall back for other errors
+     */
+    @Test
+    public void selectCircuitOpenTest() throws InterruptedException {
+        AsyncTable<DummyRow> table = buildCircuitBreakerTable();
+        Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "name", 12), "today");
+        Record<DummyRow> record2 = Record.of("def", new DummyRow("2", "other", 13), "today");
+        table.setReadFallback(new ListFallback(Arrays.asList(record1, record2)));
+        when(httpClient.execute(any(), any(), any(), any()))
+                .thenReturn(Single.error(new AirtableCircuitOpenException("base", Duration.ofSeconds(1))));
+
+        Flowable.fromPublisher(table.select()).test().await().assertResult(record1, record2);
+        Single.fromPublisher(table.selectPage(Query.builder().pageSize(1).build())).test().await()
+                .assertValue(new RecordPage<>(Arrays.asList(record1), null));
+        Single.fromPublisher(table.selectPage(Query.builder().offset("abc").build())).test().await()
+                .assertError(AirtableCircuitOpenException.class);
+
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.error(new AirtableServerException(503)));
+        Flowable.fromPublisher(table.select()).test().await().assertError(AirtableServerException.class);
+    }
+
+    private AsyncTable<DummyRow> buildCircuitBreakerTable() {
+        return new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class, httpClient, objectMapper,
+                RateLimiter.unlimited(), new RecordCache<>(CacheConfiguration.builder()
+                .expireAfterWrite(Duration.ZERO)
+                .build(), true),
+                TableOptions.builder()
+                        .circuitBreaker(new CircuitBreaker("base", CircuitBreakerConfiguration.builder().build()))
+                        .build());
+    }
+
+    private AsyncTable<DummyRow> buildCachedTable() {
+        return new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class, httpClient, objectMapper,
+                RateLimiter.unlimited(), new RecordCache<>(CacheConfiguration.builder().build()),
+                TableOptions.builder().build());
+    }
+
+    private InputStream toJsonStream(Object value) throws JsonProcessingException {
+        return new ByteArrayInputStream(objectMapper.writeValueAsBytes(value));
+    }
+
+    private static class ListFallback implements ReadFallback<DummyRow> {
+
+        private final List<Record<DummyRow>> records;
+
+        private ListFallback(List<Record<DummyRow>> records) {
+            this.records = records;
+        }
+
+        @Override
+        public Record<DummyRow> get(String id) {
+            return records.stream().filter(record -> record.getId().equals(id)).findFirst().orElse(null);
+        }
+
+        @Override
+        public List<Record<DummyRow>> select(Query query) {
+            return records;
+        }
+    }
 }
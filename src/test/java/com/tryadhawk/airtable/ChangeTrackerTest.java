@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class ChangeTrackerTest {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+    private static final String MODIFIED_SINCE = "AND({Active},IS_AFTER({Modified},'2019-12-31T23:59:50Z'))";
+
+    private AsyncTable<DummyRow> table = mock(AsyncTable.class);
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private Query query = Query.builder().filterByFormula("{Active}").build();
+    private Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "name", 12), "today");
+    private Record<DummyRow> record2 = Record.of("def", new DummyRow("2", "name2", 13), "today");
+
+    /**
+     * The first poll should only build the baseline, later polls should report inserted and updated records and skip
+     * records that were returned again but have not changed
+     */
+    @Test
+    public void pollTest() {
+        ChangeTracker<DummyRow> tracker = buildTracker(ChangeStreamConfiguration.builder()
+                .lastModifiedField("Modified")
+                .deleteScanInterval(null)
+                .build());
+        when(table.scan(query)).thenReturn(Flowable.just(record1));
+        Record<DummyRow> updated = Record.of("abc", new DummyRow("1", "updated", 12), "today");
+        when(table.scan(query.toBuilder().filterByFormula(MODIFIED_SINCE).build()))
+                .thenReturn(Flowable.just(updated, record2))
+                .thenReturn(Flowable.just(updated));
+
+        tracker.poll().test().assertResult();
+        tracker.poll().test().assertResult(
+                new RecordChange<>(RecordChange.Type.UPDATED, "abc", updated),
+                new RecordChange<>(RecordChange.Type.INSERTED, "def", record2));
+        tracker.poll().test().assertResult();
+    }
+
+    /**
+     * Should report records that are no longer returned by a delete scan once the delete scan interval has elapsed
+     */
+    @Test
+    public void pollDeletedTest() {
+        ChangeTracker<DummyRow> tracker = buildTracker(ChangeStreamConfiguration.builder()
+                .lastModifiedField("Modified")
+                .deleteScanInterval(Duration.ZERO)
+                .build());
+        when(table.scan(query)).thenReturn(Flowable.just(record1, record2));
+        when(table.scan(query.toBuilder().filterByFormula(MODIFIED_SINCE).build())).thenReturn(Flowable.empty());
+        when(table.scan(query.toBuilder().field("Modified").build()))
+                .thenReturn(Flowable.just(Record.of("def", new DummyRow(), null)));
+
+        tracker.poll().test().assertResult();
+        tracker.poll().test().assertResult(new RecordChange<>(RecordChange.Type.DELETED, "abc", null));
+        tracker.poll().test().assertResult();
+    }
+
+    /**
+     * Should poll on the interval and keep polling after a failed poll
+     */
+    @Test
+    public void changesTest() {
+        TestScheduler scheduler = new TestScheduler();
+        ChangeTracker<DummyRow> tracker = buildTracker(ChangeStreamConfiguration.builder()
+                .lastModifiedField("Modified")
+                .deleteScanInterval(null)
+                .build());
+        when(table.scan(query)).thenReturn(Flowable.empty());
+        when(table.scan(query.toBuilder().filterByFormula(MODIFIED_SINCE).build()))
+                .thenReturn(Flowable.error(new RuntimeException()))
+                .thenReturn(Flowable.just(record1));
+
+        TestSubscriber<RecordChange<DummyRow>> subscriber = tracker.changes(Duration.ofSeconds(30), scheduler).test();
+        subscriber.assertEmpty();
+        scheduler.advanceTimeBy(60, TimeUnit.SECONDS);
+
+        subscriber.assertValuesOnly(new RecordChange<>(RecordChange.Type.INSERTED, "abc", record1));
+    }
+
+    /**
+     * Should fail the stream if the first poll fails
+     */
+    @Test
+    public void changesFirstPollErrorTest() {
+        ChangeTracker<DummyRow> tracker = buildTracker(ChangeStreamConfiguration.builder().build());
+        when(table.scan(query)).thenReturn(Flowable.error(new RuntimeException()));
+
+        tracker.changes(Duration.ofSeconds(30), new TestScheduler()).test().assertError(RuntimeException.class);
+    }
+
+    private ChangeTracker<DummyRow> buildTracker(ChangeStreamConfiguration config) {
+        return new ChangeTracker<>(new TableScanner<>(table, query, config.getLastModifiedField(),
+                config.getDeleteScanField()), objectMapper.writerFor(objectMapper.getTypeFactory()
+                .constructParametricType(Record.class, DummyRow.class)), config, Clock.fixed(START, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable;
+
+import java.util.Comparator;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RecordIndexTest {
+
+    private final Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "a", 12), "today");
+    private final Record<DummyRow> record2 = Record.of("def", new DummyRow("2", "b", 13), "today");
+    private final Record<DummyRow> record3 = Record.of("ghi", new DummyRow("3", "a", 14), "today");
+
+    /**
+     * Should find every record with a key, ordered by record ID
+     */
+    @Test
+    public void hashGetTest() {
+        HashIndex<String, DummyRow> index = HashIndex.of(DummyRow::getName);
+        index.put(record3);
+        index.put(record1);
+        index.put(record2);
+
+        assertThat(index.get("a")).containsExactly(record1, record3);
+        assertEquals(record1, index.getFirst("a"));
+        assertEquals(record2, index.getFirst("b"));
+        assertThat(index.get("c")).isEmpty();
+        assertNull(index.getFirst("c"));
+        assertNull(index.getFirst(null));
+        assertTrue(index.containsKey("b"));
+        assertEquals(2, index.keyCount());
+        assertEquals(3, index.size());
+    }
+
+    /**
+     * Should move records whose key changed and drop records that were removed or have no key
+     */
+    @Test
+    public void hashUpdateTest() {
+        HashIndex<String, DummyRow> index = HashIndex.of(DummyRow::getName);
+        index.put(record1);
+        index.put(record2);
+
+        Record<DummyRow> renamed = Record.of("abc", new DummyRow("1", "b", 12), "today");
+        index.put(renamed);
+        assertFalse(index.containsKey("a"));
+        assertThat(index.get("b")).containsExactly(renamed, record2);
+
+        index.put(Record.of("def", new DummyRow("2", null, 13), "today"));
+        assertThat(index.get("b")).containsExactly(renamed);
+        assertEquals(1, index.size());
+
+        index.remove("abc");
+        index.remove("missing");
+        assertEquals(0, index.keyCount());
+        assertEquals(0, index.size());
+    }
+
+    /**
+     * Should answer range queries in key order
+     */
+    @Test
+    public void sortedRangeTest() {
+        SortedIndex<Integer, DummyRow> index = SortedIndex.of(DummyRow::getNumber);
+        index.put(record2);
+        index.put(record3);
+        index.put(record1);
+
+        assertThat(index.getAll()).containsExactly(record1, record2, record3);
+        assertThat(index.range(12, false, 14, true)).containsExactly(record2, record3);
+        assertThat(index.range(12, true, 14, false)).containsExactly(record1, record2);
+        assertThat(index.headTo(13, true)).containsExactly(record1, record2);
+        assertThat(index.tailFrom(13, false)).containsExactly(record3);
+        assertThat(index.get(13)).containsExactly(record2);
+
+        index.put(Record.of("ghi", new DummyRow("3", "a", 1), "today"));
+        assertEquals("ghi", index.getAll().get(0).getId());
+    }
+
+    /**
+     * Should order keys with a comparator
+     */
+    @Test
+    public void sortedComparatorTest() {
+        SortedIndex<String, DummyRow> index = SortedIndex.of(DummyRow::getName, Comparator.reverseOrder());
+        index.put(record1);
+        index.put(record2);
+        index.put(record3);
+
+        assertThat(index.getAll()).containsExactly(record2, record1, record3);
+        assertThat(index.tailFrom("a", true)).containsExactly(record1, record3);
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+
+public class StatsRecorderTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final StatsRecorder recorder = new StatsRecorder(clock::get);
+
+    private final RequestContext select = context("table1", RequestContext.Operation.SELECT);
+    private final RequestContext find = context("table1", RequestContext.Operation.FIND);
+
+    /**
+     * Should collect latency, counts and in flight requests for each table and operation
+     */
+    @Test
+    public void snapshotTest() {
+        for (int i = 1; i <= 100; ++i) {
+            recorder.onRequestStart(select);
+            recorder.onResponse(select, 200, TimeUnit.MILLISECONDS.toNanos(i), 10);
+        }
+        recorder.onRequestStart(select);
+        recorder.onResponse(select, 0, 0, 0);
+        recorder.onRetryScheduled(select, 1, 1000, new AirtableServerException(500));
+        recorder.onRateLimited(select, 1000);
+        recorder.onError(select, new AirtableServerException(500), 1000);
+        recorder.onRequestStart(find);
+        clock.set(TimeUnit.SECONDS.toNanos(10));
+
+        List<TableStats> stats = recorder.snapshot();
+        assertEquals(2, stats.size());
+        TableStats selectStats = stats(stats, RequestContext.Operation.SELECT);
+        assertEquals("base1", selectStats.getBaseId());
+        assertEquals("table1", selectStats.getTable());
+        assertEquals(100, selectStats.getResponseCount());
+        assertEquals(1, selectStats.getErrorCount());
+        assertEquals(1, selectStats.getRetryCount());
+        assertEquals(1, selectStats.getRateLimitedCount());
+        assertEquals(0, selectStats.getInFlight());
+        assertEquals(10.0, selectStats.getThroughput(), 0.001);
+        assertEquals(Duration.ofSeconds(10), selectStats.getWindow());
+        assertThat(selectStats.getP50().toMillis()).isBetween(49L, 51L);
+        assertThat(selectStats.getP90().toMillis()).isBetween(88L, 91L);
+        assertThat(selectStats.getP99().toMillis()).isBetween(97L, 100L);
+        assertEquals(Duration.ofMillis(100), selectStats.getMax());
+
+        TableStats findStats = stats(stats, RequestContext.Operation.FIND);
+        assertEquals(0, findStats.getResponseCount());
+        assertEquals(1, findStats.getInFlight());
+        assertEquals(Duration.ZERO, findStats.getP99());
+    }
+
+    /**
+     * Should return the ended window and start a new one on reset, keeping in flight requests
+     */
+    @Test
+    public void resetTest() {
+        recorder.onRequestStart(select);
+        recorder.onRequestStart(select);
+        recorder.onResponse(select, 200, 1000, 10);
+        recorder.onError(select, new AirtableServerException(500), 1000);
+        clock.set(TimeUnit.SECONDS.toNanos(1));
+
+        TableStats ended = stats(recorder.reset(), RequestContext.Operation.SELECT);
+        assertEquals(1, ended.getResponseCount());
+        assertEquals(1, ended.getErrorCount());
+        assertEquals(1, ended.getInFlight());
+        assertEquals(Duration.ofSeconds(1), ended.getWindow());
+
+        clock.set(TimeUnit.SECONDS.toNanos(3));
+        TableStats current = stats(recorder.snapshot(), RequestContext.Operation.SELECT);
+        assertEquals(0, current.getResponseCount());
+        assertEquals(0, current.getErrorCount());
+        assertEquals(1, current.getInFlight());
+        assertEquals(Duration.ZERO, current.getMax());
+        assertEquals(Duration.ofSeconds(2), current.getWindow());
+    }
+
+    private static TableStats stats(List<TableStats> stats, RequestContext.Operation operation) {
+        return stats.stream().filter(s -> s.getOperation() == operation).findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    private static RequestContext context(String table, RequestContext.Operation operation) {
+        return RequestContext.builder().baseId("base1").table(table).operation(operation).method("GET")
+                .url("https://localhost/base1/" + table).build();
+    }
+}
@@ -118,4 +118,29 @@ public class SyncTableTest {
 
         assertThat(table.delete("def")).isEqualTo(true);
     }
+
+    @Test
+    public void createAllTest() {
+        DummyRow row = new DummyRow("1", "name", 3);
+        Record<DummyRow> response = Record.of("abc", row, "time");
+        when(asyncTable.createAll(Arrays.asList(row))).thenReturn(Flowable.just(response));
+
+        Assertions.assertThat(table.createAll(Arrays.asList(row))).containsExactly(response);
+    }
+
+    @Test
+    public void updateAllTest() {
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "name", 3), null);
+        Record<DummyRow> response = Record.of("abc", new DummyRow("1", "name", 3), "time");
+        when(asyncTable.updateAll(Arrays.asList(record))).thenReturn(Flowable.just(response));
+
+        Assertions.assertThat(table.updateAll(Arrays.asList(record))).containsExactly(response);
+    }
+
+    @Test
+    public void deleteAllTest() {
+        when(asyncTable.deleteAll(Arrays.asList("abc", "def"))).thenReturn(Flowable.just(true, true));
+
+        assertThat(table.deleteAll(Arrays.asList("abc", "def"))).containsExactly(true, true);
+    }
 }
@@ -0,0 +1,297 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
+import com.tryadhawk.airtable.internal.cache.RecordCache;
+import com.tryadhawk.airtable.internal.http.AirtableHttpClient;
+import com.tryadhawk.airtable.internal.http.CircuitBreaker;
+import com.tryadhawk.airtable.internal.http.RateLimiter;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import com.tryadhawk.airtable.v0.RecordPage;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.Response;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.ArgumentCaptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SuppressWarnings("unchecked")
+public class TableReplicaTest {
+
+    private static final Instant START = Instant.parse("2020-01-01T00:00:00Z");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AsyncTable<DummyRow> table = mock(AsyncTable.class);
+    private TestScheduler scheduler = new TestScheduler();
+    private Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "name", 12), "today");
+    private Record<DummyRow> record2 = Record.of("def", new DummyRow("2", "name2", 13), "today");
+
+    /**
+     * Should load all records before serving reads
+     */
+    @Test
+    public void startTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder().view("v").build());
+        when(table.scan(Query.builder().view("v").build())).thenReturn(Flowable.just(record1, record2));
+
+        assertFalse(replica.isReady());
+        Flowable.fromPublisher(replica.start()).test().assertResult(2);
+
+        assertTrue(replica.isReady());
+        assertEquals(2, replica.size());
+        assertEquals(record1, replica.get("abc"));
+        assertThat(replica.getAll()).containsExactlyInAnyOrder(record1, record2);
+        Flowable.fromPublisher(replica.start()).test().assertError(IllegalStateException.class);
+    }
+
+    /**
+     * Should poll for records modified since the start of the last sync less the overlap
+     */
+    @Test
+    public void syncTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder()
+                .filterByFormula("{Active}")
+                .reconcileInterval(null)
+                .build());
+        when(table.scan(Query.builder().filterByFormula("{Active}").build())).thenReturn(Flowable.just(record1));
+        Record<DummyRow> updated = Record.of("abc", new DummyRow("1", "updated", 12), "today");
+        when(table.scan(Query.builder()
+                .filterByFormula("AND({Active},IS_AFTER(LAST_MODIFIED_TIME(),'2019-12-31T23:59:50Z'))")
+                .build())).thenReturn(Flowable.just(updated, record2));
+        Flowable.fromPublisher(replica.start()).test().assertResult(1);
+
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+
+        assertEquals(updated, replica.get("abc"));
+        assertEquals(record2, replica.get("def"));
+    }
+
+    /**
+     * Should remove records that are no longer returned by a reconciliation scan
+     */
+    @Test
+    public void reconcileTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder()
+                .lastModifiedField("Modified")
+                .build());
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(record1, record2));
+        when(table.scan(Query.builder().field("Modified").build())).thenReturn(Flowable.just(
+                Record.of("def", new DummyRow(), "today")));
+        Flowable.fromPublisher(replica.start()).test().assertResult(2);
+
+        replica.reconcile().test().assertComplete();
+
+        assertNull(replica.get("abc"));
+        assertEquals(record2, replica.get("def"));
+    }
+
+    /**
+     * Should keep polling after a failed sync and stop once closed
+     */
+    @Test
+    public void syncErrorTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder()
+                .lastModifiedField("Modified")
+                .reconcileInterval(null)
+                .build());
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(record1));
+        when(table.scan(argThat(query -> query != null && query.getFilterByFormula() != null)))
+                .thenReturn(Flowable.error(new RuntimeException()))
+                .thenReturn(Flowable.just(record2));
+        Flowable.fromPublisher(replica.start()).test().assertResult(1);
+
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        assertNull(replica.get("def"));
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        assertEquals(record2, replica.get("def"));
+
+        replica.close();
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        verify(table, times(3)).scan(any());
+    }
+
+    /**
+     * Should save the replica once loaded, then start from the saved snapshot and only fetch changed records
+     */
+    @Test
+    public void snapshotTest() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+        ReplicaConfiguration config = ReplicaConfiguration.builder().snapshotFile(file).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        JavaType recordType = objectMapper.getTypeFactory().constructParametricType(Record.class, DummyRow.class);
+        when(table.getRecordReader()).thenReturn(objectMapper.readerFor(recordType));
+        when(table.getRecordWriter()).thenReturn(objectMapper.writerFor(recordType));
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(record1, record2));
+        TableReplica<DummyRow> replica = buildReplica(config);
+        Flowable.fromPublisher(replica.start()).test().assertResult(2);
+        scheduler.triggerActions();
+        replica.close();
+        assertTrue(Files.exists(file));
+
+        Record<DummyRow> updated = Record.of("abc", new DummyRow("1", "updated", 12), "today");
+        when(table.scan(Query.builder()
+                .filterByFormula("IS_AFTER(LAST_MODIFIED_TIME(),'2019-12-31T23:59:50Z')")
+                .build())).thenReturn(Flowable.just(updated));
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(updated));
+        TableReplica<DummyRow> warm = buildReplica(config);
+        Flowable.fromPublisher(warm.start()).test().assertResult(2);
+
+        assertTrue(warm.isReady());
+        assertEquals(record2, warm.get("def"));
+        scheduler.triggerActions();
+        assertEquals(updated, warm.get("abc"));
+
+        warm.reconcile().test().assertComplete();
+        assertNull(warm.get("def"));
+        assertEquals(1, warm.size());
+        assertThat(warm.getAll()).containsExactly(updated);
+    }
+
+    /**
+     * Should run queries against the loaded records
+     */
+    @Test
+    public void selectTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder().build());
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(record1, record2));
+        when(table.getType()).thenReturn(DummyRow.class);
+        when(table.getObjectMapper()).thenReturn(new ObjectMapper());
+        Flowable.fromPublisher(replica.start()).test().assertResult(2);
+
+        assertThat(replica.select(Query.builder().filterByFormula("{number} > 12").build())).containsExactly(record2);
+        assertThat(replica.select(Query.builder().sort(new Sort("number", Sort.Direction.desc)).build()))
+                .containsExactly(record2, record1);
+    }
+
+    /**
+     * Should build indexes from the loaded records and keep them up to date as records change and are removed
+     */
+    @Test
+    public void indexTest() {
+        TableReplica<DummyRow> replica = buildReplica(ReplicaConfiguration.builder()
+                .lastModifiedField("Modified")
+                .reconcileInterval(null)
+                .build());
+        HashIndex<String, DummyRow> byName = replica.addIndex(HashIndex.of(DummyRow::getName));
+        Record<DummyRow> updated = Record.of("abc", new DummyRow("1", "renamed", 20), "today");
+        when(table.scan(Query.builder().build())).thenReturn(Flowable.just(record1, record2));
+        when(table.scan(argThat(query -> query != null && query.getFilterByFormula() != null)))
+                .thenReturn(Flowable.just(updated));
+        when(table.scan(Query.builder().field("Modified").build())).thenReturn(Flowable.just(
+                Record.of("abc", new DummyRow(), "today")));
+        Flowable.fromPublisher(replica.start()).test().assertResult(2);
+        SortedIndex<Integer, DummyRow> byNumber = replica.addIndex(SortedIndex.of(DummyRow::getNumber));
+
+        assertEquals(record1, byName.getFirst("name"));
+        assertThat(byNumber.tailFrom(12, true)).containsExactly(record1, record2);
+
+        scheduler.advanceTimeBy(30, TimeUnit.SECONDS);
+        assertNull(byName.getFirst("name"));
+        assertEquals(updated, byName.getFirst("renamed"));
+        assertThat(byNumber.getAll()).containsExactly(record2, updated);
+
+        replica.reconcile().test().assertComplete();
+        assertThat(byName.get("name2")).isEmpty();
+        assertThat(byNumber.getAll()).containsExactly(updated);
+    }
+
+    /**
+     * Should fail a sync while the circuit breaker is open and leave the watermark unchanged, even when the replica is
+     * the table's read fallback, so the changes made during the outage are fetched once it closes
+     */
+    @Test
+    public void syncCircuitOpenTest() throws IOException, InterruptedException {
+        AirtableHttpClient httpClient = mock(AirtableHttpClient.class);
+        ObjectMapper objectMapper = new ObjectMapper();
+        AsyncTable<DummyRow> circuitBreakerTable = new AsyncTable<>("https://localhost/base/table", "1234", DummyRow.class,
+                httpClient, objectMapper, RateLimiter.unlimited(), RecordCache.disabled(), TableOptions.builder()
+                .circuitBreaker(new CircuitBreaker("base", CircuitBreakerConfiguration.builder().build()))
+                .build());
+        Clock clock = mock(Clock.class);
+        when(clock.instant()).thenReturn(START, START.plusSeconds(60), START.plusSeconds(120));
+        // the name holds the modified time so the replica can evaluate the sync's formula locally
+        Record<DummyRow> record = Record.of("abc", new DummyRow("1", "2019-12-01T00:00:00.000Z", 12), "today");
+        TableReplica<DummyRow> replica = new TableReplica<>(circuitBreakerTable, ReplicaConfiguration.builder()
+                .lastModifiedField("name")
+                .reconcileInterval(null)
+                .build(), clock, scheduler);
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream(
+                objectMapper.writeValueAsBytes(new RecordPage<>(Arrays.asList(record), null))));
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(response));
+        Flowable.fromPublisher(replica.start()).test().await().assertResult(1);
+        circuitBreakerTable.setReadFallback(replica);
+
+        when(httpClient.execute(any(), any(), any(), any()))
+                .thenReturn(Single.error(new AirtableCircuitOpenException("base", Duration.ofSeconds(1))));
+        replica.sync().test().await().assertError(AirtableCircuitOpenException.class);
+
+        Response empty = mock(Response.class);
+        when(empty.getStatusCode()).thenReturn(200);
+        when(empty.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream(
+                objectMapper.writeValueAsBytes(new RecordPage<>(Collections.emptyList(), null))));
+        when(httpClient.execute(any(), any(), any(), any())).thenReturn(Single.just(empty));
+        replica.sync().test().await().assertComplete();
+
+        ArgumentCaptor<Request> request = ArgumentCaptor.forClass(Request.class);
+        verify(httpClient, times(3)).execute(request.capture(), any(), any(), any());
+        assertThat(URLDecoder.decode(request.getValue().getUrl(), "UTF-8"))
+                .contains("IS_AFTER({name},'2019-12-31T23:59:50Z')");
+        replica.close();
+    }
+
+    private TableReplica<DummyRow> buildReplica(ReplicaConfiguration config) {
+        return new TableReplica<>(table, config, Clock.fixed(START, ZoneOffset.UTC), scheduler);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class TableSnapshotTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "name", 12), "today");
+    private Record<DummyRow> record2 = Record.of("déf", new DummyRow("2", "name2", 13), "tomorrow");
+
+    /**
+     * Should read back the watermark and each record that was written
+     */
+    @Test
+    public void writeAndOpenTest() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+        Instant watermark = Instant.parse("2020-01-01T00:00:00.123Z");
+        TableSnapshot.write(file, Arrays.asList(record1, record2), watermark, DummyRow.class, objectMapper);
+
+        try (TableSnapshot<DummyRow> snapshot = TableSnapshot.open(file, DummyRow.class, objectMapper)) {
+            assertEquals(watermark, snapshot.getWatermark());
+            assertEquals(2, snapshot.size());
+            assertThat(snapshot.getIds()).containsExactlyInAnyOrder("abc", "déf");
+            assertEquals(record1, snapshot.get("abc"));
+            assertEquals(record2, snapshot.get("déf"));
+            assertNull(snapshot.get("ghi"));
+        }
+    }
+
+    /**
+     * Should replace an existing snapshot and not leave temporary files behind
+     */
+    @Test
+    public void writeReplaceTest() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+        TableSnapshot.write(file, Arrays.asList(record1, record2), Instant.EPOCH, DummyRow.class, objectMapper);
+        TableSnapshot.write(file, Collections.singletonList(record2), Instant.EPOCH, DummyRow.class, objectMapper);
+
+        try (TableSnapshot<DummyRow> snapshot = TableSnapshot.open(file, DummyRow.class, objectMapper)) {
+            assertEquals(1, snapshot.size());
+            assertEquals(record2, snapshot.get("déf"));
+        }
+        assertEquals(1, folder.getRoot().list().length);
+    }
+
+    /**
+     * Should fail to open a file that is not a snapshot
+     */
+    @Test(expected = IOException.class)
+    public void openInvalidTest() throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, "{\"records\":[],\"offset\":\"abc\"}".getBytes());
+
+        TableSnapshot.open(file, DummyRow.class, objectMapper);
+    }
+
+    /**
+     * Should fail to read records once closed
+     */
+    @Test(expected = IllegalStateException.class)
+    public void getClosedTest() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("table.snapshot");
+        TableSnapshot.write(file, Collections.singletonList(record1), Instant.EPOCH, DummyRow.class, objectMapper);
+        TableSnapshot<DummyRow> snapshot = TableSnapshot.open(file, DummyRow.class, objectMapper);
+        snapshot.close();
+
+        snapshot.get("abc");
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.formula;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class FormulaTest {
+
+    private final Map<String, Object> fields = new HashMap<>();
+    private final FormulaContext context = new FormulaContext() {
+        @Override
+        public Object getField(String name) {
+            return fields.get(name);
+        }
+
+        @Override
+        public String getRecordId() {
+            return "rec123";
+        }
+
+        @Override
+        public String getCreatedTime() {
+            return "2020-01-02T03:04:05.000Z";
+        }
+    };
+
+    {
+        fields.put("Name", "Alice");
+        fields.put("Count", 3);
+        fields.put("Price", 2.5);
+        fields.put("Done", true);
+        fields.put("Empty", null);
+        fields.put("Tags", Arrays.asList("red", "blue"));
+        fields.put("Due", "2020-06-15");
+        fields.put("Full Name", "Alice Smith");
+    }
+
+    /**
+     * Should evaluate formulas the same way Airtable does, where blank fields equal empty text, false, and 0
+     */
+    @Test
+    public void evaluateTest() {
+        Object[][] cases = {
+                {"{Name} = 'Alice'", true},
+                {"Name = \"Alice\"", true},
+                {"{Name} != 'Bob'", true},
+                {"{Name} = 'alice'", false},
+                {"{Full Name} = 'Alice Smith'", true},
+                {"{Count} > 2", true},
+                {"{Count} >= 3", true},
+                {"{Count} < 3", false},
+                {"{Count} = '3'", true},
+                {"{Count} + {Price}", 5.5},
+                {"{Count} * 2 - 1", 5.0},
+                {"-{Count} + 10 / 4", -0.5},
+                {"({Count} + 1) * 2", 8.0},
+                {"{Name} & ' ' & {Count}", "Alice 3"},
+                {"{Done}", true},
+                {"{Done} = 1", true},
+                {"{Empty} = BLANK()", true},
+                {"{Empty} = ''", true},
+                {"{Empty} = 0", true},
+                {"{Empty} > 0", false},
+                {"{Name} = BLANK()", false},
+                {"{Tags}", "red, blue"},
+                {"FIND('blue', {Tags})", 6.0},
+                {"FIND('green', {Tags})", 0.0},
+                {"SEARCH('green', {Tags})", null},
+                {"AND({Count} > 1, {Name} = 'Alice')", true},
+                {"AND({Count} > 1, {Empty})", false},
+                {"OR({Empty}, {Done})", true},
+                {"XOR(TRUE(), TRUE())", false},
+                {"NOT({Empty})", true},
+                {"IF({Count} > 5, 'big', 'small')", "small"},
+                {"IF({Empty}, 'x')", null},
+                {"LEN({Name})", 5.0},
+                {"LOWER({Name})", "alice"},
+                {"UPPER({Name})", "ALICE"},
+                {"TRIM('  a b  ')", "a b"},
+                {"LEFT({Name}, 2)", "Al"},
+                {"RIGHT({Name}, 10)", "Alice"},
+                {"MID({Name}, 2, 3)", "lic"},
+                {"CONCATENATE({Name}, '-', {Count})", "Alice-3"},
+                {"SUBSTITUTE({Full Name}, ' ', '_')", "Alice_Smith"},
+                {"REGEX_MATCH({Name}, '^A.i')", true},
+                {"REGEX_MATCH({Name}, 'z')", false},
+                {"VALUE('$1,234.5')", 1234.5},
+                {"ABS(-{Price})", 2.5},
+                {"ROUND({Price})", 3.0},
+                {"ROUND(1.2345, 2)", 1.23},
+                {"RECORD_ID()", "rec123"},
+                {"RECORD_ID() = 'rec123'", true},
+                {"IS_AFTER({Due}, '2020-06-01')", true},
+                {"IS_BEFORE({Due}, '2020-06-01')", false},
+                {"IS_SAME({Due}, '2020-06-30', 'month')", true},
+                {"IS_SAME({Due}, '2020-06-30', 'day')", false},
+                {"IS_AFTER(CREATED_TIME(), '2020-01-01T00:00:00Z')", true},
+                {"IS_BEFORE({Empty}, '2020-01-01')", false},
+                {"DATETIME_PARSE('2020-01-02T03:04:05Z')", Instant.parse("2020-01-02T03:04:05Z")},
+                {"IS_AFTER(NOW(), TODAY())", true},
+                {"and(true(), not(false()))", true},
+        };
+        for (Object[] c : cases)
+            assertEquals((String) c[0], c[1], Formula.parse((String) c[0]).evaluate(context));
+    }
+
+    /**
+     * Should treat blank, zero, and empty text results as false
+     */
+    @Test
+    public void testTest() {
+        assertTrue(Formula.parse("{Name}").test(context));
+        assertFalse(Formula.parse("{Empty}").test(context));
+        assertFalse(Formula.parse("{Count} - 3").test(context));
+        assertFalse(Formula.parse("''").test(context));
+    }
+
+    /**
+     * Should report the fields a formula references
+     */
+    @Test
+    public void getFieldsTest() {
+        assertEquals(new LinkedHashSet<>(Arrays.asList("Name", "Full Name", "Count")),
+                Formula.parse("AND({Name} = 'a', {Full Name}, Count > 1, RECORD_ID() = 'x')").getFields());
+        assertEquals(Collections.emptySet(), Formula.parse("TRUE()").getFields());
+    }
+
+    /**
+     * Should reject invalid formulas and unsupported functions when parsing
+     */
+    @Test
+    public void parseErrorTest() {
+        String[] invalid = {"", "{Name", "'abc", "AND({Name}", "1 +", "{Name} = 'a' )", "LEN()", "NOT(1, 2)",
+                "ARRAYJOIN({Tags})", "1..2", "#", "REGEX_MATCH({Name}, '(')"};
+        for (String formula : invalid) {
+            assertThatThrownBy(() -> Formula.parse(formula)).as(formula)
+                    .isInstanceOf(AirtableFormulaException.class);
+        }
+    }
+
+    /**
+     * Should read fields from beans by their JSON property name and from maps by key
+     */
+    @Test
+    public void toPredicateTest() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Formula formula = Formula.parse("AND({name} = 'a', number > 1)");
+
+        assertTrue(formula.toPredicate(DummyRow.class, objectMapper)
+                .test(Record.of("abc", new DummyRow("1", "a", 2), null)));
+        assertFalse(formula.toPredicate(DummyRow.class, objectMapper)
+                .test(Record.of("abc", new DummyRow("1", "a", null), null)));
+        assertFalse(formula.toPredicate(DummyRow.class, objectMapper).test(Record.of("abc", null, null)));
+
+        Map<String, Object> row = new HashMap<>();
+        row.put("name", "a");
+        row.put("number", 5);
+        assertTrue(formula.toPredicate(Map.class, objectMapper).test(Record.of("abc", row, null)));
+
+        assertThatThrownBy(() -> Formula.parse("{missing}").toPredicate(DummyRow.class, objectMapper))
+                .isInstanceOf(AirtableFormulaException.class)
+                .hasMessageContaining("missing");
+        assertThat(Formula.parse("{name}").toString()).isEqualTo("{name}");
+    }
+}
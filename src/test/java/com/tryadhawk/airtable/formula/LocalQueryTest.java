@@ -0,0 +1,82 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.formula;
+
+import java.util.Arrays;
+import java.util.List;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.Query;
+import com.tryadhawk.airtable.Sort;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalQueryTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Record<DummyRow> record1 = Record.of("abc", new DummyRow("1", "b", 12), null);
+    private final Record<DummyRow> record2 = Record.of("def", new DummyRow("2", "a", 13), null);
+    private final Record<DummyRow> record3 = Record.of("ghi", new DummyRow("3", null, 9), null);
+    private final List<Record<DummyRow>> records = Arrays.asList(record1, record2, record3);
+
+    /**
+     * Should return every record when the query has no filter, sorts, or max records
+     */
+    @Test
+    public void selectAllTest() {
+        assertThat(LocalQuery.select(records, Query.builder().build(), DummyRow.class, objectMapper))
+                .containsExactly(record1, record2, record3);
+    }
+
+    /**
+     * Should filter, sort, and limit records
+     */
+    @Test
+    public void selectTest() {
+        Query query = Query.builder()
+                .filterByFormula("{number} > 10")
+                .sort(new Sort("name"))
+                .build();
+        assertThat(LocalQuery.select(records, query, DummyRow.class, objectMapper)).containsExactly(record2, record1);
+
+        query = query.toBuilder().maxRecords(1).build();
+        assertThat(LocalQuery.select(records, query, DummyRow.class, objectMapper)).containsExactly(record2);
+    }
+
+    /**
+     * Should sort blank values first when ascending and last when descending
+     */
+    @Test
+    public void selectSortTest() {
+        Query query = Query.builder().sort(new Sort("name")).build();
+        assertThat(LocalQuery.select(records, query, DummyRow.class, objectMapper))
+                .containsExactly(record3, record2, record1);
+
+        query = Query.builder().sort(new Sort("name", Sort.Direction.desc)).build();
+        assertThat(LocalQuery.select(records, query, DummyRow.class, objectMapper))
+                .containsExactly(record1, record2, record3);
+
+        query = Query.builder().sort(new Sort("number", Sort.Direction.desc)).build();
+        assertThat(LocalQuery.select(records, query, DummyRow.class, objectMapper))
+                .containsExactly(record2, record1, record3);
+    }
+}
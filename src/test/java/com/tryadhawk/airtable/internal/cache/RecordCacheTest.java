@@ -0,0 +1,151 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.cache;
+
+import java.time.Duration;
+import com.tryadhawk.airtable.CacheConfiguration;
+import com.tryadhawk.airtable.CacheStats;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RecordCacheTest {
+
+    private long now = 0;
+    private RecordCache<String> cache = new RecordCache<>(CacheConfiguration.builder()
+            .maximumSize(2)
+            .expireAfterWrite(Duration.ofSeconds(10))
+            .expireMissingAfterWrite(Duration.ofSeconds(1))
+            .build(), () -> now);
+
+    /**
+     * Should return cached records and count hits and misses
+     */
+    @Test
+    public void getTest() {
+        cache.put("abc", "value");
+
+        assertEquals("value", cache.get("abc").getValue());
+        assertNull(cache.get("def"));
+        assertEquals(new CacheStats(1, 1, 0, 1), cache.stats());
+    }
+
+    /**
+     * Should remove records once they have expired
+     */
+    @Test
+    public void expireTest() {
+        cache.put("abc", "value");
+        now = Duration.ofSeconds(10).toNanos();
+
+        assertNull(cache.get("abc"));
+        assertEquals(new CacheStats(0, 1, 0, 0), cache.stats());
+    }
+
+    /**
+     * Should keep expired records for stale lookups if expired records are retained, without counting the lookups
+     */
+    @Test
+    public void getStaleTest() {
+        RecordCache<String> retaining = new RecordCache<>(CacheConfiguration.builder()
+                .expireAfterWrite(Duration.ofSeconds(10))
+                .build(), true, () -> now);
+        retaining.put("abc", "value");
+        cache.put("abc", "value");
+        now = Duration.ofSeconds(10).toNanos();
+
+        assertNull(retaining.get("abc"));
+        assertEquals("value", retaining.getStale("abc").getValue());
+        assertNull(retaining.getStale("def"));
+        assertEquals(new CacheStats(0, 1, 0, 1), retaining.stats());
+        assertNull(cache.get("abc"));
+        assertNull(cache.getStale("abc"));
+    }
+
+    /**
+     * Should evict the least recently used record when full
+     */
+    @Test
+    public void evictTest() {
+        cache.put("abc", "1");
+        cache.put("def", "2");
+        cache.get("abc");
+        cache.put("ghi", "3");
+
+        assertNull(cache.get("def"));
+        assertEquals("1", cache.get("abc").getValue());
+        assertEquals("3", cache.get("ghi").getValue());
+        assertEquals(1, cache.stats().getEvictionCount());
+    }
+
+    /**
+     * Should cache missing records with their own expiration
+     */
+    @Test
+    public void putMissingTest() {
+        AirtableServerException error = new AirtableServerException(404);
+        cache.putMissing("abc", error);
+
+        RecordCache.Entry<String> entry = cache.get("abc");
+        assertTrue(entry.isMissing());
+        assertSame(error, entry.getError());
+
+        now = Duration.ofSeconds(1).toNanos();
+        assertNull(cache.get("abc"));
+    }
+
+    /**
+     * Should not cache missing records if expireMissingAfterWrite is not set
+     */
+    @Test
+    public void putMissingDisabledTest() {
+        RecordCache<String> cache = new RecordCache<>(CacheConfiguration.builder().expireMissingAfterWrite(null).build());
+        cache.putMissing("abc", new AirtableServerException(404));
+
+        assertNull(cache.get("abc"));
+    }
+
+    /**
+     * Should remove invalidated records
+     */
+    @Test
+    public void invalidateTest() {
+        cache.put("abc", "value");
+        cache.invalidate("abc");
+
+        assertNull(cache.get("abc"));
+    }
+
+    /**
+     * The disabled cache should never store records
+     */
+    @Test
+    public void disabledTest() {
+        RecordCache<String> cache = RecordCache.disabled();
+        cache.put("abc", "value");
+
+        assertNull(cache.get("abc"));
+        assertEquals(new CacheStats(0, 0, 0, 0), cache.stats());
+    }
+}
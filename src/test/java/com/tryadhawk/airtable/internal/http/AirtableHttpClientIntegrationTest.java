@@ -0,0 +1,177 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.Airtable;
+import com.tryadhawk.airtable.Configuration;
+import com.tryadhawk.airtable.Query;
+import com.tryadhawk.airtable.Sort;
+import com.tryadhawk.airtable.SyncTable;
+import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.reactive.Backoff;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.test.FakeAirtableServer;
+import com.tryadhawk.airtable.v0.Record;
+import org.asynchttpclient.AsyncHttpClient;
+import org.asynchttpclient.Dsl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests {@link AirtableHttpClient} end to end against a {@link FakeAirtableServer}
+ */
+public class AirtableHttpClientIntegrationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private FakeAirtableServer server;
+    private AsyncHttpClient asyncHttpClient;
+    private SyncTable<DummyRow> table;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new FakeAirtableServer();
+        asyncHttpClient = Dsl.asyncHttpClient();
+        AirtableHttpClient httpClient = new AirtableHttpClient(asyncHttpClient, objectMapper,
+                new HttpResponseExceptionHandler(objectMapper),
+                Backoff.decorrelatedJitter(10, 100, TimeUnit.MILLISECONDS),
+                new RetryBudget(Configuration.RETRY_BUDGET, Configuration.RETRY_BUDGET_MIN_RETRIES), false,
+                HedgePolicy.disabled(), Duration.ofMillis(10));
+        Configuration config = Configuration.builder().apiKey("key").endpointUrl(server.getEndpointUrl())
+                .requestsPerSecond(null).build();
+        table = Airtable.builder().config(config).airtableHttpClient(httpClient).objectMapper(objectMapper).build()
+                .buildSyncTable("base1", "table1", DummyRow.class);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.close();
+        asyncHttpClient.close();
+    }
+
+    /**
+     * Should page through every record matching a query
+     */
+    @Test
+    public void selectPaginationTest() {
+        for (int i = 0; i < 250; ++i)
+            server.addRecord("base1", "table1", DummyRow.builder().name("name" + i).number(i).build());
+
+        List<Record<DummyRow>> all = table.select();
+        assertEquals(250, all.size());
+        assertEquals(3, server.getRequestCount());
+
+        List<Record<DummyRow>> matching = table.select(Query.builder().filterByFormula("{number} >= 125")
+                .sort(new Sort("number", Sort.Direction.desc)).pageSize(20).fields(Arrays.asList("number")).build());
+        assertEquals(125, matching.size());
+        assertEquals(249, (int) matching.get(0).getFields().getNumber());
+        assertTrue(matching.stream().allMatch(r -> r.getFields().getName() == null));
+    }
+
+    /**
+     * Should create, find, update, and delete records
+     */
+    @Test
+    public void crudTest() {
+        Record<DummyRow> created = table.create(DummyRow.builder().name("one").number(1).build());
+        List<Record<DummyRow>> batch = table.createAll(Arrays.asList(DummyRow.builder().name("two").build(),
+                DummyRow.builder().name("three").build()));
+        assertEquals("one", table.find(created.getId()).getFields().getName());
+
+        Record<DummyRow> updated = table.update(created.getId(), DummyRow.builder().number(10).build());
+        assertEquals("one", updated.getFields().getName());
+        assertEquals(10, (int) updated.getFields().getNumber());
+        List<Record<DummyRow>> updates = new ArrayList<>();
+        for (Record<DummyRow> record : batch)
+            updates.add(Record.of(record.getId(), DummyRow.builder().number(2).build(), null));
+        assertThat(table.updateAll(updates)).allMatch(r -> r.getFields().getNumber() == 2);
+
+        assertTrue(table.delete(created.getId()));
+        assertEquals(Arrays.asList(true, true),
+                table.deleteAll(batch.stream().map(Record::getId).collect(Collectors.toList())));
+        assertTrue(server.getRecords("base1", "table1").isEmpty());
+        assertThatThrownBy(() -> table.find(created.getId()))
+                .isInstanceOfSatisfying(AirtableServerException.class, e -> assertEquals(404, e.getStatusCode()));
+    }
+
+    /**
+     * Should retry requests rejected by the rate limit, retry reads after server errors, and fail writes after server
+     * errors
+     */
+    @Test
+    public void faultInjectionTest() {
+        server.addRecord("base1", "table1", DummyRow.builder().name("one").build());
+        server.failNext(429, 2);
+
+        assertEquals(1, table.select().size());
+        assertEquals(3, server.getRequestCount());
+        assertEquals(2, server.getFailureCount());
+
+        server.failNext(503, 2);
+        assertEquals(1, table.select().size());
+        assertEquals(6, server.getRequestCount());
+
+        server.failNext(503, 1);
+        assertThatThrownBy(() -> table.create(DummyRow.builder().name("two").build()))
+                .isInstanceOfSatisfying(AirtableServerException.class, e -> assertEquals(503, e.getStatusCode()));
+        assertEquals(1, server.getRecords("base1", "table1").size());
+    }
+
+    /**
+     * Should wait for the time in the Retry-After header before retrying
+     */
+    @Test
+    public void retryAfterTest() {
+        server.addRecord("base1", "table1", DummyRow.builder().name("one").build());
+        server.setRetryAfter(1).failNext(429, 1);
+
+        long start = System.nanoTime();
+        assertEquals(1, table.select().size());
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    /**
+     * Should add latency to every response
+     */
+    @Test
+    public void latencyTest() {
+        server.addRecord("base1", "table1", DummyRow.builder().name("one").build());
+        server.setLatency(200, 50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        assertFalse(table.select().isEmpty());
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+}
@@ -19,21 +19,44 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.AirtableEventListener;
+import com.tryadhawk.airtable.CircuitBreakerConfiguration;
+import com.tryadhawk.airtable.Configuration;
+import com.tryadhawk.airtable.RequestContext;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
 import com.tryadhawk.airtable.exception.AirtableServerException;
+import com.tryadhawk.airtable.internal.reactive.Backoff;
 import io.reactivex.rxjava3.core.Single;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
 import org.asynchttpclient.RequestBuilder;
 import org.asynchttpclient.Response;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class AirtableHttpClientTest {
@@ -41,7 +64,10 @@ public class AirtableHttpClientTest {
     private AsyncHttpClient asyncHttpClient = mock(AsyncHttpClient.class);
     private ObjectMapper objectMapper = mock(ObjectMapper.class);
     private HttpResponseExceptionHandler exceptionHandler = mock(HttpResponseExceptionHandler.class);
-    private AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler, 1, 2);
+    private AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+            Backoff.decorrelatedJitter(10, 50, TimeUnit.MILLISECONDS),
+            new RetryBudget(Configuration.RETRY_BUDGET, Configuration.RETRY_BUDGET_MIN_RETRIES), false,
+            HedgePolicy.disabled(), Duration.ofMillis(200));
 
     /**
      * Should execute the request through AsyncHttpClient, check the response status with exception handler,
@@ -91,7 +117,7 @@ public class AirtableHttpClientTest {
     }
 
     /**
-     * Should automatically retry 429 status codes
+     * Should automatically retry 429 status codes, waiting out the rate limit delay when there is no Retry-After header
      */
     @Test
     public void executeRetryTest() throws ExecutionException, InterruptedException {
@@ -109,7 +135,348 @@ public class AirtableHttpClientTest {
         when(response.getStatusCode()).thenReturn(429);
         when(response2.getStatusCode()).thenReturn(200);
 
+        long start = System.nanoTime();
         client.execute(new RequestBuilder().build()).test().await().assertResult(response2);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    /**
+     * Should retry idempotent requests after server errors and network errors
+     */
+    @Test
+    public void executeRetryTransientTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        ListenableFuture<Response> future2 = buildFuture();
+        ListenableFuture<Response> future3 = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future).thenReturn(future2)
+                .thenReturn(future3);
+        Response response = mock(Response.class);
+        Response response3 = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(future2.get()).thenThrow(new ExecutionException(new IOException("Connection reset")));
+        when(future3.get()).thenReturn(response3);
+        when(exceptionHandler.handleError(any())).then(invocation ->
+                Single.error(new AirtableServerException(500, "", null, invocation.getArgument(0))));
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() == 503))).thenReturn(
+                Single.error(new AirtableServerException(503)));
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() != 503)))
+                .then(invocation -> Single.just(invocation.getArgument(0)));
+        when(response.getStatusCode()).thenReturn(503);
+        when(response3.getStatusCode()).thenReturn(200);
+
+        client.execute(new RequestBuilder("DELETE").setUrl("https://localhost/base/table").build())
+                .test().await().assertResult(response3);
+        verify(asyncHttpClient, times(3)).executeRequest(any(Request.class));
+    }
+
+    /**
+     * Should only retry creates and updates after server errors when opted in, but always retry listRecords
+     */
+    @Test
+    public void executeRetryNonIdempotentTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(503);
+        when(exceptionHandler.checkResponse(any())).thenReturn(Single.error(new AirtableServerException(503)));
+        Backoff backoff = Backoff.decorrelatedJitter(1, 2, TimeUnit.MILLISECONDS);
+
+        client.execute(new RequestBuilder("POST").setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        verify(asyncHttpClient, times(1)).executeRequest(any(Request.class));
+
+        client.execute(new RequestBuilder("POST").setUrl("https://localhost/base/table/listRecords").build())
+                .test().await().assertError(AirtableServerException.class);
+        verify(asyncHttpClient, times(7)).executeRequest(any(Request.class));
+
+        AirtableHttpClient retryingClient = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                backoff, RetryBudget.unlimited(), true);
+        retryingClient.execute(new RequestBuilder("PATCH").setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        verify(asyncHttpClient, times(13)).executeRequest(any(Request.class));
+    }
+
+    /**
+     * Should stop retrying server errors once the retry budget is spent
+     */
+    @Test
+    public void executeRetryBudgetTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(503);
+        when(exceptionHandler.checkResponse(any())).thenReturn(Single.error(new AirtableServerException(503)));
+        AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                Backoff.decorrelatedJitter(1, 2, TimeUnit.MILLISECONDS), new RetryBudget(0, 2), false);
+
+        client.execute(new RequestBuilder().setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        client.execute(new RequestBuilder().setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        // the first request is retried twice, spending the budget, the second is not retried
+        verify(asyncHttpClient, times(4)).executeRequest(any(Request.class));
+    }
+
+    /**
+     * Should not spend the retry budget on the last attempt, which is never retried
+     */
+    @Test
+    public void executeRetryBudgetLastAttemptTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(503);
+        when(exceptionHandler.checkResponse(any())).thenReturn(Single.error(new AirtableServerException(503)));
+        AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                Backoff.decorrelatedJitter(1, 2, TimeUnit.MILLISECONDS), new RetryBudget(0, 6), false);
+
+        client.execute(new RequestBuilder().setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        client.execute(new RequestBuilder().setUrl("https://localhost/base/table").build())
+                .test().await().assertError(AirtableServerException.class);
+        // the first request is retried 5 times, leaving one retry in the budget for the second
+        verify(asyncHttpClient, times(8)).executeRequest(any(Request.class));
+    }
+
+    /**
+     * Should fail requests without sending them once the circuit breaker opens, without retrying them
+     */
+    @Test
+    public void executeCircuitOpenTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(503);
+        when(exceptionHandler.checkResponse(any())).thenReturn(Single.error(new AirtableServerException(503)));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("base", CircuitBreakerConfiguration.builder()
+                .minimumRequests(2)
+                .build());
+        Request request = new RequestBuilder("POST").setUrl("https://localhost/base/table").build();
+
+        for (int i = 0; i < 2; ++i)
+            client.execute(request, RateLimiter.unlimited(), circuitBreaker, RequestEvents.disabled())
+                    .test().await().assertError(AirtableServerException.class);
+        client.execute(request, RateLimiter.unlimited(), circuitBreaker, RequestEvents.disabled())
+                .test().await().assertError(AirtableCircuitOpenException.class);
+        verify(asyncHttpClient, times(2)).executeRequest(any(Request.class));
+        verify(exceptionHandler, never()).handleError(any());
+    }
+
+    /**
+     * Should wait for the time in the Retry-After header before retrying
+     */
+    @Test
+    public void executeRetryAfterTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        ListenableFuture<Response> future2 = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future).thenReturn(future2);
+        Response response = mock(Response.class);
+        Response response2 = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(future2.get()).thenReturn(response2);
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() == 429))).thenReturn(
+                Single.error(new AirtableServerException(429, null, null, Duration.ofMillis(300), null)));
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() != 429)))
+                .then(invocation -> Single.just(invocation.getArgument(0)));
+        when(response.getStatusCode()).thenReturn(429);
+        when(response2.getStatusCode()).thenReturn(200);
+
+        long start = System.nanoTime();
+        client.execute(new RequestBuilder().build()).test().await().assertResult(response2);
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    /**
+     * Should wait for a permit from the rate limiter before executing the request
+     */
+    @Test
+    public void executeRateLimitedTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(exceptionHandler.checkResponse(any())).then(invocation -> Single.just(invocation.getArgument(0)));
+        TestScheduler scheduler = new TestScheduler();
+        RateLimiter rateLimiter = new RateLimiter(1, 1, () -> 0, scheduler);
+        rateLimiter.reserve();
+
+        TestObserver<Response> observer = client.execute(new RequestBuilder().build(), rateLimiter).test();
+        verify(asyncHttpClient, never()).executeRequest(any(Request.class));
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        observer.await().assertResult(response);
+    }
+
+    /**
+     * Should send a second copy of a slow GET once the hedge delay has passed, use the first response, and cancel the
+     * other request
+     */
+    @Test
+    public void executeHedgedTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> pending = buildPendingFuture();
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(pending).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(200);
+        when(exceptionHandler.checkResponse(any())).then(invocation -> Single.just(invocation.getArgument(0)));
+        TestScheduler scheduler = new TestScheduler();
+        AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                Backoff.decorrelatedJitter(10, 50, TimeUnit.MILLISECONDS), RetryBudget.unlimited(), false,
+                buildHedgePolicy(scheduler));
+
+        TestObserver<Response> observer = client.execute(new RequestBuilder().build()).test();
+        scheduler.advanceTimeBy(99, TimeUnit.MILLISECONDS);
+        verify(asyncHttpClient, times(1)).executeRequest(any(Request.class));
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+
+        observer.await().assertResult(response);
+        verify(asyncHttpClient, times(2)).executeRequest(any(Request.class));
+        verify(pending).cancel(true);
+    }
+
+    /**
+     * Should ignore a hedge that gets an error response and use the response to the first request
+     */
+    @Test
+    public void executeHedgeErrorTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> slow = buildPendingFuture();
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(slow).thenReturn(future);
+        Response response = mock(Response.class);
+        Response response2 = mock(Response.class);
+        when(slow.get()).thenReturn(response);
+        when(future.get()).thenReturn(response2);
+        when(response.getStatusCode()).thenReturn(200);
+        when(response2.getStatusCode()).thenReturn(429);
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() == 429)))
+                .thenReturn(Single.error(new AirtableServerException(429)));
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() != 429)))
+                .then(invocation -> Single.just(invocation.getArgument(0)));
+        TestScheduler scheduler = new TestScheduler();
+        HedgePolicy hedgePolicy = spy(buildHedgePolicy(scheduler));
+        AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                Backoff.decorrelatedJitter(10, 50, TimeUnit.MILLISECONDS), RetryBudget.unlimited(), false,
+                hedgePolicy);
+
+        TestObserver<Response> observer = client.execute(new RequestBuilder().build()).test();
+        scheduler.advanceTimeBy(100, TimeUnit.MILLISECONDS);
+        verify(asyncHttpClient, times(2)).executeRequest(any(Request.class));
+        observer.assertNotComplete().assertNoErrors();
+
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(slow).addListener(listener.capture(), any());
+        listener.getValue().run();
+
+        observer.await().assertResult(response);
+        verify(asyncHttpClient, times(2)).executeRequest(any(Request.class));
+        // only the successful response is timed
+        verify(hedgePolicy, times(1)).record(anyLong());
+    }
+
+    /**
+     * Should not hedge a GET if the rate limiter has no permit available without waiting
+     */
+    @Test
+    public void executeHedgeRateLimitedTest() {
+        ListenableFuture<Response> pending = buildPendingFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(pending);
+        TestScheduler scheduler = new TestScheduler();
+        AirtableHttpClient client = new AirtableHttpClient(asyncHttpClient, objectMapper, exceptionHandler,
+                Backoff.decorrelatedJitter(10, 50, TimeUnit.MILLISECONDS), RetryBudget.unlimited(), false,
+                buildHedgePolicy(scheduler));
+
+        TestObserver<Response> observer = client.execute(new RequestBuilder().build(),
+                new RateLimiter(1, 1, () -> 0, scheduler)).test();
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        verify(asyncHttpClient, times(1)).executeRequest(any(Request.class));
+
+        observer.dispose();
+        verify(pending).cancel(true);
+    }
+
+    /**
+     * Should send an event for each attempt, response, rate limit delay, and retry
+     */
+    @Test
+    public void executeEventsTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        ListenableFuture<Response> future2 = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future).thenReturn(future2);
+        Response response = mock(Response.class);
+        Response response2 = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        when(future2.get()).thenReturn(response2);
+        AirtableServerException error = new AirtableServerException(429);
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() == 429)))
+                .thenReturn(Single.error(error));
+        when(exceptionHandler.checkResponse(argThat(arg -> arg != null && arg.getStatusCode() != 429)))
+                .then(invocation -> Single.just(invocation.getArgument(0)));
+        when(response.getStatusCode()).thenReturn(429);
+        when(response.hasResponseBody()).thenReturn(true);
+        when(response2.getStatusCode()).thenReturn(200);
+        when(response2.getHeader("Content-Length")).thenReturn("42");
+        RateLimiter rateLimiter = new RateLimiter(1, 1, () -> 0, new TestScheduler());
+        AirtableEventListener listener = mock(AirtableEventListener.class);
+        RequestContext context = RequestContext.builder().table("table").build();
+
+        client.execute(new RequestBuilder().build(), RateLimiter.unlimited(), new RequestEvents(listener, context))
+                .test().await().assertResult(response2);
+        client.execute(new RequestBuilder().build(), rateLimiter, new RequestEvents(listener, context)).test();
+        client.execute(new RequestBuilder().build(), rateLimiter, new RequestEvents(listener, context)).test();
+
+        InOrder events = inOrder(listener);
+        events.verify(listener).onRequestStart(context);
+        events.verify(listener).onResponse(eq(context), eq(429), anyLong(), eq(-1L));
+        events.verify(listener).onRetryScheduled(eq(context), eq(1), anyLong(), eq(error));
+        events.verify(listener).onRequestStart(context);
+        events.verify(listener).onResponse(eq(context), eq(200), anyLong(), eq(42L));
+        events.verify(listener).onRateLimited(context, TimeUnit.SECONDS.toNanos(1));
+        verify(listener, never()).onError(any(), any(), anyLong());
+        verify(response, never()).getResponseBodyAsBytes();
+    }
+
+    /**
+     * Should send an event when a request fails and will not be retried
+     */
+    @Test
+    public void executeErrorEventsTest() throws ExecutionException, InterruptedException {
+        ListenableFuture<Response> future = buildFuture();
+        when(asyncHttpClient.executeRequest(any(Request.class))).thenReturn(future);
+        Response response = mock(Response.class);
+        when(future.get()).thenReturn(response);
+        AirtableServerException error = new AirtableServerException(422);
+        when(exceptionHandler.checkResponse(any())).thenReturn(Single.error(error));
+        when(response.getStatusCode()).thenReturn(422);
+        AirtableEventListener listener = mock(AirtableEventListener.class);
+        RequestContext context = RequestContext.builder().table("table").build();
+
+        client.execute(new RequestBuilder().build(), RateLimiter.unlimited(), new RequestEvents(listener, context))
+                .test().await().assertError(error);
+
+        verify(listener).onResponse(eq(context), eq(422), anyLong(), eq(0L));
+        verify(listener).onError(eq(context), eq(error), anyLong());
+        verify(listener, never()).onRetryScheduled(any(), anyInt(), anyLong(), any());
+    }
+
+    /**
+     * @return a policy that hedges after 100ms, from the latencies already recorded
+     */
+    private HedgePolicy buildHedgePolicy(TestScheduler scheduler) {
+        AtomicLong now = new AtomicLong();
+        HedgePolicy hedgePolicy = new HedgePolicy(90, 10, TimeUnit.MILLISECONDS, now::get, scheduler);
+        for (int i = 0; i < 20; ++i)
+            hedgePolicy.record(TimeUnit.MILLISECONDS.toNanos(100));
+        now.set(TimeUnit.SECONDS.toNanos(10));
+        return hedgePolicy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ListenableFuture<T> buildPendingFuture() {
+        return mock(ListenableFuture.class);
     }
 
     @SuppressWarnings("unchecked")
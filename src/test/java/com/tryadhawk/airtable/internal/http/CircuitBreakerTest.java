@@ -0,0 +1,180 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.http;
+
+import java.time.Duration;
+import com.tryadhawk.airtable.CircuitBreakerConfiguration;
+import com.tryadhawk.airtable.exception.AirtableCircuitOpenException;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CircuitBreakerTest {
+
+    private long now = 0;
+    private CircuitBreaker circuitBreaker = new CircuitBreaker("base", CircuitBreakerConfiguration.builder()
+            .minimumRequests(4)
+            .failureRateThreshold(0.5)
+            .slowRequestDuration(Duration.ofSeconds(1))
+            .slowRequestRateThreshold(0.75)
+            .window(Duration.ofSeconds(10))
+            .openDuration(Duration.ofSeconds(5))
+            .halfOpenRequests(2)
+            .build(), () -> now);
+
+    /**
+     * Should open once the failure rate reaches the threshold after the min number of requests
+     */
+    @Test
+    public void failureRateTest() {
+        circuitBreaker.acquire().failed();
+        circuitBreaker.acquire().responded(503);
+        circuitBreaker.acquire().responded(200);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.acquire().responded(404);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        now = Duration.ofSeconds(2).toNanos();
+        assertThatThrownBy(() -> circuitBreaker.acquire())
+                .isInstanceOf(AirtableCircuitOpenException.class)
+                .satisfies(e -> {
+                    assertEquals("base", ((AirtableCircuitOpenException) e).getBaseId());
+                    assertEquals(Duration.ofSeconds(3), ((AirtableCircuitOpenException) e).getRetryAfter());
+                });
+    }
+
+    /**
+     * Should open once the slow request rate reaches the threshold
+     */
+    @Test
+    public void slowRateTest() {
+        for (int i = 0; i < 3; ++i) {
+            CircuitBreaker.Permit permit = circuitBreaker.acquire();
+            now += Duration.ofSeconds(1).toNanos();
+            permit.responded(200);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        CircuitBreaker.Permit permit = circuitBreaker.acquire();
+        now += Duration.ofSeconds(1).toNanos();
+        permit.responded(200);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Should not count rate limited or cancelled requests, or requests outside the window
+     */
+    @Test
+    public void notCountedTest() {
+        circuitBreaker.acquire().responded(429);
+        circuitBreaker.acquire().cancelled();
+        circuitBreaker.acquire().failed();
+        circuitBreaker.acquire().failed();
+        now = Duration.ofSeconds(10).toNanos();
+        circuitBreaker.acquire().failed();
+        circuitBreaker.acquire().responded(200);
+        circuitBreaker.acquire().responded(200);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Should allow the half open requests once open for the open duration and close once they all succeed
+     */
+    @Test
+    public void halfOpenCloseTest() {
+        open();
+        now += Duration.ofSeconds(5).toNanos();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        CircuitBreaker.Permit first = circuitBreaker.acquire();
+        CircuitBreaker.Permit second = circuitBreaker.acquire();
+        assertThatThrownBy(() -> circuitBreaker.acquire())
+                .isInstanceOf(AirtableCircuitOpenException.class)
+                .satisfies(e -> assertEquals(Duration.ZERO, ((AirtableCircuitOpenException) e).getRetryAfter()));
+
+        // a cancelled trial request hands its permit to the next request
+        second.cancelled();
+        second.cancelled();
+        CircuitBreaker.Permit third = circuitBreaker.acquire();
+        assertThatThrownBy(() -> circuitBreaker.acquire()).isInstanceOf(AirtableCircuitOpenException.class);
+
+        first.responded(200);
+        third.responded(200);
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        // the window is cleared when closed
+        circuitBreaker.acquire().failed();
+        circuitBreaker.acquire().failed();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    /**
+     * Should open again if a half open request fails or is slow
+     */
+    @Test
+    public void halfOpenReopenTest() {
+        open();
+        now += Duration.ofSeconds(5).toNanos();
+        circuitBreaker.acquire().responded(200);
+        circuitBreaker.acquire().responded(500);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        now += Duration.ofSeconds(5).toNanos();
+        CircuitBreaker.Permit permit = circuitBreaker.acquire();
+        now += Duration.ofSeconds(1).toNanos();
+        permit.responded(200);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    /**
+     * Should never open when disabled
+     */
+    @Test
+    public void disabledTest() {
+        CircuitBreaker disabled = CircuitBreaker.disabled();
+        for (int i = 0; i < 100; ++i)
+            disabled.acquire().failed();
+        assertEquals(CircuitBreaker.State.CLOSED, disabled.getState());
+        assertFalse(disabled.isEnabled());
+        assertFalse(disabled.isFallbackToCache());
+    }
+
+    /**
+     * Should reject settings that would never allow a request
+     */
+    @Test
+    public void invalidTest() {
+        assertThatThrownBy(() -> new CircuitBreaker("base",
+                CircuitBreakerConfiguration.builder().halfOpenRequests(0).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CircuitBreaker("base",
+                CircuitBreakerConfiguration.builder().minimumRequests(0).build()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(new CircuitBreaker("base", CircuitBreakerConfiguration.builder().build()).isEnabled()).isTrue();
+    }
+
+    private void open() {
+        for (int i = 0; i < 4; ++i)
+            circuitBreaker.acquire().failed();
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+}
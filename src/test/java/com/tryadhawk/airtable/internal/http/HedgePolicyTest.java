@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.concurrent.TimeUnit;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.withinPercentage;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class HedgePolicyTest {
+
+    private long now = 0;
+    private HedgePolicy hedgePolicy = new HedgePolicy(90, 50, TimeUnit.MILLISECONDS, () -> now, new TestScheduler());
+
+    /**
+     * Should not hedge until enough latencies have been recorded, then hedge after the percentile of the latencies
+     * recorded since the delay was last calculated, accurate to the histogram's 3%
+     */
+    @Test
+    public void delayTest() {
+        record(10, 100);
+        assertEquals(-1, hedgePolicy.getDelayNanos());
+        now = TimeUnit.SECONDS.toNanos(10);
+        assertEquals(-1, hedgePolicy.getDelayNanos());
+
+        record(18, 100);
+        record(2, 1000);
+        now = TimeUnit.SECONDS.toNanos(20);
+        assertThat(hedgePolicy.getDelayNanos()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(100), withinPercentage(3));
+
+        // the delay is kept until it is next calculated
+        record(20, 1000);
+        assertThat(hedgePolicy.getDelayNanos()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(100), withinPercentage(3));
+        now = TimeUnit.SECONDS.toNanos(30);
+        assertThat(hedgePolicy.getDelayNanos()).isCloseTo(TimeUnit.MILLISECONDS.toNanos(1000), withinPercentage(3));
+    }
+
+    /**
+     * Should not hedge sooner than the min delay
+     */
+    @Test
+    public void minDelayTest() {
+        record(20, 1);
+        now = TimeUnit.SECONDS.toNanos(10);
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(50), hedgePolicy.getDelayNanos());
+    }
+
+    /**
+     * Should never hedge when disabled
+     */
+    @Test
+    public void disabledTest() {
+        HedgePolicy disabled = HedgePolicy.disabled();
+        for (int i = 0; i < 100; ++i)
+            disabled.record(TimeUnit.MILLISECONDS.toNanos(100));
+        assertFalse(disabled.isEnabled());
+        assertEquals(-1, disabled.getDelayNanos());
+    }
+
+    /**
+     * Should reject a percentile outside 0 to 100
+     */
+    @Test
+    public void invalidTest() {
+        assertThatThrownBy(() -> new HedgePolicy(0, 50, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HedgePolicy(101, 50, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HedgePolicy(90, -1, TimeUnit.MILLISECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void record(int count, long millis) {
+        for (int i = 0; i < count; ++i)
+            hedgePolicy.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -19,6 +19,12 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.io.ByteArrayInputStream;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Objects;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tryadhawk.airtable.exception.AirtableServerException;
@@ -69,8 +75,8 @@ public class HttpResponseExceptionHandlerTest {
         when(response.getStatusCode()).thenReturn(500);
         when(response.getStatusText()).thenReturn("Internal server error");
         Error body = new Error("test-type", "test-message");
-        when(response.getResponseBody()).thenReturn(objectMapper.writeValueAsString(
-                new ErrorWrapper(body)));
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream(objectMapper.writeValueAsBytes(
+                new ErrorWrapper(body))));
 
         handler.checkResponse(response).test().await().assertError(e ->
                 e instanceof AirtableServerException &&
@@ -87,6 +93,7 @@ public class HttpResponseExceptionHandlerTest {
         Response response = mock(Response.class);
         when(response.getStatusCode()).thenReturn(500);
         when(response.getStatusText()).thenReturn("Internal server error");
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("whatever".getBytes()));
         when(response.getResponseBody()).thenReturn("whatever");
 
         handler.checkResponse(response).test().await().assertError(e ->
@@ -95,4 +102,31 @@ public class HttpResponseExceptionHandlerTest {
                         "Internal server error".equals(((AirtableServerException) e).getStatusText()) &&
                         new Error("UNDEFINED_ERROR", "whatever").equals(((AirtableServerException) e).getError()));
     }
+
+    /**
+     * Should parse a Retry-After header in seconds or as an HTTP date, ignoring invalid values
+     */
+    @Test
+    public void checkResponseRetryAfterTest() throws InterruptedException {
+        Clock clock = Clock.fixed(Instant.parse("2020-01-01T00:00:00Z"), ZoneOffset.UTC);
+        HttpResponseExceptionHandler handler = new HttpResponseExceptionHandler(objectMapper, clock);
+
+        assertRetryAfter(handler, "2", Duration.ofSeconds(2));
+        assertRetryAfter(handler, "Wed, 01 Jan 2020 00:00:30 GMT", Duration.ofSeconds(30));
+        assertRetryAfter(handler, "Tue, 31 Dec 2019 23:59:00 GMT", Duration.ZERO);
+        assertRetryAfter(handler, "soon", null);
+        assertRetryAfter(handler, null, null);
+    }
+
+    private void assertRetryAfter(HttpResponseExceptionHandler handler, String header, Duration expected)
+            throws InterruptedException {
+        Response response = mock(Response.class);
+        when(response.getStatusCode()).thenReturn(429);
+        when(response.getHeader("Retry-After")).thenReturn(header);
+        when(response.getResponseBodyAsStream()).thenReturn(new ByteArrayInputStream("{}".getBytes()));
+
+        handler.checkResponse(response).test().await().assertError(e ->
+                e instanceof AirtableServerException &&
+                        Objects.equals(expected, ((AirtableServerException) e).getRetryAfter()));
+    }
 }
@@ -19,12 +19,20 @@
 
 package com.tryadhawk.airtable.internal.http;
 
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tryadhawk.airtable.Query;
 import com.tryadhawk.airtable.Sort;
+import org.asynchttpclient.Param;
 import org.asynchttpclient.Request;
+import org.asynchttpclient.RequestBuilder;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class QueryRequestBuilderTest {
 
@@ -62,4 +70,50 @@ public class QueryRequestBuilderTest {
         assertEquals(url, arg.getUrl());
         assertEquals("GET", arg.getMethod());
     }
+
+    /**
+     * Should measure the URL length from the encoded query params without building the request
+     */
+    @Test
+    public void getUrlLengthTest() {
+        List<Param> params = Arrays.asList(new Param("fields[]", "Full Name"),
+                new Param("filterByFormula", "AND({Name} = 'Zoë & co', {Count} >= 10%)"),
+                new Param("sort[0][field]", "Due Date"));
+
+        Request arg = new RequestBuilder().setUrl("https://localhost/base/table").setQueryParams(params).build();
+        assertEquals(arg.getUrl().length(), QueryRequestBuilder.getUrlLength("https://localhost/base/table", params));
+    }
+
+    /**
+     * Should send the query as a POST to listRecords when the URL would be too long
+     */
+    @Test
+    public void buildRequestForQueryLongTest() throws IOException {
+        StringBuilder formula = new StringBuilder("OR(");
+        while (formula.length() <= QueryRequestBuilder.MAX_URL_LENGTH)
+            formula.append("RECORD_ID()='rec00000000000000',");
+        formula.append("FALSE())");
+        Query query = Query.builder()
+                .field("field1")
+                .sort(new Sort("field1", Sort.Direction.desc))
+                .view("test-view")
+                .pageSize(500)
+                .offset("a")
+                .filterByFormula(formula.toString())
+                .build();
+
+        Request arg = builder.buildRequestForQuery(query, "https://localhost/base/table").build();
+        assertEquals("https://localhost/base/table/listRecords", arg.getUrl());
+        assertEquals("POST", arg.getMethod());
+        assertEquals("application/json", arg.getHeaders().get("Content-Type"));
+        JsonNode body = new ObjectMapper().readTree(arg.getByteData());
+        assertEquals("field1", body.get("fields").get(0).asText());
+        assertEquals("field1", body.get("sort").get(0).get("field").asText());
+        assertEquals("desc", body.get("sort").get(0).get("direction").asText());
+        assertEquals("test-view", body.get("view").asText());
+        assertEquals(100, body.get("pageSize").asInt());
+        assertEquals("a", body.get("offset").asText());
+        assertEquals(formula.toString(), body.get("filterByFormula").asText());
+        assertNull(body.get("maxRecords"));
+    }
 }
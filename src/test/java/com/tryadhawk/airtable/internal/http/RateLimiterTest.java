@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.http;
+
+import java.util.concurrent.TimeUnit;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private long now = 0;
+    private TestScheduler scheduler = new TestScheduler();
+    private RateLimiter rateLimiter = new RateLimiter(5, 2, () -> now, scheduler);
+
+    /**
+     * Should allow a burst of requests without waiting and then space out requests at the configured rate
+     */
+    @Test
+    public void reserveTest() {
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(400), rateLimiter.reserve());
+    }
+
+    /**
+     * Should refill permits while the limiter is idle, up to the burst size
+     */
+    @Test
+    public void reserveRefillTest() {
+        rateLimiter.reserve();
+        rateLimiter.reserve();
+        now = TimeUnit.SECONDS.toNanos(10);
+
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(0, rateLimiter.reserve());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve());
+    }
+
+    /**
+     * Should take a permit only while one is available without waiting
+     */
+    @Test
+    public void tryAcquireTest() {
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), rateLimiter.reserve());
+
+        now = TimeUnit.MILLISECONDS.toNanos(400);
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+        assertTrue(RateLimiter.unlimited().tryAcquire());
+    }
+
+    /**
+     * Should complete immediately when a permit is available and after a delay on the scheduler otherwise
+     */
+    @Test
+    public void acquireTest() {
+        rateLimiter.acquire().test().assertComplete();
+        rateLimiter.acquire().test().assertComplete();
+
+        TestObserver<Void> observer = rateLimiter.acquire().test();
+        observer.assertNotComplete();
+        scheduler.advanceTimeBy(199, TimeUnit.MILLISECONDS);
+        observer.assertNotComplete();
+        scheduler.advanceTimeBy(1, TimeUnit.MILLISECONDS);
+        observer.assertComplete();
+    }
+
+    /**
+     * Should never delay when unlimited
+     */
+    @Test
+    public void unlimitedTest() {
+        for (int i = 0; i < 100; ++i)
+            assertEquals(0, RateLimiter.unlimited().reserve());
+    }
+}
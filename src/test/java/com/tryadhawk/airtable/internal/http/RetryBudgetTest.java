@@ -0,0 +1,79 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.http;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RetryBudgetTest {
+
+    /**
+     * Should allow the min retries, then one retry for each 1 / ratio requests
+     */
+    @Test
+    public void withdrawTest() {
+        RetryBudget budget = new RetryBudget(0.25, 2);
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+
+        for (int i = 0; i < 3; ++i) {
+            budget.deposit();
+            assertFalse(budget.tryWithdraw());
+        }
+        budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    /**
+     * Should not hold more than the min retries no matter how many requests are sent
+     */
+    @Test
+    public void capacityTest() {
+        RetryBudget budget = new RetryBudget(0.5, 2);
+        for (int i = 0; i < 100; ++i)
+            budget.deposit();
+        assertTrue(budget.tryWithdraw());
+        assertTrue(budget.tryWithdraw());
+        assertFalse(budget.tryWithdraw());
+    }
+
+    /**
+     * Should always allow retries when unlimited
+     */
+    @Test
+    public void unlimitedTest() {
+        for (int i = 0; i < 100; ++i)
+            assertTrue(RetryBudget.unlimited().tryWithdraw());
+    }
+
+    /**
+     * Should reject a ratio outside 0 to 1
+     */
+    @Test
+    public void invalidTest() {
+        assertThatThrownBy(() -> new RetryBudget(1.5, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RetryBudget(0.1, -1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.json;
+
+import java.util.HashMap;
+import java.util.Map;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tryadhawk.airtable.test.DummyRow;
+import lombok.Data;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class FieldProjectionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * Should find the JSON property names bound by a bean
+     */
+    @Test
+    public void findFieldsTest() {
+        assertThat(FieldProjection.findFields(DummyRow.class, objectMapper))
+                .containsExactlyInAnyOrder("rowId", "name", "number");
+        assertThat(FieldProjection.findFields(AnnotatedRow.class, objectMapper))
+                .containsExactlyInAnyOrder("Full Name", "Count");
+    }
+
+    /**
+     * Should not project types that can bind any property
+     */
+    @Test
+    public void findFieldsAnyTest() {
+        assertThat(FieldProjection.findFields(Map.class, objectMapper)).isEmpty();
+        assertThat(FieldProjection.findFields(JsonNode.class, objectMapper)).isEmpty();
+        assertThat(FieldProjection.findFields(Object.class, objectMapper)).isEmpty();
+        assertThat(FieldProjection.findFields(AnySetterRow.class, objectMapper)).isEmpty();
+    }
+
+    @Data
+    public static class AnnotatedRow {
+        @JsonProperty("Full Name")
+        private String name;
+        @JsonProperty("Count")
+        private int count;
+        @JsonIgnore
+        private String internal;
+
+        public String getComputed() {
+            return name + count;
+        }
+    }
+
+    @Data
+    public static class AnySetterRow {
+        private String name;
+        private final Map<String, Object> other = new HashMap<>();
+
+        @JsonAnySetter
+        public void setOther(String key, Object value) {
+            other.put(key, value);
+        }
+    }
+}
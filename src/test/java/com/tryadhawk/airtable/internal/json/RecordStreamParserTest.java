@@ -0,0 +1,100 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.json;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.tryadhawk.airtable.exception.AirtableMappingException;
+import com.tryadhawk.airtable.test.DummyRow;
+import com.tryadhawk.airtable.v0.Record;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecordStreamParserTest {
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+    private ObjectReader reader = objectMapper.readerFor(
+            objectMapper.getTypeFactory().constructParametricType(Record.class, DummyRow.class));
+
+    /**
+     * Should return each record in order and then the offset once all records have been read
+     */
+    @Test
+    public void nextTest() {
+        RecordStreamParser<DummyRow> parser = parse("{\"records\":[" +
+                "{\"id\":\"1\",\"fields\":{\"name\":\"a\",\"number\":1},\"createdTime\":\"today\"}," +
+                "{\"id\":\"2\",\"fields\":{\"name\":\"b\"},\"createdTime\":\"tomorrow\"}]," +
+                "\"offset\":\"next\"}");
+
+        assertEquals(Record.of("1", new DummyRow(null, "a", 1), "today"), parser.next());
+        assertNull(parser.getOffset());
+        assertEquals(Record.of("2", new DummyRow(null, "b", null), "tomorrow"), parser.next());
+        assertNull(parser.next());
+        assertEquals("next", parser.getOffset());
+    }
+
+    /**
+     * Should read the offset and skip unknown fields wherever they appear in the page
+     */
+    @Test
+    public void nextOffsetFirstTest() {
+        RecordStreamParser<DummyRow> parser = parse("{\"offset\":\"next\",\"other\":{\"a\":[1,2]}," +
+                "\"records\":[{\"id\":\"1\",\"fields\":{}}]}");
+
+        assertEquals(Record.of("1", new DummyRow(), null), parser.next());
+        assertNull(parser.next());
+        assertEquals("next", parser.getOffset());
+    }
+
+    /**
+     * Should return no records and no offset for an empty page
+     */
+    @Test
+    public void nextEmptyTest() {
+        RecordStreamParser<DummyRow> parser = parse("{\"records\":[]}");
+
+        assertNull(parser.next());
+        assertNull(parser.getOffset());
+    }
+
+    /**
+     * Should throw an AirtableMappingException if the body is not a JSON object
+     */
+    @Test(expected = AirtableMappingException.class)
+    public void notAnObjectTest() {
+        parse("1");
+    }
+
+    /**
+     * Should throw an AirtableMappingException if a record cannot be parsed
+     */
+    @Test(expected = AirtableMappingException.class)
+    public void invalidRecordTest() {
+        parse("{\"records\":[1]}").next();
+    }
+
+    private RecordStreamParser<DummyRow> parse(String json) {
+        return new RecordStreamParser<>(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), reader);
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BackoffTest {
+
+    /**
+     * Should wait between min and max for every retry
+     */
+    @Test
+    public void uniformTest() {
+        Backoff backoff = Backoff.uniform(1, 2, TimeUnit.SECONDS);
+        for (int i = 0; i < 1000; ++i)
+            assertThat(backoff.nextDelayNanos(TimeUnit.SECONDS.toNanos(2)))
+                    .isBetween(TimeUnit.SECONDS.toNanos(1), TimeUnit.SECONDS.toNanos(2));
+    }
+
+    /**
+     * Should wait between the base and three times the previous delay, capped
+     */
+    @Test
+    public void decorrelatedJitterTest() {
+        Backoff backoff = Backoff.decorrelatedJitter(100, 1000, TimeUnit.NANOSECONDS);
+        long previous = 0;
+        long highest = 0;
+        for (int i = 0; i < 1000; ++i) {
+            long delay = backoff.nextDelayNanos(previous);
+            assertThat(delay).isBetween(100L, Math.min(1000, Math.max(100, previous) * 3));
+            highest = Math.max(highest, delay);
+            previous = delay;
+        }
+        assertThat(highest).isGreaterThan(300);
+        assertThat(backoff.jitterNanos()).isBetween(0L, 100L);
+    }
+
+    /**
+     * Should reject a base delay over the cap
+     */
+    @Test
+    public void invalidTest() {
+        assertThatThrownBy(() -> Backoff.decorrelatedJitter(10, 5, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> Backoff.uniform(0, 5, TimeUnit.SECONDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
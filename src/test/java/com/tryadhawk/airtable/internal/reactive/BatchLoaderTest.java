@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.observers.TestObserver;
+import io.reactivex.rxjava3.schedulers.TestScheduler;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchLoaderTest {
+
+    private TestScheduler scheduler = new TestScheduler();
+    private List<List<Integer>> batches = new ArrayList<>();
+    private BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+        batches.add(keys);
+        return Flowable.fromIterable(keys).filter(key -> key < 10).map(String::valueOf);
+    }, Integer::valueOf, key -> new NoSuchElementException(key.toString()), 10, TimeUnit.MILLISECONDS, 3, scheduler);
+
+    /**
+     * Should load all keys added within the window with a single batch
+     */
+    @Test
+    public void loadWindowTest() {
+        TestObserver<String> first = loader.load(1).test();
+        TestObserver<String> second = loader.load(2).test();
+        TestObserver<String> duplicate = loader.load(1).test();
+        first.assertEmpty();
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        first.assertResult("1");
+        second.assertResult("2");
+        duplicate.assertResult("1");
+        assertEquals(Arrays.asList(Arrays.asList(1, 2)), batches);
+    }
+
+    /**
+     * Should load a batch as soon as it is full without waiting for the window
+     */
+    @Test
+    public void loadFullBatchTest() {
+        loader.load(1).test();
+        loader.load(2).test();
+        loader.load(3).test().assertResult("3");
+        TestObserver<String> next = loader.load(4).test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        next.assertResult("4");
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4)), batches);
+    }
+
+    /**
+     * Should not load the next batch early when the window of a batch that was loaded because it was full elapses
+     */
+    @Test
+    public void loadFullBatchWindowTest() {
+        loader.load(1).test();
+        loader.load(2).test();
+        loader.load(3).test().assertResult("3");
+        scheduler.advanceTimeBy(5, TimeUnit.MILLISECONDS);
+        TestObserver<String> next = loader.load(4).test();
+
+        scheduler.advanceTimeBy(5, TimeUnit.MILLISECONDS);
+        next.assertEmpty();
+        scheduler.advanceTimeBy(5, TimeUnit.MILLISECONDS);
+
+        next.assertResult("4");
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4)), batches);
+    }
+
+    /**
+     * Should fail loads for keys with no value in the batch results
+     */
+    @Test
+    public void loadNotFoundTest() {
+        TestObserver<String> found = loader.load(1).test();
+        TestObserver<String> missing = loader.load(11).test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        found.assertResult("1");
+        missing.assertError(NoSuchElementException.class);
+    }
+
+    /**
+     * Should fail every load in a batch if the batch fails
+     */
+    @Test
+    public void loadErrorTest() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Flowable.error(new IOException("test")),
+                Integer::valueOf, key -> new NoSuchElementException(), 10, TimeUnit.MILLISECONDS, 3, scheduler);
+        TestObserver<String> first = loader.load(1).test();
+        TestObserver<String> second = loader.load(2).test();
+
+        scheduler.advanceTimeBy(10, TimeUnit.MILLISECONDS);
+
+        first.assertError(IOException.class);
+        second.assertError(IOException.class);
+    }
+}
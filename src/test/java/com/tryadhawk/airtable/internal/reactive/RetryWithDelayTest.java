@@ -20,9 +20,14 @@
 package com.tryadhawk.airtable.internal.reactive;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import io.reactivex.rxjava3.core.Single;
 import org.junit.Test;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
 
 public class RetryWithDelayTest {
@@ -56,6 +61,25 @@ public class RetryWithDelayTest {
                 .assertError(IOException.class);
     }
 
+    /**
+     * Should not check the retry predicates after the last attempt
+     */
+    @Test
+    public void applyLastAttemptPredicateTest() throws InterruptedException {
+        int[] checks = { 0 };
+        Single<String> single = Single.error(new IOException("test"));
+
+        single.retryWhen(RetryWithDelay.builder()
+                        .backoff(Backoff.uniform(1, 2, TimeUnit.MILLISECONDS))
+                        .retries(2)
+                        .predicate(e -> ++checks[0] > 0)
+                        .build())
+                .test()
+                .await()
+                .assertError(IOException.class);
+        assertEquals(2, checks[0]);
+    }
+
     /**
      * Should not retry at all if a failure occurs that is not retryable
      */
@@ -89,4 +113,46 @@ public class RetryWithDelayTest {
                 .await()
                 .assertResult("test");
     }
+
+    /**
+     * Should wait for the delay requested by the error instead of the backoff
+     */
+    @Test
+    public void applyRetryAfterTest() throws InterruptedException {
+        int[] tries = { 0 };
+        long[] delays = { 0 };
+        Single<String> single = Single.just("test")
+                .flatMap(s -> ++tries[0] < 2 ? Single.error(new IOException()) : Single.just(s));
+
+        single.retryWhen(RetryWithDelay.builder()
+                        .backoff(Backoff.decorrelatedJitter(1, 5, TimeUnit.MILLISECONDS))
+                        .retryAfter(e -> Duration.ofMillis(200))
+                        .listener((retry, delayNanos, error) -> delays[0] = delayNanos)
+                        .build())
+                .test()
+                .await()
+                .assertResult("test");
+        assertThat(delays[0]).isBetween(TimeUnit.MILLISECONDS.toNanos(200), TimeUnit.MILLISECONDS.toNanos(201));
+    }
+
+    /**
+     * Should back off using the delay policy when no delay is requested
+     */
+    @Test
+    public void applyBackoffTest() throws InterruptedException {
+        int[] tries = { 0 };
+        List<Long> delays = new ArrayList<>();
+        Single<String> single = Single.just("test")
+                .flatMap(s -> ++tries[0] < 4 ? Single.error(new IOException()) : Single.just(s));
+
+        single.retryWhen(RetryWithDelay.builder()
+                        .backoff(Backoff.decorrelatedJitter(1, 20, TimeUnit.MILLISECONDS))
+                        .listener((retry, delayNanos, error) -> delays.add(delayNanos))
+                        .build())
+                .test()
+                .await()
+                .assertResult("test");
+        assertThat(delays).hasSize(3)
+                .allMatch(d -> d >= TimeUnit.MILLISECONDS.toNanos(1) && d <= TimeUnit.MILLISECONDS.toNanos(20));
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.reactive;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import io.reactivex.rxjava3.core.Flowable;
+import io.reactivex.rxjava3.processors.PublishProcessor;
+import io.reactivex.rxjava3.subscribers.TestSubscriber;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class SingleFlightTest {
+
+    private SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+    /**
+     * Concurrent subscribers for the same key should share one upstream subscription, with late subscribers receiving
+     * the items emitted before they subscribed
+     */
+    @Test
+    public void executeSharedTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        PublishProcessor<Integer> upstream = PublishProcessor.create();
+        Flowable<Integer> flowable = upstream.doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        TestSubscriber<Integer> first = singleFlight.execute("a", () -> flowable).test();
+        upstream.onNext(1);
+        TestSubscriber<Integer> second = singleFlight.execute("a", () -> flowable).test();
+        upstream.onNext(2);
+        upstream.onComplete();
+
+        first.assertResult(1, 2);
+        second.assertResult(1, 2);
+        assertEquals(1, subscriptions.get());
+        assertEquals(0, singleFlight.size());
+    }
+
+    /**
+     * Concurrent subscribers for the same key should receive the same error
+     */
+    @Test
+    public void executeSharedErrorTest() {
+        PublishProcessor<Integer> upstream = PublishProcessor.create();
+
+        TestSubscriber<Integer> first = singleFlight.execute("a", () -> upstream).test();
+        TestSubscriber<Integer> second = singleFlight.execute("a", () -> upstream).test();
+        upstream.onError(new IOException("test"));
+
+        first.assertError(IOException.class);
+        second.assertError(IOException.class);
+        assertEquals(0, singleFlight.size());
+    }
+
+    /**
+     * Subscribers for different keys should not share a subscription
+     */
+    @Test
+    public void executeDifferentKeysTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flowable<Integer> flowable = Flowable.<Integer>never().doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        singleFlight.execute("a", () -> flowable).test();
+        singleFlight.execute("b", () -> flowable).test();
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    /**
+     * Once a stream has terminated, the next subscriber should start a new stream
+     */
+    @Test
+    public void executeAfterCompleteTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flowable<Integer> flowable = Flowable.just(1).doOnSubscribe(s -> subscriptions.incrementAndGet());
+
+        singleFlight.execute("a", () -> flowable).test().assertResult(1);
+        singleFlight.execute("a", () -> flowable).test().assertResult(1);
+
+        assertEquals(2, subscriptions.get());
+    }
+
+    /**
+     * Once all subscribers have cancelled, the stream should be cancelled and no longer shared
+     */
+    @Test
+    public void executeCancelTest() {
+        PublishProcessor<Integer> upstream = PublishProcessor.create();
+
+        TestSubscriber<Integer> first = singleFlight.execute("a", () -> upstream).test();
+        TestSubscriber<Integer> second = singleFlight.execute("a", () -> upstream).test();
+        first.cancel();
+        assertEquals(1, singleFlight.size());
+        second.cancel();
+
+        assertEquals(false, upstream.hasSubscribers());
+        assertEquals(0, singleFlight.size());
+    }
+
+    /**
+     * The disabled instance should subscribe to a new stream for every subscriber
+     */
+    @Test
+    public void disabledTest() {
+        AtomicInteger subscriptions = new AtomicInteger();
+        Flowable<Integer> flowable = Flowable.<Integer>never().doOnSubscribe(s -> subscriptions.incrementAndGet());
+        SingleFlight<String, Integer> disabled = SingleFlight.disabled();
+
+        disabled.execute("a", () -> flowable).test();
+        disabled.execute("a", () -> flowable).test();
+
+        assertEquals(2, subscriptions.get());
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.internal.stats;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    /**
+     * Should map every value to a bucket whose range contains it, with no gaps between buckets
+     */
+    @Test
+    public void indexOfTest() {
+        int previous = 0;
+        for (long value = 0; value < 1 << 20; ++value) {
+            int index = LatencyHistogram.indexOf(value);
+            assertThat(index).isBetween(previous, previous + 1);
+            assertThat(LatencyHistogram.highestValueOf(index)).isGreaterThanOrEqualTo(value);
+            if (index > 0)
+                assertThat(LatencyHistogram.highestValueOf(index - 1)).isLessThan(value);
+            previous = index;
+        }
+        int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+        assertEquals(last, LatencyHistogram.indexOf((1L << 40) - 1));
+        assertEquals(last, LatencyHistogram.indexOf(1L << 40));
+    }
+
+    /**
+     * Should report percentiles within the histogram's precision
+     */
+    @Test
+    public void percentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10_000; ++i)
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(10), snapshot.getMax());
+        assertThat((double) snapshot.getValueAtPercentile(50)).isCloseTo(5_000_000, within(5_000_000 * 0.03));
+        assertThat((double) snapshot.getValueAtPercentile(90)).isCloseTo(9_000_000, within(9_000_000 * 0.03));
+        assertThat((double) snapshot.getValueAtPercentile(99)).isCloseTo(9_900_000, within(9_900_000 * 0.03));
+        assertEquals(snapshot.getMax(), snapshot.getValueAtPercentile(100));
+    }
+
+    /**
+     * Should report random values within the histogram's precision
+     */
+    @Test
+    public void randomPercentileTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(42);
+        long[] values = new long[1000];
+        for (int i = 0; i < values.length; ++i) {
+            values[i] = (long) (Math.exp(random.nextDouble() * 20));
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(false);
+        for (int percentile : new int[] {50, 90, 99}) {
+            long expected = values[percentile * values.length / 100 - 1];
+            assertThat((double) snapshot.getValueAtPercentile(percentile))
+                    .isCloseTo(expected, within(Math.max(1, expected * 0.035)));
+        }
+    }
+
+    /**
+     * Should clear the histogram when a snapshot is taken with reset
+     */
+    @Test
+    public void resetTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.record(-5);
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot(true);
+        assertEquals(2, snapshot.getCount());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(50));
+
+        LatencyHistogram.Snapshot empty = histogram.snapshot(false);
+        assertEquals(0, empty.getCount());
+        assertEquals(0, empty.getMax());
+        assertEquals(0, empty.getValueAtPercentile(99));
+    }
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright 2020, Airtable-java Contributors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial
+ * portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED,
+ * INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR
+ * PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR
+ * OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER
+ * DEALINGS IN THE SOFTWARE.
+ */
+
+package com.tryadhawk.airtable.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.tryadhawk.airtable.Query;
+import com.tryadhawk.airtable.Sort;
+import com.tryadhawk.airtable.exception.AirtableFormulaException;
+import com.tryadhawk.airtable.formula.LocalQuery;
+import com.tryadhawk.airtable.v0.Record;
+
+/**
+ * In-process stand-in for the Airtable API, for load and fault injection testing without using API quota. Serves the
+ * {@code /v0/{baseId}/{table}} endpoints used by {@code AsyncTable} from in-memory tables: listing records with offset
+ * pagination by GET or POST listRecords, and finding, creating, updating, and deleting records one at a time or in
+ * batches. Filters and sorts are evaluated with {@link LocalQuery}, views are ignored.
+ * <p>
+ * Every response can be delayed by a fixed latency plus random jitter, and requests can be failed with 429 or 5xx
+ * responses at random or on demand. Settings can be changed while the server is running
+ */
+public class FakeAirtableServer implements AutoCloseable {
+
+    @SuppressWarnings("unchecked")
+    private static final Class<Map<String, Object>> FIELDS_TYPE = (Class<Map<String, Object>>) (Class<?>) Map.class;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ConcurrentMap<String, ConcurrentSkipListMap<String, Record<Map<String, Object>>>> tables =
+            new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final Queue<Integer> failures = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "fake-airtable");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final HttpServer server;
+
+    private volatile long latencyNanos;
+    private volatile long jitterNanos;
+    private volatile double rateLimitRate;
+    private volatile double serverErrorRate;
+    private volatile Integer retryAfter;
+
+    /**
+     * Start a server on a free local port
+     * @throws IOException if the server cannot be started
+     */
+    public FakeAirtableServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v0/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * @return the endpoint URL to set in {@code Configuration}
+     */
+    public String getEndpointUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v0";
+    }
+
+    /**
+     * Delay every response
+     * @param latency the fixed delay
+     * @param jitter the max random delay added to {@code latency}
+     * @param unit the unit of {@code latency} and {@code jitter}
+     * @return this server
+     */
+    public FakeAirtableServer setLatency(long latency, long jitter, TimeUnit unit) {
+        this.latencyNanos = unit.toNanos(latency);
+        this.jitterNanos = unit.toNanos(jitter);
+        return this;
+    }
+
+    /**
+     * Fail requests at random with 429 Too Many Requests
+     * @param rate the fraction of requests to fail, from 0 to 1
+     * @return this server
+     */
+    public FakeAirtableServer setRateLimitRate(double rate) {
+        this.rateLimitRate = rate;
+        return this;
+    }
+
+    /**
+     * Fail requests at random with 503 Service Unavailable
+     * @param rate the fraction of requests to fail, from 0 to 1
+     * @return this server
+     */
+    public FakeAirtableServer setServerErrorRate(double rate) {
+        this.serverErrorRate = rate;
+        return this;
+    }
+
+    /**
+     * Send a Retry-After header with 429 responses
+     * @param seconds the header value, if null no header is sent
+     * @return this server
+     */
+    public FakeAirtableServer setRetryAfter(Integer seconds) {
+        this.retryAfter = seconds;
+        return this;
+    }
+
+    /**
+     * Fail the next requests, before any random failures
+     * @param statusCode the status code to fail with
+     * @param count the number of requests to fail
+     * @return this server
+     */
+    public FakeAirtableServer failNext(int statusCode, int count) {
+        for (int i = 0; i < count; ++i)
+            failures.add(statusCode);
+        return this;
+    }
+
+    /**
+     * Add a record to a table, creating the table if needed
+     * @param baseId the base ID
+     * @param table the table name
+     * @param fields the record's fields, mapped to JSON
+     * @return the record's ID
+     */
+    public String addRecord(String baseId, String table, Object fields) {
+        Record<Map<String, Object>> record = newRecord(objectMapper.convertValue(fields, FIELDS_TYPE));
+        getTable(baseId, table).put(record.getId(), record);
+        return record.getId();
+    }
+
+    /**
+     * @param baseId the base ID
+     * @param table the table name
+     * @return the records in the table in the order they were created
+     */
+    public List<Record<Map<String, Object>>> getRecords(String baseId, String table) {
+        return new ArrayList<>(getTable(baseId, table).values());
+    }
+
+    /**
+     * @return the number of requests received, including failed requests
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * @return the number of requests failed by injected faults
+     */
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            requestCount.incrementAndGet();
+            delay();
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            if (auth == null || !auth.startsWith("Bearer "))
+                sendError(exchange, 401, "AUTHENTICATION_REQUIRED", "Authentication required");
+            else if (!injectFailure(exchange))
+                route(exchange);
+        } catch (AirtableFormulaException e) {
+            sendError(exchange, 422, "INVALID_FILTER_BY_FORMULA", e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(exchange, 422, "INVALID_REQUEST_UNKNOWN", e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, "SERVER_ERROR", String.valueOf(e));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay() {
+        long delay = latencyNanos + (jitterNanos > 0 ? ThreadLocalRandom.current().nextLong(jitterNanos) : 0);
+        if (delay <= 0)
+            return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean injectFailure(HttpExchange exchange) throws IOException {
+        Integer status = failures.poll();
+        if (status == null) {
+            double random = ThreadLocalRandom.current().nextDouble();
+            if (random < rateLimitRate)
+                status = 429;
+            else if (random < rateLimitRate + serverErrorRate)
+                status = 503;
+        }
+        if (status == null)
+            return false;
+        failureCount.incrementAndGet();
+        if (status == 429) {
+            if (retryAfter != null)
+                exchange.getResponseHeaders().add("Retry-After", retryAfter.toString());
+            sendError(exchange, 429, "RATE_LIMIT_REACHED", "Rate limit exceeded");
+        } else {
+            sendError(exchange, status, "SERVER_ERROR", "Injected failure");
+        }
+        return true;
+    }
+
+    private void route(HttpExchange exchange) throws IOException {
+        // path is /v0/{baseId}/{table}[/{recordId} or /listRecords]
+        String[] path = exchange.getRequestURI().getPath().split("/");
+        if (path.length < 4 || path.length > 5) {
+            sendError(exchange, 404, "NOT_FOUND", "Could not find what you are looking for");
+            return;
+        }
+        ConcurrentSkipListMap<String, Record<Map<String, Object>>> table = getTable(path[2], path[3]);
+        String id = path.length == 5 ? path[4] : null;
+        String method = exchange.getRequestMethod();
+        Map<String, List<String>> params = parseQuery(exchange.getRequestURI().getRawQuery());
+
+        if (id == null && method.equals("GET"))
+            send(exchange, 200, list(table, params));
+        else if ("listRecords".equals(id) && method.equals("POST"))
+            send(exchange, 200, list(table, listParams(readBody(exchange))));
+        else if (id == null && method.equals("POST"))
+            send(exchange, 200, write(table, readBody(exchange), false));
+        else if (id == null && method.equals("PATCH"))
+            send(exchange, 200, write(table, readBody(exchange), true));
+        else if (id == null && method.equals("DELETE"))
+            send(exchange, 200, deleteAll(table, params.getOrDefault("records[]", Collections.emptyList())));
+        else if (id != null && !table.containsKey(id))
+            sendError(exchange, 404, "NOT_FOUND", "Could not find what you are looking for");
+        else if (method.equals("GET"))
+            send(exchange, 200, table.get(id));
+        else if (method.equals("PATCH"))
+            send(exchange, 200, update(table, id, readBody(exchange).path("fields")));
+        else if (method.equals("DELETE"))
+            send(exchange, 200, delete(table, id));
+        else
+            sendError(exchange, 404, "NOT_FOUND", "Could not find what you are looking for");
+    }
+
+    private ObjectNode list(Map<String, Record<Map<String, Object>>> table, Map<String, List<String>> params) {
+        Query.QueryBuilder query = Query.builder()
+                .filterByFormula(first(params, "filterByFormula"))
+                .maxRecords(parseInt(first(params, "maxRecords")));
+        for (int i = 0; params.containsKey("sort[" + i + "][field]"); ++i) {
+            String direction = first(params, "sort[" + i + "][direction]");
+            query.sort(new Sort(first(params, "sort[" + i + "][field]"),
+                    direction == null ? Sort.Direction.asc : Sort.Direction.valueOf(direction)));
+        }
+        List<Record<Map<String, Object>>> records =
+                LocalQuery.select(table.values(), query.build(), FIELDS_TYPE, objectMapper);
+
+        Integer pageSize = parseInt(first(params, "pageSize"));
+        int size = pageSize == null ? MAX_PAGE_SIZE : Math.min(pageSize, MAX_PAGE_SIZE);
+        int start = parseOffset(first(params, "offset"));
+        int end = Math.min(records.size(), start + size);
+        List<String> fields = params.get("fields[]");
+
+        ObjectNode page = objectMapper.createObjectNode();
+        ArrayNode pageRecords = page.putArray("records");
+        for (Record<Map<String, Object>> record : records.subList(Math.min(start, end), end))
+            pageRecords.add(project(record, fields));
+        if (end < records.size())
+            page.put("offset", "itr" + end);
+        return page;
+    }
+
+    private JsonNode write(Map<String, Record<Map<String, Object>>> table, JsonNode body, boolean update) {
+        if (!body.has("records")) {
+            Record<Map<String, Object>> record = newRecord(toFields(body.path("fields")));
+            table.put(record.getId(), record);
+            return objectMapper.valueToTree(record);
+        }
+        ObjectNode batch = objectMapper.createObjectNode();
+        ArrayNode records = batch.putArray("records");
+        for (JsonNode item : body.get("records")) {
+            if (update) {
+                String id = item.path("id").asText();
+                if (!table.containsKey(id))
+                    throw new IllegalArgumentException("Record " + id + " does not exist");
+                records.add(update(table, id, item.path("fields")));
+            } else {
+                Record<Map<String, Object>> record = newRecord(toFields(item.path("fields")));
+                table.put(record.getId(), record);
+                records.add(objectMapper.<JsonNode>valueToTree(record));
+            }
+        }
+        return batch;
+    }
+
+    private JsonNode update(Map<String, Record<Map<String, Object>>> table, String id, JsonNode fields) {
+        Record<Map<String, Object>> updated = table.computeIfPresent(id, (key, record) -> {
+            Map<String, Object> merged = new LinkedHashMap<>(record.getFields());
+            merged.putAll(toFields(fields));
+            merged.values().removeIf(value -> value == null);
+            return Record.of(key, merged, record.getCreatedTime());
+        });
+        return objectMapper.valueToTree(updated);
+    }
+
+    private JsonNode delete(Map<String, Record<Map<String, Object>>> table, String id) {
+        ObjectNode result = objectMapper.createObjectNode();
+        result.put("id", id);
+        result.put("deleted", table.remove(id) != null);
+        return result;
+    }
+
+    private JsonNode deleteAll(Map<String, Record<Map<String, Object>>> table, List<String> ids) {
+        ObjectNode batch = objectMapper.createObjectNode();
+        ArrayNode records = batch.putArray("records");
+        for (String id : ids)
+            records.add(delete(table, id));
+        return batch;
+    }
+
+    private ObjectNode project(Record<Map<String, Object>> record, List<String> fields) {
+        ObjectNode node = objectMapper.valueToTree(record);
+        if (fields != null)
+            ((ObjectNode) node.get("fields")).retain(fields);
+        return node;
+    }
+
+    private Record<Map<String, Object>> newRecord(Map<String, Object> fields) {
+        String id = String.format("rec%014d", nextId.incrementAndGet());
+        return Record.of(id, fields, "2020-01-01T00:00:00.000Z");
+    }
+
+    private Map<String, Object> toFields(JsonNode fields) {
+        return fields.isObject() ? objectMapper.convertValue(fields, FIELDS_TYPE) : new LinkedHashMap<>();
+    }
+
+    private ConcurrentSkipListMap<String, Record<Map<String, Object>>> getTable(String baseId, String table) {
+        return tables.computeIfAbsent(baseId + "/" + table, key -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Convert the body of a POST listRecords request to the params of the equivalent GET request
+     */
+    private static Map<String, List<String>> listParams(JsonNode body) {
+        Map<String, List<String>> params = new HashMap<>();
+        body.fields().forEachRemaining(field -> {
+            if (field.getKey().equals("fields")) {
+                List<String> fields = new ArrayList<>();
+                field.getValue().forEach(name -> fields.add(name.asText()));
+                params.put("fields[]", fields);
+            } else if (field.getKey().equals("sort")) {
+                int i = 0;
+                for (JsonNode sort : field.getValue()) {
+                    params.put("sort[" + i + "][field]", Collections.singletonList(sort.path("field").asText()));
+                    params.put("sort[" + i + "][direction]",
+                            Collections.singletonList(sort.path("direction").asText("asc")));
+                    ++i;
+                }
+            } else if (!field.getValue().isNull()) {
+                params.put(field.getKey(), Collections.singletonList(field.getValue().asText()));
+            }
+        });
+        return params;
+    }
+
+    private static Map<String, List<String>> parseQuery(String query) throws UnsupportedEncodingException {
+        Map<String, List<String>> params = new HashMap<>();
+        if (query == null || query.isEmpty())
+            return params;
+        for (String param : query.split("&")) {
+            int split = param.indexOf('=');
+            String name = URLDecoder.decode(split < 0 ? param : param.substring(0, split), "UTF-8");
+            String value = split < 0 ? "" : URLDecoder.decode(param.substring(split + 1), "UTF-8");
+            params.computeIfAbsent(name, key -> new ArrayList<>()).add(value);
+        }
+        return params;
+    }
+
+    private static String first(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values == null || values.isEmpty() ? null : values.get(0);
+    }
+
+    private static Integer parseInt(String value) {
+        return value == null ? null : Integer.valueOf(value);
+    }
+
+    private static int parseOffset(String offset) {
+        if (offset == null)
+            return 0;
+        if (!offset.startsWith("itr"))
+            throw new IllegalArgumentException("Invalid offset " + offset);
+        return Integer.parseInt(offset.substring(3));
+    }
+
+    private JsonNode readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        try (InputStream in = exchange.getRequestBody()) {
+            int read;
+            while ((read = in.read(buffer)) > 0)
+                body.write(buffer, 0, read);
+        }
+        return body.size() == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(body.toByteArray());
+    }
+
+    private void sendError(HttpExchange exchange, int statusCode, String type, String message) throws IOException {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.putObject("error").put("type", type).put("message", message);
+        send(exchange, statusCode, body);
+    }
+
+    private void send(HttpExchange exchange, int statusCode, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}